@@ -0,0 +1,123 @@
+package jg.editables;
+
+/**
+ * Classes used by the benchmarks: a deep hierarchy of ten levels and a single wide class.
+ * @author Jordan Glanfield
+ */
+public class BenchmarkTypes {
+
+  public static class Level0 {
+    @Editable(category = "Level0") public int int0;
+    @Editable(category = "Level0") public double double0;
+    @Editable(category = "Level0") public String string0;
+    @Editable public long long0;
+  }
+
+  public static class Level1 extends Level0 {
+    @Editable(category = "Level1") public int int1;
+    @Editable(category = "Level1") public double double1;
+    @Editable(category = "Level1") public String string1;
+    @Editable public long long1;
+  }
+
+  public static class Level2 extends Level1 {
+    @Editable(category = "Level2") public int int2;
+    @Editable(category = "Level2") public double double2;
+    @Editable(category = "Level2") public String string2;
+    @Editable public long long2;
+  }
+
+  public static class Level3 extends Level2 {
+    @Editable(category = "Level3") public int int3;
+    @Editable(category = "Level3") public double double3;
+    @Editable(category = "Level3") public String string3;
+    @Editable public long long3;
+  }
+
+  public static class Level4 extends Level3 {
+    @Editable(category = "Level4") public int int4;
+    @Editable(category = "Level4") public double double4;
+    @Editable(category = "Level4") public String string4;
+    @Editable public long long4;
+  }
+
+  public static class Level5 extends Level4 {
+    @Editable(category = "Level5") public int int5;
+    @Editable(category = "Level5") public double double5;
+    @Editable(category = "Level5") public String string5;
+    @Editable public long long5;
+  }
+
+  public static class Level6 extends Level5 {
+    @Editable(category = "Level6") public int int6;
+    @Editable(category = "Level6") public double double6;
+    @Editable(category = "Level6") public String string6;
+    @Editable public long long6;
+  }
+
+  public static class Level7 extends Level6 {
+    @Editable(category = "Level7") public int int7;
+    @Editable(category = "Level7") public double double7;
+    @Editable(category = "Level7") public String string7;
+    @Editable public long long7;
+  }
+
+  public static class Level8 extends Level7 {
+    @Editable(category = "Level8") public int int8;
+    @Editable(category = "Level8") public double double8;
+    @Editable(category = "Level8") public String string8;
+    @Editable public long long8;
+  }
+
+  public static class Level9 extends Level8 {
+    @Editable(category = "Level9") public int int9;
+    @Editable(category = "Level9") public double double9;
+    @Editable(category = "Level9") public String string9;
+    @Editable public long long9;
+  }
+
+  public static class Wide {
+    @Editable(category = "Group0") public int field0;
+    @Editable(category = "Group0") public double field1;
+    @Editable(category = "Group0") public String field2;
+    @Editable(category = "Group0") public long field3;
+    @Editable(category = "Group0") public int field4;
+    @Editable(category = "Group0") public double field5;
+    @Editable(category = "Group0") public String field6;
+    @Editable(category = "Group0") public long field7;
+    @Editable(category = "Group1") public int field8;
+    @Editable(category = "Group1") public double field9;
+    @Editable(category = "Group1") public String field10;
+    @Editable(category = "Group1") public long field11;
+    @Editable(category = "Group1") public int field12;
+    @Editable(category = "Group1") public double field13;
+    @Editable(category = "Group1") public String field14;
+    @Editable(category = "Group1") public long field15;
+    @Editable(category = "Group2") public int field16;
+    @Editable(category = "Group2") public double field17;
+    @Editable(category = "Group2") public String field18;
+    @Editable(category = "Group2") public long field19;
+    @Editable(category = "Group2") public int field20;
+    @Editable(category = "Group2") public double field21;
+    @Editable(category = "Group2") public String field22;
+    @Editable(category = "Group2") public long field23;
+    @Editable(category = "Group3") public int field24;
+    @Editable(category = "Group3") public double field25;
+    @Editable(category = "Group3") public String field26;
+    @Editable(category = "Group3") public long field27;
+    @Editable(category = "Group3") public int field28;
+    @Editable(category = "Group3") public double field29;
+    @Editable(category = "Group3") public String field30;
+    @Editable(category = "Group3") public long field31;
+  }
+
+  public static class Entity {
+    @Editable public int health = 100;
+    @Editable(setterName = "setSpeed") public double speed = 1;
+    @Editable public String name = "entity";
+
+    public void setSpeed(double speed) {
+      this.speed = speed;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package jg.editables;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading and writing primitive and reference fields through EditableField, compared to
+ * core reflection. Run with "-prof gc" to see allocation per operation.
+ * @author Jordan Glanfield
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldAccessBenchmark {
+
+  private BenchmarkTypes.Entity entity;
+  private EditableField health;
+  private EditableField speed;
+  private EditableField name;
+  private Field reflectedHealth;
+  private ParsingFunctionsMap parsingFunctions;
+  private ParsingFunctionsMap unboxedParsingFunctions;
+  private int counter;
+
+  @Setup
+  public void setup() throws NoSuchFieldException {
+    entity = new BenchmarkTypes.Entity();
+    EditableSchema schema = EditablePropertyUtils.getSchema(BenchmarkTypes.Entity.class);
+    health = schema.getField(0);
+    speed = schema.getField(1);
+    name = schema.getField(2);
+    reflectedHealth = BenchmarkTypes.Entity.class.getDeclaredField("health");
+    // Wrapping the primitive functions hides them from the map, which then only parses boxed.
+    Map<Class<?>, Function<String, Object>> boxedFunctions =
+        ParsingFunctionsMap.getPrimitiveParsingFunctions();
+    boxedFunctions.replaceAll((type, function) -> function::apply);
+    parsingFunctions = new ParsingFunctionsMap(boxedFunctions);
+    unboxedParsingFunctions =
+        new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions());
+  }
+
+  @Benchmark
+  public Object getPrimitiveBoxed() {
+    return health.getFieldValueChecked(entity);
+  }
+
+  @Benchmark
+  public int getPrimitiveUnboxed() {
+    return health.getInt(entity);
+  }
+
+  @Benchmark
+  public Object getPrimitiveReflection() throws IllegalAccessException {
+    return reflectedHealth.get(entity);
+  }
+
+  @Benchmark
+  public boolean setPrimitiveBoxed() {
+    return health.setValue(entity, counter++);
+  }
+
+  @Benchmark
+  public boolean setPrimitiveUnboxed() {
+    return health.setInt(entity, counter++);
+  }
+
+  @Benchmark
+  public void setPrimitiveReflection() throws IllegalAccessException {
+    reflectedHealth.set(entity, counter++);
+  }
+
+  @Benchmark
+  public boolean setPrimitiveThroughSetter() {
+    return speed.setDouble(entity, counter++);
+  }
+
+  @Benchmark
+  public Object getReference() {
+    return name.getFieldValueChecked(entity);
+  }
+
+  @Benchmark
+  public boolean setReference() {
+    return name.setValue(entity, "renamed");
+  }
+
+  @Benchmark
+  public boolean setFieldValueParsedBoxed() {
+    return health.setFieldValue(entity, "42", parsingFunctions);
+  }
+
+  @Benchmark
+  public boolean setFieldValueParsedUnboxed() {
+    return health.setFieldValue(entity, "42", unboxedParsingFunctions);
+  }
+}
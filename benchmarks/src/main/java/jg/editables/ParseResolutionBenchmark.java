@@ -0,0 +1,72 @@
+package jg.editables;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures resolving parsing functions for exact matches, subtype matches and misses, both from
+ * the cache and just after the cache has been invalidated.
+ * @author Jordan Glanfield
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParseResolutionBenchmark {
+
+  private ParsingFunctionsMap parsingFunctions;
+  private Function<String, Object> listParsingFunction = (string) -> new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    parsingFunctions = new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions());
+    parsingFunctions.addParsingFunction(ArrayList.class, listParsingFunction);
+  }
+
+  @Benchmark
+  public Function<String, Object> exactHit() {
+    return parsingFunctions.getParseFunction(Integer.TYPE);
+  }
+
+  @Benchmark
+  public Function<String, Object> subtypeHit() {
+    return parsingFunctions.getParseFunction(List.class);
+  }
+
+  @Benchmark
+  public Function<String, Object> miss() {
+    return parsingFunctions.getParseFunction(Thread.class);
+  }
+
+  @Benchmark
+  public Function<String, Object> subtypeHitAfterInvalidation() {
+    parsingFunctions.addParsingFunction(ArrayList.class, listParsingFunction);
+    return parsingFunctions.getParseFunction(AbstractList.class);
+  }
+
+  @Benchmark
+  public Function<String, Object> missAfterInvalidation() {
+    parsingFunctions.addParsingFunction(ArrayList.class, listParsingFunction);
+    return parsingFunctions.getParseFunction(Thread.class);
+  }
+
+  @Benchmark
+  public Object parse() {
+    return parsingFunctions.parse(Double.TYPE, "3.5");
+  }
+}
@@ -0,0 +1,53 @@
+package jg.editables;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures compiling schemas from scratch, as happens the first time a class is inspected, and
+ * looking up the cached property groups afterwards.
+ * @author Jordan Glanfield
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaDiscoveryBenchmark {
+
+  @Benchmark
+  public EditableSchema compileDeepHierarchy() {
+    return compileUncached(BenchmarkTypes.Level9.class);
+  }
+
+  @Benchmark
+  public EditableSchema compileWideClass() {
+    return compileUncached(BenchmarkTypes.Wide.class);
+  }
+
+  @Benchmark
+  public Map<String, List<EditableField>> cachedDeepHierarchy() {
+    return EditablePropertyUtils.getPropertyGroups(BenchmarkTypes.Level9.class);
+  }
+
+  @Benchmark
+  public Map<String, List<EditableField>> cachedWideClass() {
+    return EditablePropertyUtils.getPropertyGroups(BenchmarkTypes.Wide.class);
+  }
+
+  private static EditableSchema compileUncached(Class<?> clazz) {
+    Class<?> superClass = clazz.getSuperclass();
+    return EditableSchema.compile(clazz, superClass == null ? null : compileUncached(superClass));
+  }
+}
@@ -0,0 +1,171 @@
+package jg.editables;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Contains static methods for applying one change to an editable field across many objects, such
+ * as when several entities are selected in an editor. The value is parsed once and large inputs
+ * are written in parallel on the common fork join pool.
+ * @author Jordan Glanfield
+ */
+public class BulkEditUtils {
+
+  /**
+   * The number of objects below which writes are applied sequentially. Kept a multiple of 64 so
+   * that parallel tasks never share a word of the result bitmap.
+   */
+  public static final int PARALLEL_THRESHOLD = 8192;
+
+  /**
+   * Parses the given string once using the given parsingFunctions and applies the result to the
+   * field on each of the objects. Parsing exceptions are thrown as for
+   * EditableField.setFieldValue.
+   * @return a bitmap with the bit at each object's position set if the write to it succeeded.
+   */
+  public static BitSet setFieldValue(EditableField field, Collection<?> objects, String string,
+      ParsingFunctionsMap parsingFunctions) {
+    return setFieldValue(field, objects.toArray(), string, parsingFunctions);
+  }
+
+  /**
+   * Parses the given string once using the given parsingFunctions and applies the result to the
+   * field on each of the objects. Parsing exceptions are thrown as for
+   * EditableField.setFieldValue.
+   * @return a bitmap with the bit at each object's position set if the write to it succeeded.
+   */
+  public static BitSet setFieldValue(EditableField field, Object[] objects, String string,
+      ParsingFunctionsMap parsingFunctions) {
+    Predicate<Object> write = getParsedWrite(field, string, parsingFunctions);
+
+    if (write == null) {
+      return new BitSet();
+    } else {
+      return apply(objects, write);
+    }
+  }
+
+  /**
+   * Applies the given value to the field on each of the objects.
+   * @return a bitmap with the bit at each object's position set if the write to it succeeded.
+   */
+  public static BitSet setValue(EditableField field, Collection<?> objects, Object value) {
+    return setValue(field, objects.toArray(), value);
+  }
+
+  /**
+   * Applies the given value to the field on each of the objects.
+   * @return a bitmap with the bit at each object's position set if the write to it succeeded.
+   */
+  public static BitSet setValue(EditableField field, Object[] objects, Object value) {
+    return apply(objects, (object) -> field.setValue(object, value));
+  }
+
+  /**
+   * Returns a write of the parsed string to the field, avoiding boxing for primitive fields with
+   * unboxed parsing functions, or null if the string could not be parsed.
+   */
+  private static Predicate<Object> getParsedWrite(EditableField field, String string,
+      ParsingFunctionsMap parsingFunctions) {
+    Class<?> type = field.getType();
+
+    if (type == int.class) {
+      ToIntFunction<CharSequence> parseFunction = parsingFunctions.getIntParseFunction(type);
+      if (parseFunction != null) {
+        int value = parseFunction.applyAsInt(string);
+        return (object) -> field.setInt(object, value);
+      }
+    } else if (type == long.class) {
+      ToLongFunction<CharSequence> parseFunction = parsingFunctions.getLongParseFunction(type);
+      if (parseFunction != null) {
+        long value = parseFunction.applyAsLong(string);
+        return (object) -> field.setLong(object, value);
+      }
+    } else if (type == float.class) {
+      ParsingFunctionsMap.ToFloatFunction<CharSequence> parseFunction =
+          parsingFunctions.getFloatParseFunction(type);
+      if (parseFunction != null) {
+        float value = parseFunction.applyAsFloat(string);
+        return (object) -> field.setFloat(object, value);
+      }
+    } else if (type == double.class) {
+      ToDoubleFunction<CharSequence> parseFunction = parsingFunctions.getDoubleParseFunction(type);
+      if (parseFunction != null) {
+        double value = parseFunction.applyAsDouble(string);
+        return (object) -> field.setDouble(object, value);
+      }
+    }
+
+    Object value = parsingFunctions.parse(type, string);
+
+    if (value == null) {
+      value = EditableCodecs.lookupEnumConstant(type, string);
+    }
+
+    if (value == null) {
+      return null;
+    }
+
+    Object parsed = value;
+    return (object) -> field.setValue(object, parsed);
+  }
+
+  private static BitSet apply(Object[] objects, Predicate<Object> write) {
+    long[] words = new long[(objects.length + 63) >>> 6];
+    WriteTask task = new WriteTask(objects, 0, objects.length, words, write);
+
+    if (objects.length < PARALLEL_THRESHOLD) {
+      task.compute();
+    } else {
+      task.invoke();
+    }
+
+    return BitSet.valueOf(words);
+  }
+
+  private static class WriteTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] objects;
+    private final int from;
+    private final int to;
+    private final long[] words;
+    private final Predicate<Object> write;
+
+    WriteTask(Object[] objects, int from, int to, long[] words, Predicate<Object> write) {
+      this.objects = objects;
+      this.from = from;
+      this.to = to;
+      this.words = words;
+      this.write = write;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from < PARALLEL_THRESHOLD) {
+        for (int i = from; i < to; i++) {
+          boolean bSuccess;
+          try {
+            bSuccess = write.test(objects[i]);
+          } catch (RuntimeException e) {
+            bSuccess = false;
+          }
+
+          if (bSuccess) {
+            words[i >>> 6] |= 1L << i;
+          }
+        }
+      } else {
+        // Split on a word boundary so the halves write disjoint words.
+        int middle = (from + ((to - from) >>> 1)) & ~63;
+        invokeAll(new WriteTask(objects, from, middle, words, write),
+            new WriteTask(objects, middle, to, words, write));
+      }
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package jg.editables;
+
+/**
+ * An undo and redo history of committed edit transactions, kept in a ring buffer bounded both in
+ * the number of transactions and in the total number of edits they hold. The oldest transactions
+ * are forgotten once either bound is exceeded. Not thread safe.
+ * @author Jordan Glanfield
+ */
+public class EditHistory {
+
+  private final EditJournal[] journals;
+  private final int maxEdits;
+  private int start = 0;
+  private int count = 0;
+  private int position = 0;
+  private int editCount = 0;
+
+  /**
+   * @param maxTransactions the greatest number of transactions that can be undone.
+   * @param maxEdits the greatest number of individual edits kept across all transactions. The
+   * most recent transaction is always kept, even if it alone exceeds this.
+   */
+  public EditHistory(int maxTransactions, int maxEdits) {
+    if (maxTransactions < 1 || maxEdits < 1) {
+      throw new IllegalArgumentException("History bounds must be positive");
+    }
+
+    journals = new EditJournal[maxTransactions];
+    this.maxEdits = maxEdits;
+  }
+
+  /**
+   * Begins a transaction that is recorded in this history when committed.
+   */
+  public EditTransaction begin() {
+    return new EditTransaction(this);
+  }
+
+  void push(EditJournal journal) {
+    // Recording a new transaction discards anything that could have been redone.
+    while (count > position) {
+      count--;
+      int index = (start + count) % journals.length;
+      editCount -= journals[index].size();
+      journals[index] = null;
+    }
+
+    if (count == journals.length) {
+      removeOldest();
+    }
+
+    journals[(start + count) % journals.length] = journal;
+    count++;
+    position = count;
+    editCount += journal.size();
+
+    while (editCount > maxEdits && count > 1) {
+      removeOldest();
+    }
+  }
+
+  private void removeOldest() {
+    editCount -= journals[start].size();
+    journals[start] = null;
+    start = (start + 1) % journals.length;
+    count--;
+    position--;
+  }
+
+  /**
+   * Returns whether there is a transaction to undo.
+   */
+  public boolean canUndo() {
+    return position > 0;
+  }
+
+  /**
+   * Returns whether there is an undone transaction to redo.
+   */
+  public boolean canRedo() {
+    return position < count;
+  }
+
+  /**
+   * Restores the values changed by the most recent transaction that has not been undone.
+   * @return true if a transaction was undone and all its values restored, false otherwise.
+   */
+  public boolean undo() {
+    if (!canUndo()) {
+      return false;
+    }
+
+    position--;
+    return journals[(start + position) % journals.length].undo();
+  }
+
+  /**
+   * Reapplies the values of the most recently undone transaction.
+   * @return true if a transaction was redone and all its values applied, false otherwise.
+   */
+  public boolean redo() {
+    if (!canRedo()) {
+      return false;
+    }
+
+    EditJournal journal = journals[(start + position) % journals.length];
+    position++;
+    return journal.redo();
+  }
+
+  /**
+   * Returns the total number of individual edits held by the history.
+   */
+  public int getEditCount() {
+    return editCount;
+  }
+
+  /**
+   * Forgets every recorded transaction.
+   */
+  public void clear() {
+    while (count > 0) {
+      removeOldest();
+    }
+
+    start = 0;
+    position = 0;
+  }
+}
@@ -0,0 +1,110 @@
+package jg.editables;
+
+import java.util.Arrays;
+
+/**
+ * A compact, append only record of field edits, storing each edit's object, field and old and new
+ * values in parallel arrays. Primitive values are stored unboxed as raw bits and the reference
+ * value columns are only allocated once a reference field is edited.
+ * @author Jordan Glanfield
+ */
+final class EditJournal {
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private Object[] objects = new Object[INITIAL_CAPACITY];
+  private EditableField[] fields = new EditableField[INITIAL_CAPACITY];
+  private long[] oldBits = new long[INITIAL_CAPACITY];
+  private long[] newBits = new long[INITIAL_CAPACITY];
+  private Object[] oldReferences;
+  private Object[] newReferences;
+  private int size;
+
+  /**
+   * Records an edit of a primitive field.
+   */
+  void addPrimitive(Object object, EditableField field, long oldValue, long newValue) {
+    int index = append(object, field);
+    oldBits[index] = oldValue;
+    newBits[index] = newValue;
+  }
+
+  /**
+   * Records an edit of a reference field.
+   */
+  void addReference(Object object, EditableField field, Object oldValue, Object newValue) {
+    int index = append(object, field);
+
+    if (oldReferences == null) {
+      oldReferences = new Object[objects.length];
+      newReferences = new Object[objects.length];
+    }
+
+    oldReferences[index] = oldValue;
+    newReferences[index] = newValue;
+  }
+
+  private int append(Object object, EditableField field) {
+    if (size == objects.length) {
+      int capacity = size * 2;
+      objects = Arrays.copyOf(objects, capacity);
+      fields = Arrays.copyOf(fields, capacity);
+      oldBits = Arrays.copyOf(oldBits, capacity);
+      newBits = Arrays.copyOf(newBits, capacity);
+
+      if (oldReferences != null) {
+        oldReferences = Arrays.copyOf(oldReferences, capacity);
+        newReferences = Arrays.copyOf(newReferences, capacity);
+      }
+    }
+
+    objects[size] = object;
+    fields[size] = field;
+    return size++;
+  }
+
+  /**
+   * Returns the number of edits recorded.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Restores the old values of all edits, most recent first.
+   * @return true if every value was restored and false if not.
+   */
+  boolean undo() {
+    boolean bSuccess = true;
+
+    for (int i = size - 1; i >= 0; i--) {
+      bSuccess &= apply(i, oldBits, oldReferences);
+    }
+
+    return bSuccess;
+  }
+
+  /**
+   * Reapplies the new values of all edits, oldest first.
+   * @return true if every value was applied and false if not.
+   */
+  boolean redo() {
+    boolean bSuccess = true;
+
+    for (int i = 0; i < size; i++) {
+      bSuccess &= apply(i, newBits, newReferences);
+    }
+
+    return bSuccess;
+  }
+
+  private boolean apply(int index, long[] bits, Object[] references) {
+    EditableField field = fields[index];
+
+    if (field.isPrimitive()) {
+      return field.setBits(objects[index], bits[index]);
+    } else {
+      return field.setValue(objects[index], references[index]);
+    }
+  }
+}
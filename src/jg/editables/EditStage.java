@@ -0,0 +1,215 @@
+package jg.editables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stages edits made on editor or network threads so that the thread owning the edited objects can
+ * apply them at a safe point of its choosing, such as between frames of a game loop. Edits are
+ * grouped into batches that are published atomically through a lock free queue and applied
+ * together, each journaled and rolled back if any of its edits fails, so the owning thread never
+ * sees part of a batch and needs no synchronization when reading its fields. Text is parsed on the
+ * staging thread. Staging is thread safe, applying should only be done by the owning thread.
+ * @author Jordan Glanfield
+ */
+public class EditStage {
+
+  private final Queue<Batch> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingBatches = new AtomicInteger();
+  private final AtomicInteger pendingEdits = new AtomicInteger();
+
+  /**
+   * Begins a batch of edits that are applied together once submitted.
+   */
+  public Batch begin() {
+    return new Batch();
+  }
+
+  /**
+   * Stages a single edit writing the given value to the field on the object.
+   */
+  public void stageValue(EditableField field, Object object, Object value) {
+    begin().setValue(field, object, value).submit();
+  }
+
+  /**
+   * Parses the string and stages a single edit writing the result to the field on the object.
+   * @return true if the string was parsed and staged and false if not.
+   */
+  public boolean stageFieldValue(EditableField field, Object object, String string,
+      ParsingFunctionsMap parsingFunctions) {
+    Batch batch = begin();
+
+    if (!batch.setFieldValue(field, object, string, parsingFunctions)) {
+      return false;
+    }
+
+    batch.submit();
+    return true;
+  }
+
+  /**
+   * Returns the number of staged edits not yet applied.
+   */
+  public int getPendingCount() {
+    return pendingEdits.get();
+  }
+
+  // Application
+
+  /**
+   * Applies the batches submitted before the call in submission order through EditableField, so
+   * setters and change listeners apply. A batch whose edits do not all succeed is rolled back as a
+   * whole. Batches submitted while applying are left for the next call. To be called by the thread
+   * owning the edited objects.
+   * @return the number of edits in the batches that were applied.
+   */
+  public int apply() {
+    return apply(null);
+  }
+
+  /**
+   * As apply, recording each batch as one transaction in the given history if it is not null.
+   * @return the number of edits in the batches that were applied.
+   */
+  public int apply(EditHistory history) {
+    int batchCount = pendingBatches.get();
+    int written = 0;
+
+    for (int i = 0; i < batchCount; i++) {
+      Batch batch = pending.poll();
+
+      if (batch == null) {
+        break;
+      }
+
+      pendingBatches.decrementAndGet();
+      pendingEdits.addAndGet(-batch.edits.size());
+      EditTransaction transaction = history == null ? new EditTransaction() : history.begin();
+      boolean bThrown = false;
+
+      // A setter's exception, or one for an object the field does not belong to, fails the batch.
+      try {
+        for (Edit edit : batch.edits) {
+          if (!transaction.setValue(edit.field, edit.object, edit.value)) {
+            break;
+          }
+        }
+      } catch (RuntimeException e) {
+        bThrown = true;
+      }
+
+      // A failed transaction rolls every edit of the batch back.
+      if (bThrown) {
+        transaction.rollback();
+      } else if (transaction.commit()) {
+        written += batch.edits.size();
+      }
+    }
+
+    return written;
+  }
+
+  /**
+   * Discards every submitted batch that has not been applied.
+   */
+  public void clear() {
+    Batch batch;
+
+    while ((batch = pending.poll()) != null) {
+      pendingBatches.decrementAndGet();
+      pendingEdits.addAndGet(-batch.edits.size());
+    }
+  }
+
+  /**
+   * A group of edits published to the stage together. Not thread safe, a batch should be built
+   * by one thread.
+   */
+  public final class Batch {
+    private final List<Edit> edits = new ArrayList<>();
+    private boolean bSubmitted = false;
+
+    private Batch() {
+    }
+
+    /**
+     * Adds an edit writing the given value to the field on the object.
+     */
+    public Batch setValue(EditableField field, Object object, Object value) {
+      checkNotSubmitted();
+      edits.add(new Edit(field, object, value));
+      return this;
+    }
+
+    /**
+     * Parses the string and adds an edit writing the result to the field on the object.
+     * @return true if the string was parsed and the edit added and false if not.
+     */
+    public boolean setFieldValue(EditableField field, Object object, String string,
+        ParsingFunctionsMap parsingFunctions) {
+      checkNotSubmitted();
+      Class<?> type = field.getType();
+      Object value;
+
+      try {
+        value = parsingFunctions.parse(type, string);
+
+        if (value == null) {
+          value = EditableCodecs.lookupEnumConstant(type, string);
+        }
+      } catch (RuntimeException e) {
+        return false;
+      }
+
+      if (value == null) {
+        return false;
+      }
+
+      edits.add(new Edit(field, object, value));
+      return true;
+    }
+
+    /**
+     * Returns the number of edits in the batch.
+     */
+    public int size() {
+      return edits.size();
+    }
+
+    /**
+     * Publishes the batch to be applied by the owning thread. Empty batches are dropped.
+     */
+    public void submit() {
+      checkNotSubmitted();
+      bSubmitted = true;
+
+      if (!edits.isEmpty()) {
+        pendingEdits.addAndGet(edits.size());
+        pending.add(this);
+        pendingBatches.incrementAndGet();
+      }
+    }
+
+    private void checkNotSubmitted() {
+      if (bSubmitted) {
+        throw new IllegalStateException("Batch already submitted");
+      }
+    }
+  }
+
+  private static class Edit {
+    private final EditableField field;
+    private final Object object;
+    private final Object value;
+
+    Edit(EditableField field, Object object, Object value) {
+      this.field = field;
+      this.object = object;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package jg.editables;
+
+/**
+ * Groups edits of editable fields so that they can be committed or rolled back together. Edits
+ * are applied immediately and journaled, a failed edit marks the transaction as failed and
+ * committing a failed transaction rolls it back instead. Committed transactions are handed to the
+ * owning EditHistory, if any, for undo and redo. Undo and redo go through EditableField.setValue
+ * so setters should accept the values they themselves produce. Not thread safe.
+ * @author Jordan Glanfield
+ */
+public class EditTransaction {
+
+  private final EditHistory history;
+  private final EditJournal journal = new EditJournal();
+  private boolean bFailed = false;
+  private boolean bClosed = false;
+
+  /**
+   * Creates a transaction that is not recorded in any history.
+   */
+  public EditTransaction() {
+    this(null);
+  }
+
+  EditTransaction(EditHistory history) {
+    this.history = history;
+  }
+
+  /**
+   * Applies the given value to the field on the object as EditableField.setValue, journaling the
+   * change.
+   * @return true if successful and false if not.
+   */
+  public boolean setValue(EditableField field, Object object, Object value) {
+    checkOpen();
+
+    if (field.isPrimitive()) {
+      long oldValue = field.getBits(object);
+      return recordPrimitive(field, object, oldValue, field.setValue(object, value));
+    } else {
+      Object oldValue = field.getFieldValueChecked(object);
+      return recordReference(field, object, oldValue, field.setValue(object, value));
+    }
+  }
+
+  /**
+   * Parses the string and applies the result to the field on the object as
+   * EditableField.setFieldValue, journaling the change. Exceptions thrown while parsing fail the
+   * edit rather than propagating.
+   * @return true if successful and false if not.
+   */
+  public boolean setFieldValue(EditableField field, Object object, String string,
+      ParsingFunctionsMap parsingFunctions) {
+    checkOpen();
+
+    if (field.isPrimitive()) {
+      long oldValue = field.getBits(object);
+      return recordPrimitive(field, object, oldValue,
+          trySetFieldValue(field, object, string, parsingFunctions));
+    } else {
+      Object oldValue = field.getFieldValueChecked(object);
+      return recordReference(field, object, oldValue,
+          trySetFieldValue(field, object, string, parsingFunctions));
+    }
+  }
+
+  private static boolean trySetFieldValue(EditableField field, Object object, String string,
+      ParsingFunctionsMap parsingFunctions) {
+    try {
+      return field.setFieldValue(object, string, parsingFunctions);
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+
+  private boolean recordPrimitive(EditableField field, Object object, long oldValue,
+      boolean bSuccess) {
+    if (!bSuccess) {
+      bFailed = true;
+      return false;
+    }
+
+    long newValue = field.getBits(object);
+
+    if (newValue != oldValue) {
+      journal.addPrimitive(object, field, oldValue, newValue);
+    }
+
+    return true;
+  }
+
+  private boolean recordReference(EditableField field, Object object, Object oldValue,
+      boolean bSuccess) {
+    if (!bSuccess) {
+      bFailed = true;
+      return false;
+    }
+
+    Object newValue = field.getFieldValueChecked(object);
+
+    if (newValue != oldValue) {
+      journal.addReference(object, field, oldValue, newValue);
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns whether any edit in this transaction has failed.
+   */
+  public boolean isFailed() {
+    return bFailed;
+  }
+
+  /**
+   * Returns the number of edits that changed a value.
+   */
+  public int getEditCount() {
+    return journal.size();
+  }
+
+  /**
+   * Completes the transaction, recording it in the owning history. If any edit failed then the
+   * transaction is rolled back instead.
+   * @return true if the transaction was committed and false if it was rolled back.
+   */
+  public boolean commit() {
+    checkOpen();
+
+    if (bFailed) {
+      rollback();
+      return false;
+    }
+
+    bClosed = true;
+
+    if (history != null && journal.size() > 0) {
+      history.push(journal);
+    }
+
+    return true;
+  }
+
+  /**
+   * Restores every value changed by this transaction and closes it.
+   */
+  public void rollback() {
+    checkOpen();
+    bClosed = true;
+    journal.undo();
+  }
+
+  private void checkOpen() {
+    if (bClosed) {
+      throw new IllegalStateException("Transaction already committed or rolled back");
+    }
+  }
+}
@@ -24,7 +24,7 @@ public @interface Editable {
   /**
    * The name of the setter to use when modifying the field's value. The setter must accept a
    * single argument that the field is assignable from. By default the field's value will be
-   * directly set. Only public setters may be used currently.
+   * directly set. The setter may be non-public and may be declared in a superclass.
    */
   String setterName() default NO_SETTER;
 }
@@ -0,0 +1,65 @@
+package jg.editables;
+
+/**
+ * Reflection free access to the editable fields declared by a single class. Implementations are
+ * generated at compile time by jg.editables.processing.EditableProcessor and picked up by
+ * EditablePropertyUtils when present. Fields are indexed in declaration order and only the fields
+ * declared directly by the class are covered, superclasses have their own accessors.
+ * @author Jordan Glanfield
+ */
+public interface EditableAccessors {
+
+  /**
+   * Suffix appended to the binary name of a class to give the name of its generated accessors.
+   */
+  static final String CLASS_SUFFIX = "_EditableAccessors";
+
+  /**
+   * Returns the names of the editable fields declared by the class, in declaration order.
+   */
+  String[] getFieldNames();
+
+  /**
+   * Returns the category of each editable field, in the same order as getFieldNames.
+   */
+  String[] getCategories();
+
+  /**
+   * Returns the erased type of each editable field, in the same order as getFieldNames, with null
+   * for types the accessors cannot name. Returns null if the accessors were generated without
+   * types, in which case the fields are looked up reflectively.
+   */
+  default Class<?>[] getFieldTypes() {
+    return null;
+  }
+
+  /**
+   * Returns the setter named by the annotation of each editable field, or Editable.NO_SETTER, in
+   * the same order as getFieldNames. Returns null if the accessors were generated without them.
+   */
+  default String[] getSetterNames() {
+    return null;
+  }
+
+  /**
+   * Returns whether the field at the given index can be read by get.
+   */
+  boolean canGet(int index);
+
+  /**
+   * Returns whether the field at the given index can be written by set, through its setter if
+   * it names one and otherwise directly.
+   */
+  boolean canSet(int index);
+
+  /**
+   * Returns the value of the field at the given index on the object.
+   */
+  Object get(Object object, int index);
+
+  /**
+   * Applies the value to the field at the given index on the object, using the field's setter if
+   * one was bound at compile time.
+   */
+  void set(Object object, int index, Object value);
+}
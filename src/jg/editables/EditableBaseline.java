@@ -0,0 +1,277 @@
+package jg.editables;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * The last replicated editable state of one object, used to encode and apply deltas holding only
+ * the fields that changed since. A delta is a bitmask with one bit per field in schema order,
+ * set for each field present, followed by the values of the present fields in schema order.
+ * Primitives are written at their natural width without boxing, strings as length prefixed UTF-8,
+ * enums as their ordinal and other values as their toString representation, which is parsed
+ * again when applied. Reference values are compared with equals, so changes made inside a mutable
+ * referenced object are not seen. Both ends must share the same version of the object's class.
+ * Not thread safe.
+ * @author Jordan Glanfield
+ */
+public final class EditableBaseline {
+
+  /**
+   * Stands in for a value that could not be decoded.
+   */
+  private static final Object UNDECODABLE = new Object();
+
+  private final EditableSchema schema;
+  private final int[] widths;
+  private final long[] bits;
+  private final Object[] references;
+
+  /**
+   * Creates a baseline holding the current editable state of the given object.
+   */
+  public EditableBaseline(Object object) {
+    schema = EditablePropertyUtils.getSchema(object.getClass());
+    widths = new int[schema.getFieldCount()];
+    bits = new long[widths.length];
+    references = new Object[widths.length];
+
+    for (int i = 0; i < widths.length; i++) {
+      widths[i] = getWidth(schema.getField(i).getType());
+    }
+
+    capture(object);
+  }
+
+  private static int getWidth(Class<?> type) {
+    if (type == boolean.class || type == byte.class) {
+      return 1;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == long.class || type == double.class) {
+      return 8;
+    } else {
+      return 0;
+    }
+  }
+
+  // Getters
+
+  /**
+   * Returns the schema whose fields the baseline holds.
+   */
+  public EditableSchema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Returns the size in bytes of the bitmask at the start of each delta.
+   */
+  public int getMaskSize() {
+    return (widths.length + 7) >>> 3;
+  }
+
+  // Deltas
+
+  /**
+   * Resets the baseline to the current editable state of the given object.
+   */
+  public void capture(Object object) {
+    for (int i = 0; i < widths.length; i++) {
+      EditableField field = schema.getField(i);
+
+      if (widths[i] > 0) {
+        bits[i] = field.getBits(object);
+      } else {
+        references[i] = field.getFieldValueChecked(object);
+      }
+    }
+  }
+
+  /**
+   * Writes a delta of the given object's editable state against the baseline to the buffer and
+   * moves the baseline to the object's current state.
+   * @return the number of fields that changed, which when 0 means the delta need not be sent.
+   * @throws java.nio.BufferOverflowException if the buffer is too small, leaving the baseline as
+   * it was.
+   */
+  public int writeDelta(Object object, ByteBuffer buffer) {
+    int maskPosition = buffer.position();
+    byte[] mask = new byte[getMaskSize()];
+    buffer.put(mask);
+
+    long[] newBits = null;
+    Object[] newReferences = null;
+    int changed = 0;
+
+    for (int i = 0; i < widths.length; i++) {
+      EditableField field = schema.getField(i);
+
+      if (widths[i] > 0) {
+        long value = field.getBits(object);
+
+        if (value == bits[i]) {
+          continue;
+        }
+
+        putBits(buffer, widths[i], value);
+        newBits = newBits == null ? bits.clone() : newBits;
+        newBits[i] = value;
+      } else {
+        Object value = field.getFieldValueChecked(object);
+
+        if (Objects.equals(value, references[i])) {
+          continue;
+        }
+
+        putReference(buffer, field.getType(), value);
+        newReferences = newReferences == null ? references.clone() : newReferences;
+        newReferences[i] = value;
+      }
+
+      mask[i >>> 3] |= 1 << (i & 7);
+      changed++;
+    }
+
+    int end = buffer.position();
+    buffer.position(maskPosition);
+    buffer.put(mask);
+    buffer.position(end);
+
+    if (newBits != null) {
+      System.arraycopy(newBits, 0, bits, 0, bits.length);
+    }
+
+    if (newReferences != null) {
+      System.arraycopy(newReferences, 0, references, 0, references.length);
+    }
+
+    return changed;
+  }
+
+  /**
+   * Reads a delta written by writeDelta from the buffer and writes each present value into the
+   * given object through EditableField, so setters and change listeners apply, moving the
+   * baseline to match for the values written. Values written as text are parsed with the given
+   * parsingFunctions.
+   * @return true if every present value was written and false if not.
+   */
+  public boolean applyDelta(ByteBuffer buffer, Object object,
+      ParsingFunctionsMap parsingFunctions) {
+    byte[] mask = new byte[getMaskSize()];
+    buffer.get(mask);
+    boolean bSuccess = true;
+
+    for (int i = 0; i < widths.length; i++) {
+      if ((mask[i >>> 3] & (1 << (i & 7))) == 0) {
+        continue;
+      }
+
+      EditableField field = schema.getField(i);
+      Class<?> type = field.getType();
+
+      if (widths[i] > 0) {
+        long value = getBits(buffer, type);
+        boolean bWritten;
+
+        try {
+          bWritten = field.setBits(object, value);
+        } catch (RuntimeException e) {
+          bWritten = false;
+        }
+
+        if (bWritten) {
+          bits[i] = value;
+        }
+
+        bSuccess &= bWritten;
+      } else {
+        Object value = getReference(buffer, type, parsingFunctions);
+        boolean bWritten;
+
+        try {
+          bWritten = value != UNDECODABLE && field.setValue(object, value);
+        } catch (RuntimeException e) {
+          bWritten = false;
+        }
+
+        if (bWritten) {
+          references[i] = value;
+        }
+
+        bSuccess &= bWritten;
+      }
+    }
+
+    return bSuccess;
+  }
+
+  // Encoding
+
+  private static void putBits(ByteBuffer buffer, int width, long value) {
+    if (width == 8) {
+      buffer.putLong(value);
+    } else if (width == 4) {
+      buffer.putInt((int) value);
+    } else if (width == 2) {
+      buffer.putShort((short) value);
+    } else {
+      buffer.put((byte) value);
+    }
+  }
+
+  private static long getBits(ByteBuffer buffer, Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return buffer.getLong();
+    } else if (type == int.class || type == float.class) {
+      return buffer.getInt();
+    } else if (type == char.class) {
+      return buffer.getChar();
+    } else if (type == short.class) {
+      return buffer.getShort();
+    } else {
+      return buffer.get();
+    }
+  }
+
+  private static void putReference(ByteBuffer buffer, Class<?> type, Object value) {
+    if (value == null) {
+      buffer.putInt(-1);
+    } else if (type.isEnum()) {
+      buffer.putInt(((Enum<?>) value).ordinal());
+    } else {
+      byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+      buffer.putInt(bytes.length);
+      buffer.put(bytes);
+    }
+  }
+
+  private static Object getReference(ByteBuffer buffer, Class<?> type,
+      ParsingFunctionsMap parsingFunctions) {
+    int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    } else if (type.isEnum()) {
+      Object[] constants = type.getEnumConstants();
+      return length < constants.length ? constants[length] : UNDECODABLE;
+    }
+
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    String string = new String(bytes, StandardCharsets.UTF_8);
+
+    if (type == String.class) {
+      return string;
+    }
+
+    try {
+      Object value = parsingFunctions == null ? null : parsingFunctions.parse(type, string);
+      return value == null ? UNDECODABLE : value;
+    } catch (RuntimeException e) {
+      return UNDECODABLE;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package jg.editables;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The index of classes declaring editable fields written at build time by EditableProcessor,
+ * merged across every copy of the index resource visible to a class loader. A class browser can
+ * list the indexed classes along with their categories and field names without loading them, and
+ * schemas can be discovered lazily on first use or warmed in parallel up front.
+ * @author Jordan Glanfield
+ */
+public final class EditableClassIndex {
+
+  /**
+   * The path of the index resource within each jar or class output directory.
+   */
+  public static final String RESOURCE = "META-INF/jg.editables/editable-classes";
+
+  /**
+   * Written in place of the superclass of an indexed class that inherits no editable fields.
+   */
+  public static final String NO_SUPERCLASS = "-";
+
+  // The names of the indexed classes visible to each class loader, read on first use.
+  private static final Map<ClassLoader, Set<String>> INDEXED_NAMES =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final ClassLoader classLoader;
+
+  /**
+   * The lines of the index by class name, each split into the class name, the superclass name
+   * and then pairs of category and field name.
+   */
+  private final Map<String, String[]> entries;
+
+  private EditableClassIndex(ClassLoader classLoader, Map<String, String[]> entries) {
+    this.classLoader = classLoader;
+    this.entries = entries;
+  }
+
+  /**
+   * Reads the index visible to the current thread's context class loader, or to the loader of
+   * this class if the thread has none.
+   */
+  public static EditableClassIndex load() {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    return load(classLoader == null ? EditableClassIndex.class.getClassLoader() : classLoader);
+  }
+
+  /**
+   * Reads every copy of the index resource visible to the given class loader, which is also used
+   * to load indexed classes.
+   * @throws UncheckedIOException if a copy of the index could not be read.
+   */
+  public static EditableClassIndex load(ClassLoader classLoader) {
+    Map<String, String[]> entries = new LinkedHashMap<>();
+
+    try {
+      Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+
+      while (resources.hasMoreElements()) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+            resources.nextElement().openStream(), StandardCharsets.UTF_8))) {
+          String line;
+
+          while ((line = reader.readLine()) != null) {
+            String[] parts = line.split("\t", -1);
+
+            if (parts.length >= 2 && parts.length % 2 == 0) {
+              entries.putIfAbsent(parts[0], parts);
+            }
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return new EditableClassIndex(classLoader, entries);
+  }
+
+  /**
+   * Returns whether the class is listed in the index visible to its own class loader. Classes of
+   * the platform and bootstrap class loaders never are, and no index is read for them. Classes
+   * of a loader whose index cannot be read are treated as unindexed.
+   */
+  static boolean isIndexed(Class<?> clazz) {
+    ClassLoader classLoader = clazz.getClassLoader();
+
+    if (classLoader == null || classLoader == ClassLoader.getPlatformClassLoader()) {
+      return false;
+    }
+
+    Set<String> names = INDEXED_NAMES.get(classLoader);
+
+    if (names == null) {
+      // Racing threads may each read the index, any of which is equivalent.
+      try {
+        names = new HashSet<>(load(classLoader).entries.keySet());
+      } catch (UncheckedIOException e) {
+        names = Collections.emptySet();
+      }
+
+      INDEXED_NAMES.put(classLoader, names);
+    }
+
+    return names.contains(clazz.getName());
+  }
+
+  // Getters
+
+  /**
+   * Returns the binary names of the indexed classes.
+   */
+  public Set<String> getClassNames() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  /**
+   * Returns whether the named class is indexed.
+   */
+  public boolean contains(String className) {
+    return entries.containsKey(className);
+  }
+
+  /**
+   * Returns the editable field names of the named class grouped by category, in schema order and
+   * including fields inherited from indexed superclasses, without loading the class.
+   * @throws IllegalArgumentException if the class is not indexed.
+   */
+  public Map<String, List<String>> getPropertyGroups(String className) {
+    Map<String, List<String>> groups = new LinkedHashMap<>();
+    String[] entry = getEntry(className);
+
+    // Inherited fields follow declared ones, matching the order of EditableSchema.
+    while (entry != null) {
+      for (int i = 2; i < entry.length; i += 2) {
+        groups.computeIfAbsent(entry[i], (key) -> new ArrayList<>()).add(entry[i + 1]);
+      }
+
+      entry = entries.get(entry[1]);
+    }
+
+    return groups;
+  }
+
+  // Classes and schemas
+
+  /**
+   * Loads the named class without initialising it.
+   * @throws IllegalArgumentException if the class is not indexed.
+   */
+  public Class<?> loadClass(String className) throws ClassNotFoundException {
+    getEntry(className);
+    return Class.forName(className, false, classLoader);
+  }
+
+  /**
+   * Returns the schema of the named class, discovering it on first use.
+   * @throws IllegalArgumentException if the class is not indexed.
+   */
+  public EditableSchema getSchema(String className) throws ClassNotFoundException {
+    return EditablePropertyUtils.getSchema(loadClass(className));
+  }
+
+  /**
+   * Discovers the schema of every indexed class on the given executor, one task per class so
+   * schemas are discovered in parallel on a multi-threaded executor. Classes that fail to load
+   * are skipped.
+   * @return a future completing once every schema has been discovered.
+   */
+  public CompletableFuture<Void> warmSchemas(Executor executor) {
+    List<CompletableFuture<?>> tasks = new ArrayList<>(entries.size());
+
+    for (String className : entries.keySet()) {
+      tasks.add(CompletableFuture.runAsync(() -> {
+        try {
+          getSchema(className);
+        } catch (ClassNotFoundException | LinkageError e) {
+          // The index is stale, the class no longer exists.
+        }
+      }, executor));
+    }
+
+    return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0]));
+  }
+
+  private String[] getEntry(String className) {
+    String[] entry = entries.get(className);
+
+    if (entry == null) {
+      throw new IllegalArgumentException("Class " + className + " is not indexed");
+    }
+
+    return entry;
+  }
+}
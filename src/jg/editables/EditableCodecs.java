@@ -0,0 +1,293 @@
+package jg.editables;
+
+import java.nio.CharBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A ParsingFunctionsMap that also converts values back to text, registering a codec per class:
+ * a parser working on a slice of a CharSequence and a formatter appending to a caller supplied
+ * StringBuilder. Enums are parsed through precomputed per-enum lookup tables and int and long
+ * values through their unboxed parsing functions over a reusable slice view, so importing or
+ * exporting large numbers of values need not create a String per value. Formatters are resolved
+ * through the superclasses of a value's class. May be shared between threads.
+ * @author Jordan Glanfield
+ */
+public class EditableCodecs extends ParsingFunctionsMap {
+
+  /**
+   * Parses the characters of a CharSequence between start, inclusive, and end, exclusive.
+   */
+  @FunctionalInterface
+  public interface SliceParser<T> {
+    T parse(CharSequence chars, int start, int end);
+  }
+
+  /**
+   * Appends the text for a value to a StringBuilder.
+   */
+  @FunctionalInterface
+  public interface Formatter<T> {
+    void format(T value, StringBuilder out);
+  }
+
+  private static final ClassValue<EnumTable> ENUM_TABLES = new ClassValue<EnumTable>() {
+    @Override
+    protected EnumTable computeValue(Class<?> type) {
+      return new EnumTable(type);
+    }
+  };
+
+  // Marks a class for which no formatter could be resolved.
+  private static final Formatter<Object> NO_FORMATTER = (value, out) -> { };
+
+  private final Map<Class<?>, SliceParser<?>> sliceParsers = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Formatter<Object>> formatters = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Formatter<Object>> resolvedFormatters = new ConcurrentHashMap<>();
+  private final ThreadLocal<CharSlice> slices = ThreadLocal.withInitial(CharSlice::new);
+  private final ThreadLocal<StringBuilder> scratch = ThreadLocal.withInitial(StringBuilder::new);
+
+  /**
+   * Creates codecs for the primitive types, their boxed variants and strings, with unboxed
+   * parsing functions for int, long, float and double.
+   */
+  public EditableCodecs() {
+    this(getPrimitiveParsingFunctions());
+  }
+
+  /**
+   * Creates codecs parsing with the given map of classes to parsing functions, as
+   * ParsingFunctionsMap, and formatting with toString until formatters are added.
+   */
+  public EditableCodecs(Map<Class<?>, Function<String, Object>> parsingFunctions) {
+    super(parsingFunctions);
+  }
+
+  /**
+   * Adds a codec for the given class, registering the parser as its parsing function too.
+   */
+  public synchronized <T> void addCodec(Class<T> targetClass, SliceParser<? extends T> parser,
+      Formatter<? super T> formatter) {
+    addParsingFunction(targetClass, (string) -> parser.parse(string, 0, string.length()));
+    sliceParsers.put(targetClass, parser);
+    addFormatter(targetClass, formatter);
+  }
+
+  /**
+   * Adds a formatter for values of the given class and its subclasses.
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized <T> void addFormatter(Class<T> targetClass,
+      Formatter<? super T> formatter) {
+    formatters.put(targetClass, (Formatter<Object>) formatter);
+    resolvedFormatters.clear();
+  }
+
+  // Parsing
+
+  /**
+   * Parses the characters of the CharSequence between start, inclusive, and end, exclusive, into
+   * an instance of the given class. Classes with a codec are parsed in place and enums without one
+   * looked up by constant name, other classes fall back to parse with the slice as a String.
+   * @return the parsed value or null if the slice could not be parsed.
+   */
+  public Object parse(Class<?> targetClass, CharSequence chars, int start, int end) {
+    SliceParser<?> parser = sliceParsers.get(targetClass);
+
+    if (parser != null) {
+      try {
+        return parser.parse(chars, start, end);
+      } catch (RuntimeException e) {
+        return null;
+      }
+    } else if (targetClass.isEnum()) {
+      return ENUM_TABLES.get(targetClass).lookup(chars, start, end);
+    }
+
+    try {
+      return parse(targetClass, chars.subSequence(start, end).toString());
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns a view of the given slice to pass to unboxed parsing functions. The view is reused
+   * by the calling thread and is only valid until the next call.
+   */
+  CharSequence slice(CharSequence chars, int start, int end) {
+    return slices.get().set(chars, start, end);
+  }
+
+  /**
+   * Returns the constant of the enum class named by the given slice, without creating a String,
+   * or null if there is none.
+   */
+  public static <E extends Enum<E>> E lookupEnum(Class<E> enumClass, CharSequence chars,
+      int start, int end) {
+    return enumClass.cast(ENUM_TABLES.get(enumClass).lookup(chars, start, end));
+  }
+
+  /**
+   * Returns the constant named by the text if the type is an enum, as lookupEnum for a type only
+   * known at runtime, or null if the type is not an enum or has no such constant.
+   */
+  static Object lookupEnumConstant(Class<?> type, CharSequence text) {
+    return type.isEnum() ? ENUM_TABLES.get(type).lookup(text, 0, text.length()) : null;
+  }
+
+  // Formatting
+
+  @Override
+  public void format(Object value, StringBuilder out) {
+    if (value == null) {
+      return;
+    }
+
+    Formatter<Object> formatter = getFormatter(value.getClass());
+
+    if (formatter != NO_FORMATTER) {
+      formatter.format(value, out);
+    } else if (value instanceof Enum) {
+      // Enums are written by name, which toString may have been overridden to differ from.
+      out.append(((Enum<?>) value).name());
+    } else {
+      out.append(value);
+    }
+  }
+
+  /**
+   * Appends the text for the given value to the buffer, as format to a StringBuilder.
+   * @throws java.nio.BufferOverflowException if the buffer is too small.
+   */
+  public void format(Object value, CharBuffer out) {
+    if (value == null) {
+      return;
+    }
+
+    Formatter<Object> formatter = getFormatter(value.getClass());
+
+    if (formatter != NO_FORMATTER) {
+      StringBuilder text = scratch.get();
+      text.setLength(0);
+      formatter.format(value, text);
+      out.append(text);
+    } else if (value instanceof Enum) {
+      out.put(((Enum<?>) value).name());
+    } else {
+      out.put(value.toString());
+    }
+  }
+
+  @Override
+  public boolean hasFormatter(Class<?> targetClass) {
+    return getFormatter(targetClass) != NO_FORMATTER;
+  }
+
+  private Formatter<Object> getFormatter(Class<?> targetClass) {
+    Formatter<Object> formatter = resolvedFormatters.get(targetClass);
+
+    if (formatter == null) {
+      formatter = NO_FORMATTER;
+
+      for (Class<?> current = targetClass; current != null; current = current.getSuperclass()) {
+        Formatter<Object> registered = formatters.get(current);
+
+        if (registered != null) {
+          formatter = registered;
+          break;
+        }
+      }
+
+      resolvedFormatters.put(targetClass, formatter);
+    }
+
+    return formatter;
+  }
+
+  /**
+   * The constants of one enum class with the hashes of their names, so a constant can be found
+   * from a slice of characters without creating a String.
+   */
+  private static final class EnumTable {
+    private final Object[] constants;
+    private final String[] names;
+    private final int[] hashes;
+
+    EnumTable(Class<?> type) {
+      constants = type.getEnumConstants();
+      names = new String[constants.length];
+      hashes = new int[constants.length];
+
+      for (int i = 0; i < constants.length; i++) {
+        names[i] = ((Enum<?>) constants[i]).name();
+        hashes[i] = names[i].hashCode();
+      }
+    }
+
+    Object lookup(CharSequence chars, int start, int end) {
+      int hash = 0;
+
+      // The same hash as String.hashCode, computed over the slice.
+      for (int i = start; i < end; i++) {
+        hash = 31 * hash + chars.charAt(i);
+      }
+
+      for (int i = 0; i < constants.length; i++) {
+        if (hashes[i] == hash && names[i].length() == end - start && matches(names[i], chars,
+            start)) {
+          return constants[i];
+        }
+      }
+
+      return null;
+    }
+
+    private static boolean matches(String name, CharSequence chars, int start) {
+      for (int i = 0; i < name.length(); i++) {
+        if (name.charAt(i) != chars.charAt(start + i)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+  }
+
+  /**
+   * A reusable view of a slice of a CharSequence.
+   */
+  private static final class CharSlice implements CharSequence {
+    private CharSequence chars;
+    private int start;
+    private int end;
+
+    CharSlice set(CharSequence chars, int start, int end) {
+      this.chars = chars;
+      this.start = start;
+      this.end = end;
+      return this;
+    }
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return chars.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      return chars.subSequence(start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+      return chars.subSequence(start, end).toString();
+    }
+  }
+}
@@ -0,0 +1,342 @@
+package jg.editables;
+
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * One editable field stored as a column of an EditableColumnStore, giving EditableField style
+ * access to the field's value in each row. Primitive values are packed at their natural width in
+ * a heap or direct byte buffer and references are kept in an array. Row accessors throw
+ * IndexOutOfBoundsException for rows outside the store's current size, even where the column
+ * has capacity for them.
+ * @author Jordan Glanfield
+ */
+public final class EditableColumn {
+
+  private final EditableColumnStore store;
+  private final EditableField field;
+  private final Class<?> type;
+  private final Class<?> wrapperType;
+  private final int width;
+  private final boolean bOffHeap;
+  private ByteBuffer data;
+  private Object[] references;
+
+  EditableColumn(EditableColumnStore store, EditableField field, int capacity, boolean bOffHeap) {
+    this.store = store;
+    this.field = field;
+    this.type = field.getType();
+    this.wrapperType = MethodType.methodType(type).wrap().returnType();
+    this.width = getWidth(type);
+    this.bOffHeap = bOffHeap;
+
+    if (type.isPrimitive()) {
+      data = allocate(capacity * width);
+    } else {
+      references = new Object[capacity];
+    }
+  }
+
+  private static int getWidth(Class<?> type) {
+    if (type == boolean.class || type == byte.class) {
+      return 1;
+    } else if (type == short.class || type == char.class) {
+      return 2;
+    } else if (type == int.class || type == float.class) {
+      return 4;
+    } else if (type == long.class || type == double.class) {
+      return 8;
+    } else {
+      return 0;
+    }
+  }
+
+  private ByteBuffer allocate(int bytes) {
+    ByteBuffer buffer = bOffHeap ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+    return buffer.order(ByteOrder.nativeOrder());
+  }
+
+  void grow(int capacity) {
+    if (data != null) {
+      ByteBuffer grown = allocate(capacity * width);
+      data.clear();
+      grown.put(data);
+      grown.clear();
+      data = grown;
+    } else {
+      references = Arrays.copyOf(references, capacity);
+    }
+  }
+
+  // Getters
+
+  /**
+   * Returns the editable field stored in this column.
+   */
+  public EditableField getField() {
+    return field;
+  }
+
+  /**
+   * Returns whether the column holds a primitive field.
+   */
+  public boolean isPrimitive() {
+    return data != null;
+  }
+
+  // Row access
+
+  /**
+   * Returns the int value in the given row.
+   */
+  public int getInt(int row) {
+    checkType(int.class);
+    store.checkRow(row);
+    return data.getInt(row << 2);
+  }
+
+  /**
+   * Sets the int value in the given row.
+   */
+  public void setInt(int row, int value) {
+    checkType(int.class);
+    store.checkRow(row);
+    data.putInt(row << 2, value);
+  }
+
+  /**
+   * Returns the long value in the given row.
+   */
+  public long getLong(int row) {
+    checkType(long.class);
+    store.checkRow(row);
+    return data.getLong(row << 3);
+  }
+
+  /**
+   * Sets the long value in the given row.
+   */
+  public void setLong(int row, long value) {
+    checkType(long.class);
+    store.checkRow(row);
+    data.putLong(row << 3, value);
+  }
+
+  /**
+   * Returns the float value in the given row.
+   */
+  public float getFloat(int row) {
+    checkType(float.class);
+    store.checkRow(row);
+    return data.getFloat(row << 2);
+  }
+
+  /**
+   * Sets the float value in the given row.
+   */
+  public void setFloat(int row, float value) {
+    checkType(float.class);
+    store.checkRow(row);
+    data.putFloat(row << 2, value);
+  }
+
+  /**
+   * Returns the double value in the given row.
+   */
+  public double getDouble(int row) {
+    checkType(double.class);
+    store.checkRow(row);
+    return data.getDouble(row << 3);
+  }
+
+  /**
+   * Sets the double value in the given row.
+   */
+  public void setDouble(int row, double value) {
+    checkType(double.class);
+    store.checkRow(row);
+    data.putDouble(row << 3, value);
+  }
+
+  /**
+   * Returns the boolean value in the given row.
+   */
+  public boolean getBoolean(int row) {
+    checkType(boolean.class);
+    store.checkRow(row);
+    return data.get(row) != 0;
+  }
+
+  /**
+   * Sets the boolean value in the given row.
+   */
+  public void setBoolean(int row, boolean value) {
+    checkType(boolean.class);
+    store.checkRow(row);
+    data.put(row, value ? (byte) 1 : (byte) 0);
+  }
+
+  /**
+   * Returns the value in the given row of a primitive column as raw bits, in the same encoding as
+   * EditableField.getBits.
+   */
+  long getBits(int row) {
+    if (type == int.class) {
+      return data.getInt(row << 2);
+    } else if (type == long.class) {
+      return data.getLong(row << 3);
+    } else if (type == float.class) {
+      return data.getInt(row << 2);
+    } else if (type == double.class) {
+      return data.getLong(row << 3);
+    } else if (type == char.class) {
+      return data.getChar(row << 1);
+    } else if (type == short.class) {
+      return data.getShort(row << 1);
+    } else {
+      return data.get(row);
+    }
+  }
+
+  /**
+   * Sets the value in the given row of a primitive column from raw bits.
+   */
+  void setBits(int row, long bits) {
+    if (width == 8) {
+      data.putLong(row << 3, bits);
+    } else if (width == 4) {
+      data.putInt(row << 2, (int) bits);
+    } else if (width == 2) {
+      data.putShort(row << 1, (short) bits);
+    } else {
+      data.put(row, (byte) bits);
+    }
+  }
+
+  /**
+   * Returns the value in the given row, boxing primitives.
+   */
+  public Object getValue(int row) {
+    store.checkRow(row);
+
+    if (data == null) {
+      return references[row];
+    }
+
+    long bits = getBits(row);
+
+    if (type == int.class) {
+      return (int) bits;
+    } else if (type == long.class) {
+      return bits;
+    } else if (type == float.class) {
+      return Float.intBitsToFloat((int) bits);
+    } else if (type == double.class) {
+      return Double.longBitsToDouble(bits);
+    } else if (type == boolean.class) {
+      return bits != 0;
+    } else if (type == byte.class) {
+      return (byte) bits;
+    } else if (type == short.class) {
+      return (short) bits;
+    } else {
+      return (char) bits;
+    }
+  }
+
+  /**
+   * Sets the value in the given row, unboxing primitives.
+   * @return true if successful and false if the value does not suit the field's type.
+   */
+  public boolean setValue(int row, Object value) {
+    store.checkRow(row);
+
+    if (data == null) {
+      if (value != null && !type.isInstance(value)) {
+        return false;
+      }
+
+      references[row] = value;
+      return true;
+    }
+
+    if (!wrapperType.isInstance(value)) {
+      return false;
+    } else if (type == boolean.class) {
+      setBits(row, (Boolean) value ? 1 : 0);
+    } else if (type == char.class) {
+      setBits(row, (Character) value);
+    } else if (type == float.class) {
+      setBits(row, Float.floatToRawIntBits((Float) value));
+    } else if (type == double.class) {
+      setBits(row, Double.doubleToRawLongBits((Double) value));
+    } else {
+      setBits(row, ((Number) value).longValue());
+    }
+
+    return true;
+  }
+
+  /**
+   * Parses the string and stores the result in the given row, as EditableField.setFieldValue.
+   * @return true if successful and false if not.
+   */
+  public boolean setFieldValue(int row, String string, ParsingFunctionsMap parsingFunctions) {
+    if (type == int.class && parsingFunctions.getIntParseFunction(type) != null) {
+      setInt(row, parsingFunctions.getIntParseFunction(type).applyAsInt(string));
+      return true;
+    } else if (type == long.class && parsingFunctions.getLongParseFunction(type) != null) {
+      setLong(row, parsingFunctions.getLongParseFunction(type).applyAsLong(string));
+      return true;
+    } else if (type == float.class && parsingFunctions.getFloatParseFunction(type) != null) {
+      setFloat(row, parsingFunctions.getFloatParseFunction(type).applyAsFloat(string));
+      return true;
+    } else if (type == double.class && parsingFunctions.getDoubleParseFunction(type) != null) {
+      setDouble(row, parsingFunctions.getDoubleParseFunction(type).applyAsDouble(string));
+      return true;
+    }
+
+    Object value = parsingFunctions.parse(type, string);
+
+    if (value == null) {
+      value = EditableCodecs.lookupEnumConstant(type, string);
+    }
+
+    return value != null && setValue(row, value);
+  }
+
+  /**
+   * Copies the value at one row to another.
+   */
+  void copyRow(int from, int to) {
+    if (data != null) {
+      setBits(to, getBits(from));
+    } else {
+      references[to] = references[from];
+    }
+  }
+
+  /**
+   * Resets the value at the given row to the field type's default.
+   */
+  void clearRow(int row) {
+    if (data != null) {
+      setBits(row, 0);
+    } else {
+      references[row] = null;
+    }
+  }
+
+  private void checkType(Class<?> expected) {
+    if (type != expected) {
+      throw new IllegalArgumentException("Column " + field + " is not of type " + expected);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return field.toString();
+  }
+}
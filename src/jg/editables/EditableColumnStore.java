@@ -0,0 +1,176 @@
+package jg.editables;
+
+/**
+ * Stores the editable state of many instances of one class as a structure of arrays, one
+ * EditableColumn per field of the class's schema, so that the instances themselves need not be
+ * kept alive. Scanning or editing one property across every row then touches a single packed
+ * column. Primitive columns may optionally be kept off heap in direct buffers. Rows are removed by
+ * moving the last row into the gap. Not thread safe.
+ * @author Jordan Glanfield
+ */
+public class EditableColumnStore {
+
+  private static final int DEFAULT_CAPACITY = 64;
+
+  private final EditableSchema schema;
+  private final EditableColumn[] columns;
+  private int size = 0;
+  private int capacity;
+
+  /**
+   * Creates an empty store for the editable fields of the given class with on heap columns.
+   */
+  public EditableColumnStore(Class<?> clazz) {
+    this(clazz, DEFAULT_CAPACITY, false);
+  }
+
+  /**
+   * Creates an empty store for the editable fields of the given class.
+   * @param initialCapacity the number of rows to allocate space for up front.
+   * @param bOffHeap whether primitive columns are held in direct buffers outside the heap.
+   */
+  public EditableColumnStore(Class<?> clazz, int initialCapacity, boolean bOffHeap) {
+    schema = EditablePropertyUtils.getSchema(clazz);
+    capacity = Math.max(initialCapacity, 1);
+    columns = new EditableColumn[schema.getFieldCount()];
+
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = new EditableColumn(this, schema.getField(i), capacity, bOffHeap);
+    }
+  }
+
+  // Getters
+
+  /**
+   * Returns the schema whose fields make up the columns.
+   */
+  public EditableSchema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Returns the number of rows.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the column at the given position in schema order.
+   */
+  public EditableColumn getColumn(int index) {
+    return columns[index];
+  }
+
+  /**
+   * Returns the column holding the given field of the schema.
+   * @throws IllegalArgumentException if the field is not part of the schema.
+   */
+  public EditableColumn getColumn(EditableField field) {
+    int index = schema.indexOf(field);
+
+    if (index < 0) {
+      throw new IllegalArgumentException("Field " + field + " is not part of " + schema);
+    }
+
+    return columns[index];
+  }
+
+  // Rows
+
+  /**
+   * Appends a row holding the default value of every field.
+   * @return the index of the new row.
+   */
+  public int addRow() {
+    if (size == capacity) {
+      capacity *= 2;
+
+      for (EditableColumn column : columns) {
+        column.grow(capacity);
+      }
+    }
+
+    for (EditableColumn column : columns) {
+      column.clearRow(size);
+    }
+
+    return size++;
+  }
+
+  /**
+   * Appends a row holding the editable field values of the given object.
+   * @return the index of the new row.
+   */
+  public int addRow(Object object) {
+    int row = addRow();
+    copyFromObject(object, row);
+    return row;
+  }
+
+  /**
+   * Removes the given row by moving the last row into its place.
+   * @return the previous index of the row that moved into the removed row's place, or -1 if the
+   * removed row was the last.
+   */
+  public int removeRow(int row) {
+    checkRow(row);
+    int last = --size;
+
+    for (EditableColumn column : columns) {
+      if (row != last) {
+        column.copyRow(last, row);
+      }
+
+      column.clearRow(last);
+    }
+
+    return row == last ? -1 : last;
+  }
+
+  /**
+   * Copies the editable field values of the object into the given row. Primitive values are
+   * copied without boxing.
+   */
+  public void copyFromObject(Object object, int row) {
+    checkRow(row);
+
+    for (EditableColumn column : columns) {
+      EditableField field = column.getField();
+
+      if (column.isPrimitive()) {
+        column.setBits(row, field.getBits(object));
+      } else {
+        column.setValue(row, field.getFieldValueChecked(object));
+      }
+    }
+  }
+
+  /**
+   * Writes the values in the given row into the editable fields of the object through
+   * EditableField, so setters and change listeners apply.
+   * @return true if every field was written and false if not.
+   */
+  public boolean copyToObject(int row, Object object) {
+    checkRow(row);
+    boolean bSuccess = true;
+
+    for (EditableColumn column : columns) {
+      EditableField field = column.getField();
+
+      if (column.isPrimitive()) {
+        bSuccess &= field.setBits(object, column.getBits(row));
+      } else {
+        bSuccess &= field.setValue(object, column.getValue(row));
+      }
+    }
+
+    return bSuccess;
+  }
+
+  void checkRow(int row) {
+    if (row < 0 || row >= size) {
+      throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+    }
+  }
+}
@@ -0,0 +1,386 @@
+package jg.editables;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads editable field values from text files onto registered objects and reloads them whenever
+ * the files change, so values can be tuned in a text editor while a program runs. Each line of a
+ * file has the form "Class/category/field = value", where Class is the simple or binary name of
+ * the class of registered objects, and blank lines and lines starting with '#' are ignored. A
+ * background thread watches the files through a WatchService and re-reads only those that
+ * changed, comparing each entry by key with the value last applied from the file so that only
+ * entries that differ are parsed and staged, one batch per file, for the thread owning the objects
+ * to apply through EditStage.apply.
+ * @author Jordan Glanfield
+ */
+public class EditableConfigReloader implements Closeable {
+
+  private final EditStage editStage;
+  private final ParsingFunctionsMap parsingFunctions;
+  private final Map<String, Class<?>> classNames = new HashMap<>();
+  private final Map<Class<?>, List<Object>> objects = new HashMap<>();
+
+  private final Map<Path, LoadedFile> loadedFiles = new HashMap<>();
+
+  private final Set<Path> watchedFiles = new HashSet<>();
+  private final Set<Path> watchedDirectories = new HashSet<>();
+  private final Map<WatchKey, Path> watchKeys = new HashMap<>();
+  private WatchService watchService;
+  private Thread thread;
+  private volatile boolean bRunning = false;
+
+  /**
+   * @param editStage the stage that changed values are staged on.
+   * @param parsingFunctions the functions used to parse values.
+   */
+  public EditableConfigReloader(EditStage editStage, ParsingFunctionsMap parsingFunctions) {
+    this.editStage = editStage;
+    this.parsingFunctions = parsingFunctions;
+  }
+
+  /**
+   * Registers the object to receive values for its class, immediately staging any already loaded
+   * for it.
+   * @throws IllegalArgumentException if a different registered class has the same simple name,
+   * as entries naming it would be ambiguous.
+   */
+  public synchronized void register(Object object) {
+    Class<?> clazz = object.getClass();
+    Class<?> named = classNames.get(clazz.getSimpleName());
+
+    if (named != null && named != clazz) {
+      throw new IllegalArgumentException("Class " + clazz.getName() + " has the same simple name"
+          + " as the registered " + named.getName());
+    }
+
+    classNames.put(clazz.getName(), clazz);
+    classNames.put(clazz.getSimpleName(), clazz);
+    objects.computeIfAbsent(clazz, (key) -> new ArrayList<>()).add(object);
+
+    List<Object> target = Collections.singletonList(object);
+    EditStage.Batch batch = editStage.begin();
+
+    for (LoadedFile loaded : loadedFiles.values()) {
+      stageEntries(batch, loaded.getEntries(clazz.getName()), target);
+      stageEntries(batch, loaded.getEntries(clazz.getSimpleName()), target);
+    }
+
+    batch.submit();
+  }
+
+  private void stageEntries(EditStage.Batch batch, Map<String, String> entries,
+      List<Object> target) {
+    for (Map.Entry<String, String> entry : entries.entrySet()) {
+      EditableField field = resolve(entry.getKey());
+
+      if (field != null) {
+        stage(batch, field, target, entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Stops sending values to the object. Once no object of its class is registered, the names of
+   * the class are free to be used by another.
+   */
+  public synchronized void unregister(Object object) {
+    Class<?> clazz = object.getClass();
+    List<Object> registered = objects.get(clazz);
+
+    if (registered != null) {
+      registered.removeIf((candidate) -> candidate == object);
+
+      if (registered.isEmpty()) {
+        objects.remove(clazz);
+        classNames.remove(clazz.getName(), clazz);
+        classNames.remove(clazz.getSimpleName(), clazz);
+      }
+    }
+  }
+
+  // Watching
+
+  /**
+   * Loads the file at the given path, or every regular file directly inside the directory at it,
+   * and reloads them whenever they are modified or created until the reloader is closed.
+   */
+  public synchronized void watch(Path path) throws IOException {
+    Path absolute = path.toAbsolutePath().normalize();
+    boolean bDirectory = Files.isDirectory(absolute);
+    Path directory;
+
+    if (bDirectory) {
+      directory = absolute;
+      watchedDirectories.add(directory);
+    } else {
+      directory = absolute.getParent();
+      watchedFiles.add(absolute);
+    }
+
+    if (watchService == null) {
+      WatchService service = directory.getFileSystem().newWatchService();
+      watchService = service;
+      bRunning = true;
+      thread = new Thread(() -> run(service), "Editable config reloader");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    watchKeys.put(directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+        StandardWatchEventKinds.ENTRY_MODIFY), directory);
+
+    if (bDirectory) {
+      try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+        for (Path file : files) {
+          if (Files.isRegularFile(file)) {
+            load(file);
+          }
+        }
+      }
+    } else {
+      load(absolute);
+    }
+  }
+
+  /**
+   * Stops watching files. Edits already staged are left on the stage.
+   */
+  @Override
+  public void close() throws IOException {
+    Thread watcher;
+
+    synchronized (this) {
+      if (!bRunning) {
+        return;
+      }
+
+      bRunning = false;
+      watcher = thread;
+      watchService.close();
+      watchService = null;
+      watchKeys.clear();
+    }
+
+    try {
+      watcher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run(WatchService service) {
+    while (bRunning) {
+      Set<Path> changed = new LinkedHashSet<>();
+
+      try {
+        WatchKey key = service.take();
+
+        // Take every event already queued so a file saved in several writes is read once.
+        while (key != null) {
+          collectChanges(key, changed);
+          key = service.poll();
+        }
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        return;
+      }
+
+      for (Path file : changed) {
+        try {
+          load(file);
+        } catch (IOException e) {
+          // The file was removed or is being replaced, a later event reports its new contents.
+        }
+      }
+    }
+  }
+
+  private synchronized void collectChanges(WatchKey key, Set<Path> changed) {
+    Path directory = watchKeys.get(key);
+
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        // Events were lost, so reload every file known in the directory.
+        for (Path file : loadedFiles.keySet()) {
+          if (file.getParent().equals(directory)) {
+            changed.add(file);
+          }
+        }
+      } else if (directory != null) {
+        Path file = directory.resolve((Path) event.context());
+
+        if (isWatched(file)) {
+          changed.add(file);
+        }
+      }
+    }
+
+    key.reset();
+  }
+
+  private boolean isWatched(Path file) {
+    return watchedFiles.contains(file)
+        || (watchedDirectories.contains(file.getParent()) && Files.isRegularFile(file));
+  }
+
+  // Loading
+
+  /**
+   * Reads the file and stages every entry whose value differs from the one last applied from it
+   * as one batch. Entries are compared by key, so lines that were inserted, removed or moved leave
+   * the others unparsed and reloading a large file after a small edit only parses the edited
+   * entries. Entries naming no registered class or field are skipped, as are values that could not
+   * be parsed until their value changes again.
+   * @return the number of edits staged.
+   */
+  public synchronized int load(Path file) throws IOException {
+    Path absolute = file.toAbsolutePath().normalize();
+    String text = new String(Files.readAllBytes(absolute), StandardCharsets.UTF_8);
+    LoadedFile loaded = loadedFiles.computeIfAbsent(absolute, (key) -> new LoadedFile());
+    EditStage.Batch batch = editStage.begin();
+    int lineStart = 0;
+
+    while (lineStart < text.length()) {
+      int lineEnd = getLineEnd(text, lineStart);
+      loadLine(text, lineStart, lineEnd, loaded, batch);
+      lineStart = lineEnd + 1;
+    }
+
+    int staged = batch.size();
+    batch.submit();
+    return staged;
+  }
+
+  private void loadLine(String text, int lineStart, int lineEnd, LoadedFile loaded,
+      EditStage.Batch batch) {
+    int start = skipWhitespace(text, lineStart, lineEnd);
+    int separator = start;
+
+    while (separator < lineEnd && text.charAt(separator) != '=') {
+      separator++;
+    }
+
+    if (start == lineEnd || text.charAt(start) == '#' || separator == lineEnd) {
+      return;
+    }
+
+    String key = text.substring(start, trimEnd(text, start, separator));
+    int valueStart = skipWhitespace(text, separator + 1, lineEnd);
+    String value = text.substring(valueStart, trimEnd(text, valueStart, lineEnd));
+
+    if (!value.equals(loaded.get(key)) && !value.equals(loaded.rejected.get(key))) {
+      EditableField field = resolve(key);
+
+      if (field == null || stage(batch, field, objects.get(getNamedClass(key)), value)) {
+        loaded.put(key, value);
+        loaded.rejected.remove(key);
+      } else {
+        loaded.rejected.put(key, value);
+      }
+    }
+  }
+
+  private boolean stage(EditStage.Batch batch, EditableField field, List<Object> targets,
+      String value) {
+    boolean bSuccess = true;
+
+    for (Object target : targets) {
+      bSuccess &= batch.setFieldValue(field, target, value, parsingFunctions);
+    }
+
+    return bSuccess;
+  }
+
+  /**
+   * Returns the field of a registered class named by the key, or null if there is none.
+   */
+  private EditableField resolve(String key) {
+    Class<?> clazz = getNamedClass(key);
+
+    if (clazz == null) {
+      return null;
+    }
+
+    int categoryStart = key.indexOf('/') + 1;
+    int nameStart = key.lastIndexOf('/') + 1;
+
+    if (nameStart == categoryStart) {
+      return null;
+    }
+
+    return EditablePropertyUtils.getSchema(clazz).getFieldIndex()
+        .getField(key.substring(categoryStart, nameStart - 1), key.substring(nameStart));
+  }
+
+  private Class<?> getNamedClass(String key) {
+    int classEnd = key.indexOf('/');
+    return classEnd < 0 ? null : classNames.get(key.substring(0, classEnd));
+  }
+
+  private static String getClassName(String key) {
+    int classEnd = key.indexOf('/');
+    return classEnd < 0 ? key : key.substring(0, classEnd);
+  }
+
+  private static int getLineEnd(String text, int lineStart) {
+    int lineEnd = text.indexOf('\n', lineStart);
+    return lineEnd < 0 ? text.length() : lineEnd;
+  }
+
+  private static int skipWhitespace(String text, int start, int end) {
+    while (start < end && Character.isWhitespace(text.charAt(start))) {
+      start++;
+    }
+
+    return start;
+  }
+
+  private static int trimEnd(String text, int start, int end) {
+    while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+      end--;
+    }
+
+    return end;
+  }
+
+  /**
+   * The entries last applied from a file, grouped by the class name they start with and then by
+   * key, kept whether or not the key names a field of a registered object so that objects
+   * registered later receive them. Entries removed from the file are kept, as the values they
+   * applied remain. Values that could not be parsed are kept apart so they are not parsed again
+   * until they change.
+   */
+  private static class LoadedFile {
+    private final Map<String, Map<String, String>> entries = new HashMap<>();
+    private final Map<String, String> rejected = new HashMap<>();
+
+    String get(String key) {
+      return getEntries(getClassName(key)).get(key);
+    }
+
+    void put(String key, String value) {
+      entries.computeIfAbsent(getClassName(key), (name) -> new HashMap<>()).put(key, value);
+    }
+
+    Map<String, String> getEntries(String className) {
+      return entries.getOrDefault(className, Collections.emptyMap());
+    }
+  }
+}
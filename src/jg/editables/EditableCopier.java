@@ -0,0 +1,144 @@
+package jg.editables;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Copies the editable fields of one object onto another of the same class in a single call, as when
+ * spawning instances from a prototype. The copy of every field is composed from the field's method
+ * handles into one handle when the copier is created, so each copy runs straight through without
+ * boxing, parsing or per field lookups. Fields naming a setter are written through it and all
+ * others directly, and each write is reported to indexes and listeners as soon as it is made.
+ * Copiers of every editable field are cached per class, while copiers of a subset of categories are
+ * built on request and should be kept by the caller. Copiers may be shared between threads.
+ * @author Jordan Glanfield
+ */
+public final class EditableCopier {
+
+  private static final MethodType COPY_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+
+  private static final MethodHandle WRITTEN = findWritten();
+
+  private static final ClassValue<EditableCopier> COPIERS = new ClassValue<EditableCopier>() {
+    @Override
+    protected EditableCopier computeValue(Class<?> type) {
+      EditableSchema schema = EditablePropertyUtils.getSchema(type);
+      return new EditableCopier(schema, schema.getFields());
+    }
+  };
+
+  private final EditableSchema schema;
+  private final EditableField[] fields;
+  private final MethodHandle copyHandle;
+
+  private EditableCopier(EditableSchema schema, List<EditableField> candidates) {
+    List<EditableField> copied = new ArrayList<>(candidates.size());
+    List<MethodHandle> steps = new ArrayList<>(candidates.size());
+
+    for (EditableField field : candidates) {
+      MethodHandle step = field.getCopyHandle();
+
+      if (step != null) {
+        // (source, target) reporting the write to the target once the step has made it.
+        MethodHandle written = MethodHandles.dropArguments(WRITTEN.bindTo(field), 0, Object.class);
+        copied.add(field);
+        steps.add(MethodHandles.foldArguments(written, step));
+      }
+    }
+
+    MethodHandle handle = MethodHandles.empty(COPY_TYPE);
+
+    // Each step runs before the handle built so far, so the fields are copied in schema order.
+    for (int i = steps.size() - 1; i >= 0; i--) {
+      handle = MethodHandles.foldArguments(handle, steps.get(i));
+    }
+
+    this.schema = schema;
+    this.fields = copied.toArray(new EditableField[0]);
+    this.copyHandle = handle;
+  }
+
+  private static MethodHandle findWritten() {
+    try {
+      return MethodHandles.lookup().findVirtual(EditableField.class, "written",
+          MethodType.methodType(void.class, Object.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns the copier of every editable field of the given class.
+   */
+  public static EditableCopier forClass(Class<?> clazz) {
+    return COPIERS.get(clazz);
+  }
+
+  /**
+   * Returns a new copier of the editable fields of the given class in the given categories.
+   */
+  public static EditableCopier forCategories(Class<?> clazz, String... categories) {
+    EditableSchema schema = EditablePropertyUtils.getSchema(clazz);
+    Set<String> included = new HashSet<>(Arrays.asList(categories));
+    List<EditableField> candidates = new ArrayList<>();
+
+    for (EditableField field : schema.getFields()) {
+      if (included.contains(field.getCategory())) {
+        candidates.add(field);
+      }
+    }
+
+    return new EditableCopier(schema, candidates);
+  }
+
+  // Getters
+
+  /**
+   * Returns the schema of the class the copier copies.
+   */
+  public EditableSchema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Returns the fields the copier copies in schema order, omitting any that cannot be both read
+   * and written.
+   */
+  public List<EditableField> getFields() {
+    return Collections.unmodifiableList(Arrays.asList(fields));
+  }
+
+  // Copying
+
+  /**
+   * Copies the value of each of the copier's fields from the source to the target, reporting
+   * every field copied to any change listeners. If a setter throws, the fields copied before it
+   * are still reported. References are copied as they are, so both objects share any mutable
+   * values.
+   * @throws ClassCastException if either object is not an instance of the copier's class.
+   */
+  public void copy(Object source, Object target) {
+    Class<?> editableClass = schema.getEditableClass();
+
+    if (!editableClass.isInstance(source) || !editableClass.isInstance(target)) {
+      throw new ClassCastException("Cannot copy " + editableClass.getName() + " fields from "
+          + source + " to " + target);
+    }
+
+    try {
+      copyHandle.invokeExact(source, target);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
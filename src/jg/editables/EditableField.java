@@ -1,20 +1,79 @@
 package jg.editables;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * Wraps a class field that is defined as editable through a jg.editables.Editable annotation and provides
- * an interface for modifying the field's value through reflection.
+ * an interface for modifying the field's value. Accesses go through method handles resolved once
+ * when the field is wrapped rather than through core reflection.
  * @author Jordan Glanfield
  */
 public class EditableField {
 
-  private Editable editable;
-  private Class<?> editableClass;
-  private Field field;
-  private Method setter;
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+  private static final MethodType BITS_GETTER_TYPE =
+      MethodType.methodType(long.class, Object.class);
+  private static final MethodType BITS_WRITE_TYPE =
+      MethodType.methodType(void.class, Object.class, long.class);
+
+  private static final MethodHandle GENERATED_GET = findGeneratedGet();
+  private static final MethodHandle FLOAT_TO_BITS =
+      findConversion(Float.class, "floatToRawIntBits", int.class, float.class);
+  private static final MethodHandle DOUBLE_TO_BITS =
+      findConversion(Double.class, "doubleToRawLongBits", long.class, double.class);
+  private static final MethodHandle BITS_TO_FLOAT =
+      findConversion(Float.class, "intBitsToFloat", float.class, int.class);
+  private static final MethodHandle BITS_TO_DOUBLE =
+      findConversion(Double.class, "longBitsToDouble", double.class, long.class);
+
+  private final Class<?> editableClass;
+  private final Class<?> declaringClass;
+  private final String name;
+  private final Class<?> type;
+  private final Class<?> valueType;
+  private final String category;
+  private final String setterName;
+  private final boolean bStatic;
+  private final boolean bHasSetter;
+  private final Method setter;
+
+  // Resolved on first use for fields created from generated accessors.
+  private volatile Field field;
+  private volatile Editable editable;
+
+  private final MethodHandle getterHandle;
+  private final MethodHandle directSetterHandle;
+  private final MethodHandle setterHandle;
+
+  // Handles typed exactly as the field, used by copies.
+  private final MethodHandle typedGetterHandle;
+  private final MethodHandle typedWriteHandle;
+
+  // Handles of types (Object)long and (Object, long)void reading and writing primitive fields as
+  // raw bits, through which every unboxed accessor goes.
+  private final MethodHandle bitsGetterHandle;
+  private final MethodHandle bitsWriteHandle;
+
+  // Compile time generated accessors for the field, if any.
+  private final EditableAccessors accessors;
+  private final int accessorIndex;
+  private final boolean generatedGetter;
+  private final boolean generatedSetter;
+
+  // Indexes of the field's values, shared with the copies of the field resolved for subclasses.
+  private final Indexes indexes;
   
   // Initialisation
   
@@ -23,41 +82,297 @@ public class EditableField {
    * the field's editable annotation.
    */
   public EditableField(Class<?> editableClass, Field field, Editable editable) {
+    this(editableClass, field, editable, null, -1);
+  }
+
+  /**
+   * Creates an editable field as above that reads and writes the field through the generated
+   * accessors where they support it, falling back to method handles otherwise.
+   */
+  EditableField(Class<?> editableClass, Field field, Editable editable,
+      EditableAccessors accessors, int accessorIndex) {
+    this(editableClass, field, editable, accessors, accessorIndex, new Indexes());
+  }
+
+  private EditableField(Class<?> editableClass, Field field, Editable editable,
+      EditableAccessors accessors, int accessorIndex, Indexes indexes) {
     this.editableClass = editableClass;
+    this.indexes = indexes;
     this.field = field;
     this.editable = editable;
-    setSetter();
+    this.accessors = accessors;
+    this.accessorIndex = accessorIndex;
+    declaringClass = field.getDeclaringClass();
+    name = field.getName();
+    type = field.getType();
+    valueType = MethodType.methodType(type).wrap().returnType();
+    category = editable.category();
+    setterName = editable.setterName();
+    bStatic = Modifier.isStatic(field.getModifiers());
+    generatedGetter = accessors != null && accessors.canGet(accessorIndex);
+    generatedSetter = accessors != null && accessors.canSet(accessorIndex);
+
+    try {
+      field.setAccessible(true);
+    } catch (RuntimeException e) {
+      // Left inaccessible, the handle lookups below decide what is usable.
+    }
+
+    MethodHandle getter = toInstanceHandle(unreflectGetter(field), bStatic);
+    typedGetterHandle = toTyped(getter);
+    getterHandle = getter == null ? null : getter.asType(GETTER_TYPE);
+
+    MethodHandle directSetter = toInstanceHandle(unreflectSetter(field), bStatic);
+    directSetterHandle = directSetter == null ? null : directSetter.asType(SETTER_TYPE);
+
+    long start = EditableMetrics.start();
+    Method method = findSetter(editableClass, field, editable.setterName());
+    MethodHandle setterMethod = method == null ? null
+        : toInstanceHandle(unreflect(method), Modifier.isStatic(method.getModifiers()));
+
+    setter = setterMethod == null ? null : method;
+    bHasSetter = setter != null;
+    setterHandle = setterMethod == null ? null : setterMethod.asType(SETTER_TYPE);
+
+    // Writes go through the setter if there is one and otherwise directly.
+    typedWriteHandle = toTyped(setterMethod != null ? setterMethod : directSetter);
+    bitsGetterHandle = toBitsGetter(typedGetterHandle);
+    bitsWriteHandle = toBitsWrite(typedWriteHandle);
+
+    if (requestsSetter()) {
+      EditableMetrics.record(EditableMetrics.Operation.SETTER_RESOLUTION, this, start,
+          setter != null);
+    }
+  }
+
+  /**
+   * Creates an editable field declared by the given class from the metadata of its generated
+   * accessors, which must be able to both read and write it. No reflection is done, the field and
+   * its annotation are only looked up if getField or getEditable is called. The accessors cast
+   * the object to the declaring class, so static fields are accessed through an instance like
+   * any other.
+   */
+  EditableField(Class<?> declaringClass, EditableAccessors accessors, int accessorIndex,
+      String name, Class<?> type, String category, String setterName) {
+    this.editableClass = declaringClass;
+    this.declaringClass = declaringClass;
+    this.indexes = new Indexes();
+    this.accessors = accessors;
+    this.accessorIndex = accessorIndex;
+    this.name = name;
+    this.type = type;
+    this.category = category;
+    this.setterName = setterName;
+    valueType = MethodType.methodType(type).wrap().returnType();
+    bStatic = false;
+    // The accessors only report a field naming a setter as writable if they call the setter.
+    bHasSetter = !Editable.NO_SETTER.equals(setterName);
+    generatedGetter = true;
+    generatedSetter = true;
+    setter = null;
+    getterHandle = null;
+    directSetterHandle = null;
+    setterHandle = null;
+    typedGetterHandle = null;
+    typedWriteHandle = null;
+    bitsGetterHandle = null;
+    bitsWriteHandle = null;
+  }
+
+  private static MethodHandle findConversion(Class<?> owner, String name, Class<?> returnType,
+      Class<?> parameterType) {
+    try {
+      return LOOKUP.findStatic(owner, name, MethodType.methodType(returnType, parameterType));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
   }
 
-  private void setSetter() {
-    String setterName = editable.setterName();
+  private static MethodHandle findGeneratedGet() {
+    try {
+      return LOOKUP.findVirtual(EditableAccessors.class, "get",
+          MethodType.methodType(Object.class, Object.class, int.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
 
+  private static Method findSetter(Class<?> editableClass, Field field, String setterName) {
     if (setterName == Editable.NO_SETTER) {
-      setter = null;
-    } else {
+      return null;
+    }
+
+    Method method = ReflectionUtils.findMethodInHierarchy(editableClass, setterName,
+        field.getType());
+
+    if (method == null) {
       try {
-        setter = editableClass.getMethod(setterName, field.getType());
-        setter.setAccessible(true);
+        method = editableClass.getMethod(setterName, field.getType());
       } catch (NoSuchMethodException e) {
-        setter = null;
+        return null;
       }
     }
+
+    return method;
+  }
+
+  private static MethodHandle unreflectGetter(Field field) {
+    try {
+      return LOOKUP.unreflectGetter(field);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static MethodHandle unreflectSetter(Field field) {
+    try {
+      return LOOKUP.unreflectSetter(field);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static MethodHandle unreflect(Method method) {
+    try {
+      method.setAccessible(true);
+      return LOOKUP.unreflect(method);
+    } catch (IllegalAccessException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the handle taking an ignored receiver first if it is static.
+   */
+  private static MethodHandle toInstanceHandle(MethodHandle handle, boolean bStatic) {
+    return handle == null || !bStatic ? handle
+        : MethodHandles.dropArguments(handle, 0, Object.class);
+  }
+
+  /**
+   * Returns the handle with its receiver taken as an Object and its other types unchanged.
+   */
+  private static MethodHandle toTyped(MethodHandle handle) {
+    return handle == null ? null
+        : handle.asType(handle.type().changeParameterType(0, Object.class));
+  }
+
+  /**
+   * Returns the typed getter of a primitive field as a handle of type (Object)long producing the
+   * bits described by getBits, or null if it is not primitive.
+   */
+  private static MethodHandle toBitsGetter(MethodHandle getter) {
+    if (getter == null || !getter.type().returnType().isPrimitive()) {
+      return null;
+    } else if (getter.type().returnType() == float.class) {
+      getter = MethodHandles.filterReturnValue(getter, FLOAT_TO_BITS);
+    } else if (getter.type().returnType() == double.class) {
+      getter = MethodHandles.filterReturnValue(getter, DOUBLE_TO_BITS);
+    }
+
+    // Widens integral values with sign extension, chars with zero extension, booleans to 0 or 1.
+    return MethodHandles.explicitCastArguments(getter, BITS_GETTER_TYPE);
+  }
+
+  /**
+   * Returns the typed write of a primitive field as a handle of type (Object, long)void taking
+   * the bits described by getBits, or null if it is not primitive.
+   */
+  private static MethodHandle toBitsWrite(MethodHandle write) {
+    if (write == null || !write.type().parameterType(1).isPrimitive()) {
+      return null;
+    } else if (write.type().parameterType(1) == float.class) {
+      write = MethodHandles.filterArguments(write, 1, BITS_TO_FLOAT);
+    } else if (write.type().parameterType(1) == double.class) {
+      write = MethodHandles.filterArguments(write, 1, BITS_TO_DOUBLE);
+    }
+
+    // Narrows to the field's type, keeping the lowest bit for booleans.
+    return MethodHandles.explicitCastArguments(write, BITS_WRITE_TYPE);
   }
   
   // Getters
 
+  /**
+   * Returns the editable annotation on the underlying field.
+   */
+  public Editable getEditable() {
+    Editable result = editable;
+
+    if (result == null) {
+      result = getField().getAnnotation(Editable.class);
+      editable = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the category the field belongs to.
+   */
+  public String getCategory() {
+    return category;
+  }
+
+  /**
+   * Returns whether a setter was resolved for this field.
+   */
+  public boolean hasSetter() {
+    return bHasSetter;
+  }
+
+  /**
+   * Returns whether the field's annotation names a setter to use.
+   */
+  public boolean requestsSetter() {
+    return !Editable.NO_SETTER.equals(setterName);
+  }
+
   /**
    * Returns the underlying field being wrapped.
    */
   public Field getField() {
-    return field;
+    Field result = field;
+
+    if (result == null) {
+      try {
+        result = declaringClass.getDeclaredField(name);
+      } catch (NoSuchFieldException e) {
+        throw new IllegalStateException("Field " + describe() + " no longer exists", e);
+      }
+
+      field = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the name of the underlying field.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the declared type of the underlying field.
+   */
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * Returns the class declaring the underlying field.
+   */
+  public Class<?> getDeclaringClass() {
+    return declaringClass;
   }
 
   /**
    * Returns whether the underlying field represents an enum.
    */
   public boolean isEnumValue() {
-    return field.getType().isEnum();
+    return type.isEnum();
   }
   
   // Field value updating
@@ -68,23 +383,134 @@ public class EditableField {
    * @return true if successful and false if not.
    */
   public boolean setFieldValue(Object object, String string, ParsingFunctionsMap parsingFunctions) {
-    Object result = parsingFunctions.parse(field.getType(), string);
+    long start = EditableMetrics.start();
+    boolean bSuccess = false;
+
+    try {
+      bSuccess = applyFieldValue(object, string, parsingFunctions);
+      return bSuccess;
+    } finally {
+      EditableMetrics.record(EditableMetrics.Operation.SET, this, start, bSuccess);
+    }
+  }
+
+  private boolean applyFieldValue(Object object, String string,
+      ParsingFunctionsMap parsingFunctions) {
+    if (type.isPrimitive()) {
+      if (type == int.class) {
+        ToIntFunction<CharSequence> parseFunction = parsingFunctions.getIntParseFunction(type);
+        if (parseFunction != null) {
+          return setInt(object, parseFunction.applyAsInt(string));
+        }
+      } else if (type == long.class) {
+        ToLongFunction<CharSequence> parseFunction = parsingFunctions.getLongParseFunction(type);
+        if (parseFunction != null) {
+          return setLong(object, parseFunction.applyAsLong(string));
+        }
+      } else if (type == float.class) {
+        ParsingFunctionsMap.ToFloatFunction<CharSequence> parseFunction =
+            parsingFunctions.getFloatParseFunction(type);
+        if (parseFunction != null) {
+          return setFloat(object, parseFunction.applyAsFloat(string));
+        }
+      } else if (type == double.class) {
+        ToDoubleFunction<CharSequence> parseFunction = parsingFunctions.getDoubleParseFunction(type);
+        if (parseFunction != null) {
+          return setDouble(object, parseFunction.applyAsDouble(string));
+        }
+      }
+    }
+
+    Object result = parsingFunctions.parse(type, string);
 
     if (result != null) {
-      return setValue(object, result);
+      return applyValue(object, result);
     } else if (isEnumValue()) {
+      // Looked up through the field's type so that a null current value is no obstacle.
+      result = EditableCodecs.lookupEnumConstant(type, string);
+      return result != null && applyValue(object, result);
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   * Attempts to parse the characters of the CharSequence between start, inclusive, and end,
+   * exclusive, into a value for the field using the given codecs. Primitive fields with
+   * unboxed parsing functions and enum fields are set without creating a String.
+   * @return true if successful and false if not.
+   */
+  public boolean setFieldValue(Object object, CharSequence chars, int start, int end,
+      EditableCodecs codecs) {
+    long startTime = EditableMetrics.start();
+    boolean bSuccess = false;
+
+    try {
+      bSuccess = applyFieldValue(object, chars, start, end, codecs);
+      return bSuccess;
+    } finally {
+      EditableMetrics.record(EditableMetrics.Operation.SET, this, startTime, bSuccess);
+    }
+  }
+
+  private boolean applyFieldValue(Object object, CharSequence chars, int start, int end,
+      EditableCodecs codecs) {
+    if (type == int.class && codecs.getIntParseFunction(type) != null) {
       try {
-        Enum enu = (Enum) field.get(object);
-        if (enu != null) {
-          result = Enum.valueOf(enu.getClass(), string);
-        }
-      } catch (IllegalAccessException | IllegalArgumentException | NullPointerException e) {
+        return setInt(object, codecs.getIntParseFunction(type)
+            .applyAsInt(codecs.slice(chars, start, end)));
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    } else if (type == long.class && codecs.getLongParseFunction(type) != null) {
+      try {
+        return setLong(object, codecs.getLongParseFunction(type)
+            .applyAsLong(codecs.slice(chars, start, end)));
+      } catch (NumberFormatException e) {
         return false;
       }
+    } else if (type == float.class && codecs.getFloatParseFunction(type) != null) {
+      try {
+        return setFloat(object, codecs.getFloatParseFunction(type)
+            .applyAsFloat(codecs.slice(chars, start, end)));
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    } else if (type == double.class && codecs.getDoubleParseFunction(type) != null) {
+      try {
+        return setDouble(object, codecs.getDoubleParseFunction(type)
+            .applyAsDouble(codecs.slice(chars, start, end)));
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    }
+
+    Object result = codecs.parse(type, chars, start, end);
+    return result != null && applyValue(object, result);
+  }
 
-      return setValue(object, result);
+  /**
+   * Appends the text for this field's value on the given object to the builder, formatted with
+   * the given parsingFunctions. Primitive values without a registered formatter are appended
+   * without boxing and null values append nothing.
+   */
+  public void formatValue(Object object, StringBuilder out, ParsingFunctionsMap parsingFunctions) {
+    if (!type.isPrimitive() || parsingFunctions.hasFormatter(type)) {
+      parsingFunctions.format(getFieldValueChecked(object), out);
+    } else if (type == int.class) {
+      out.append(getInt(object));
+    } else if (type == long.class) {
+      out.append(getLong(object));
+    } else if (type == float.class) {
+      out.append(getFloat(object));
+    } else if (type == double.class) {
+      out.append(getDouble(object));
+    } else if (type == boolean.class) {
+      out.append(getBoolean(object));
+    } else if (type == char.class) {
+      out.append((char) getBits(object));
     } else {
-      return false;
+      out.append(getBits(object));
     }
   }
 
@@ -93,38 +519,81 @@ public class EditableField {
    * @return true if successful and false if not.
    */
   public boolean setValue(Object object, Object value) {
-    if (setter != null) {
-      try {
-        setter.invoke(object, value);
-        return true;
-      } catch (IllegalAccessException e) {
-        e.printStackTrace();
-        return setValueDirectly(object, value);
-      } catch (InvocationTargetException e) {
-        e.printStackTrace();
-        return setValueDirectly(object, value);
-      }
-    } else {
-      return setValueDirectly(object, value);
+    long start = EditableMetrics.start();
+    boolean bSuccess = false;
+
+    try {
+      bSuccess = applyValue(object, value);
+      return bSuccess;
+    } finally {
+      EditableMetrics.record(EditableMetrics.Operation.SET, this, start, bSuccess);
     }
   }
 
-  private boolean setValueDirectly(Object object, Object value) {
+  private boolean applyValue(Object object, Object value) {
+    if (!canWrite(object, value)) {
+      return false;
+    } else if (generatedSetter) {
+      accessors.set(object, accessorIndex, value);
+      return changed(object);
+    }
+
+    // A failing setter is not retried as a direct write, which would bypass its checks.
+    MethodHandle write = setterHandle != null ? setterHandle : directSetterHandle;
+
+    if (write == null) {
+      return false;
+    }
+
     try {
-      field.set(object, value);
-      return true;
-    } catch (IllegalAccessException e) {
-      e.printStackTrace();
+      write.invokeExact(object, value);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      // A checked exception declared by the setter rejects the value.
+      return false;
+    }
+
+    return changed(object);
+  }
+
+  /**
+   * Returns whether the value has the field's type, boxed for primitive fields, and the object is
+   * an instance of the class declaring the field unless it is static.
+   */
+  private boolean canWrite(Object object, Object value) {
+    if (value == null ? type.isPrimitive() : !valueType.isInstance(value)) {
       return false;
     }
+
+    return bStatic || declaringClass.isInstance(object);
   }
 
   /**
    * Returns the value of this field on the given object.
-   * @throws IllegalAccessException
+   * @throws IllegalAccessException if the field could not be made accessible.
+   * @throws IllegalArgumentException if the object is not an instance of the field's class.
    */
   public Object getFieldValue(Object object) throws IllegalAccessException {
-    return field.get(object);
+    if (generatedGetter) {
+      try {
+        return accessors.get(object, accessorIndex);
+      } catch (ClassCastException e) {
+        throw new IllegalArgumentException("Cannot read field " + describe() + " from " + object, e);
+      }
+    } else if (getterHandle == null) {
+      throw new IllegalAccessException("Cannot read field " + describe());
+    }
+
+    try {
+      return (Object) getterHandle.invokeExact(object);
+    } catch (ClassCastException e) {
+      throw new IllegalArgumentException("Cannot read field " + describe() + " from " + object, e);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
   }
 
   /**
@@ -138,15 +607,321 @@ public class EditableField {
     }
   }
 
+  // Unboxed access of primitive fields
+
+  /**
+   * Returns the value of this int field on the given object without boxing.
+   * @throws IllegalArgumentException if the field is not of type int.
+   */
+  public int getInt(Object object) {
+    return (int) readBits(object, int.class);
+  }
+
+  /**
+   * Applies the given value to this int field on the object without boxing, using the setter if
+   * there is one.
+   * @return true if successful and false if not, including if the field is not of type int.
+   */
+  public boolean setInt(Object object, int value) {
+    return writeBits(object, int.class, value);
+  }
+
+  /**
+   * Returns the value of this long field on the given object without boxing.
+   * @throws IllegalArgumentException if the field is not of type long.
+   */
+  public long getLong(Object object) {
+    return readBits(object, long.class);
+  }
+
+  /**
+   * Applies the given value to this long field on the object without boxing, using the setter if
+   * there is one.
+   * @return true if successful and false if not, including if the field is not of type long.
+   */
+  public boolean setLong(Object object, long value) {
+    return writeBits(object, long.class, value);
+  }
+
+  /**
+   * Returns the value of this float field on the given object without boxing.
+   * @throws IllegalArgumentException if the field is not of type float.
+   */
+  public float getFloat(Object object) {
+    return Float.intBitsToFloat((int) readBits(object, float.class));
+  }
+
+  /**
+   * Applies the given value to this float field on the object without boxing, using the setter if
+   * there is one.
+   * @return true if successful and false if not, including if the field is not of type float.
+   */
+  public boolean setFloat(Object object, float value) {
+    return writeBits(object, float.class, Float.floatToRawIntBits(value));
+  }
+
+  /**
+   * Returns the value of this double field on the given object without boxing.
+   * @throws IllegalArgumentException if the field is not of type double.
+   */
+  public double getDouble(Object object) {
+    return Double.longBitsToDouble(readBits(object, double.class));
+  }
+
+  /**
+   * Applies the given value to this double field on the object without boxing, using the setter if
+   * there is one.
+   * @return true if successful and false if not, including if the field is not of type double.
+   */
+  public boolean setDouble(Object object, double value) {
+    return writeBits(object, double.class, Double.doubleToRawLongBits(value));
+  }
+
+  /**
+   * Returns the value of this boolean field on the given object without boxing.
+   * @throws IllegalArgumentException if the field is not of type boolean.
+   */
+  public boolean getBoolean(Object object) {
+    return readBits(object, boolean.class) != 0;
+  }
+
+  /**
+   * Applies the given value to this boolean field on the object without boxing, using the setter if
+   * there is one.
+   * @return true if successful and false if not, including if the field is not of type boolean.
+   */
+  public boolean setBoolean(Object object, boolean value) {
+    return writeBits(object, boolean.class, value ? 1 : 0);
+  }
+
+  /**
+   * Reports a successful write to any change listeners, which never throw from here.
+   */
+  private boolean changed(Object object) {
+    written(object);
+    return true;
+  }
+
+  /**
+   * Updates the indexes of the field for a write to the object before it returns, and reports
+   * the write to any change listeners.
+   */
+  void written(Object object) {
+    for (EditableIndex index : indexes.array) {
+      index.update(object);
+    }
+
+    if (FieldChangeNotifier.bActive) {
+      FieldChangeNotifier.fieldChanged(object, this);
+    }
+  }
+
+  /**
+   * Returns a copy of the field for the given subclass, resolving the setter against it, that
+   * shares the indexes of this field.
+   */
+  EditableField resolveFor(Class<?> subclass) {
+    return new EditableField(subclass, getField(), getEditable(), null, -1, indexes);
+  }
+
+  /**
+   * Updates the index synchronously on every write through this field or its copies.
+   */
+  void addIndex(EditableIndex index) {
+    indexes.add(index);
+  }
+
+  /**
+   * Stops updating the index on writes of the field.
+   */
+  void removeIndex(EditableIndex index) {
+    indexes.remove(index);
+  }
+
+  /**
+   * Returns whether the field has a primitive type, whose values can be handled as raw bits.
+   */
+  public boolean isPrimitive() {
+    return type.isPrimitive();
+  }
+
+  /**
+   * Returns the value of this primitive field on the given object as raw bits: integral values
+   * sign extended, chars zero extended, booleans as 0 or 1 and floating point values through
+   * floatToRawIntBits and doubleToRawLongBits.
+   * @throws IllegalArgumentException if the field is not primitive.
+   */
+  long getBits(Object object) {
+    return readBits(object, type);
+  }
+
+  /**
+   * Applies raw bits as produced by getBits to this primitive field on the given object.
+   * @return true if successful and false if not.
+   * @throws IllegalArgumentException if the field is not primitive.
+   */
+  boolean setBits(Object object, long bits) {
+    if (!isPrimitive()) {
+      throw new IllegalArgumentException("Field " + describe() + " is not primitive");
+    }
+
+    return writeBits(object, type, bits);
+  }
+
+  private long readBits(Object object, Class<?> expected) {
+    if (type != expected || !type.isPrimitive()) {
+      throw new IllegalArgumentException("Field " + describe() + " is not of type " + expected);
+    } else if (bitsGetterHandle == null) {
+      return toBits(getFieldValueChecked(object));
+    }
+
+    try {
+      return (long) bitsGetterHandle.invokeExact(object);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Writes the bits to this field if it has the given primitive type, with the same checks and
+   * failure semantics as setValue.
+   */
+  private boolean writeBits(Object object, Class<?> expected, long bits) {
+    if (type != expected || !(bStatic || declaringClass.isInstance(object))) {
+      return false;
+    } else if (bitsWriteHandle == null) {
+      return applyValue(object, fromBits(type, bits));
+    }
+
+    try {
+      bitsWriteHandle.invokeExact(object, bits);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      // A checked exception declared by the setter rejects the value.
+      return false;
+    }
+
+    return changed(object);
+  }
+
+  private static long toBits(Object value) {
+    if (value instanceof Float) {
+      return Float.floatToRawIntBits((Float) value);
+    } else if (value instanceof Double) {
+      return Double.doubleToRawLongBits((Double) value);
+    } else if (value instanceof Number) {
+      return ((Number) value).longValue();
+    } else if (value instanceof Character) {
+      return (Character) value;
+    } else if (value instanceof Boolean) {
+      return (Boolean) value ? 1 : 0;
+    } else {
+      throw new IllegalArgumentException("Cannot read " + value + " as bits");
+    }
+  }
+
+  private static Object fromBits(Class<?> type, long bits) {
+    if (type == int.class) {
+      return (int) bits;
+    } else if (type == long.class) {
+      return bits;
+    } else if (type == float.class) {
+      return Float.intBitsToFloat((int) bits);
+    } else if (type == double.class) {
+      return Double.longBitsToDouble(bits);
+    } else if (type == boolean.class) {
+      return (bits & 1) != 0;
+    } else if (type == byte.class) {
+      return (byte) bits;
+    } else if (type == short.class) {
+      return (short) bits;
+    } else {
+      return (char) bits;
+    }
+  }
+
+  /**
+   * Returns a handle of type (Object)Object reading this field as getFieldValue does, or returning
+   * null for any object if the field cannot be read.
+   */
+  MethodHandle getReadHandle() {
+    if (generatedGetter) {
+      return MethodHandles.insertArguments(GENERATED_GET.bindTo(accessors), 1, accessorIndex);
+    } else if (getterHandle != null) {
+      return getterHandle;
+    } else {
+      return MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0,
+          Object.class);
+    }
+  }
+
+  /**
+   * Returns a handle of type (Object, Object)void copying this field's value from its first
+   * argument to its second without boxing or notifying change listeners, or null if the field
+   * cannot be both read and written. The copy calls the setter if there is one and otherwise
+   * writes the field directly.
+   */
+  MethodHandle getCopyHandle() {
+    if (typedGetterHandle != null && typedWriteHandle != null) {
+      return toCopy(typedWriteHandle);
+    } else if (generatedGetter && generatedSetter) {
+      try {
+        return LOOKUP.findVirtual(EditableField.class, "copyGenerated", SETTER_TYPE).bindTo(this);
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    return null;
+  }
+
+  private MethodHandle toCopy(MethodHandle write) {
+    // (target, source) with the source read into the value, then swapped to (source, target).
+    MethodHandle copy = MethodHandles.filterArguments(write, 1, typedGetterHandle);
+    return MethodHandles.permuteArguments(copy, SETTER_TYPE, 1, 0);
+  }
+
+  private void copyGenerated(Object source, Object target) {
+    accessors.set(target, accessorIndex, accessors.get(source, accessorIndex));
+  }
+
   // Miscellaneous
   
+  private String describe() {
+    return declaringClass.getName() + "." + name;
+  }
+
   @Override
   public String toString() {
-    return field.getName();
+    return name;
   }
 
   @Override
   public int hashCode() {
-    return field.hashCode();
+    // Matches Field.hashCode without resolving the field.
+    return declaringClass.getName().hashCode() ^ name.hashCode();
+  }
+
+  /**
+   * The indexes of a field, replaced as a whole so writes read them without locking.
+   */
+  private static final class Indexes {
+    private static final EditableIndex[] NONE = new EditableIndex[0];
+
+    private volatile EditableIndex[] array = NONE;
+
+    synchronized void add(EditableIndex index) {
+      EditableIndex[] added = Arrays.copyOf(array, array.length + 1);
+      added[array.length] = index;
+      array = added;
+    }
+
+    synchronized void remove(EditableIndex index) {
+      array = Arrays.stream(array).filter((other) -> other != index)
+          .toArray(EditableIndex[]::new);
+    }
   }
 }
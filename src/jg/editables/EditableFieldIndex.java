@@ -0,0 +1,142 @@
+package jg.editables;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An index of editable fields by name, finding a field by its name in constant time and the
+ * fields whose name or category contains a query as it is typed. Every three character substring
+ * of each lower cased name and category is mapped to the positions of the fields containing it,
+ * so a search only checks the fields listed for the rarest trigram of its query. Queries shorter
+ * than three characters check every field. Results keep the order of the indexed fields. The
+ * index of a schema is built on first use, see EditableSchema.getFieldIndex. Immutable, so may be
+ * shared between threads.
+ * @author Jordan Glanfield
+ */
+public final class EditableFieldIndex {
+
+  private static final int GRAM_LENGTH = 3;
+
+  private final EditableField[] fields;
+  private final String[] names;
+  private final String[] categories;
+  private final Map<String, EditableField> byName = new HashMap<>();
+  private final Map<String, EditableField> byQualifiedName = new HashMap<>();
+  private final Map<String, Postings> grams = new HashMap<>();
+
+  /**
+   * Indexes the given fields. Where several share a name, lookups by name find the first.
+   */
+  public EditableFieldIndex(List<EditableField> fields) {
+    this.fields = fields.toArray(new EditableField[0]);
+    names = new String[this.fields.length];
+    categories = new String[this.fields.length];
+
+    for (int i = 0; i < this.fields.length; i++) {
+      EditableField field = this.fields[i];
+      String name = field.getName();
+      byName.putIfAbsent(name, field);
+      byQualifiedName.putIfAbsent(field.getCategory() + "/" + name, field);
+
+      names[i] = name.toLowerCase(Locale.ROOT);
+      categories[i] = field.getCategory().toLowerCase(Locale.ROOT);
+      addGrams(names[i], i);
+      addGrams(categories[i], i);
+    }
+  }
+
+  private void addGrams(String text, int position) {
+    for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+      grams.computeIfAbsent(text.substring(i, i + GRAM_LENGTH), (gram) -> new Postings())
+          .add(position);
+    }
+  }
+
+  // Lookup
+
+  /**
+   * Returns the field with the given name, or null if there is none.
+   */
+  public EditableField getField(String name) {
+    return byName.get(name);
+  }
+
+  /**
+   * Returns the field with the given name in the given category, or null if there is none.
+   */
+  public EditableField getField(String category, String name) {
+    return byQualifiedName.get(category + "/" + name);
+  }
+
+  /**
+   * Returns the fields whose name or category contains the query, ignoring case. An empty query
+   * matches every field.
+   */
+  public List<EditableField> search(String query) {
+    String text = query.trim().toLowerCase(Locale.ROOT);
+
+    if (text.isEmpty()) {
+      return Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    List<EditableField> matches = new ArrayList<>();
+
+    if (text.length() < GRAM_LENGTH) {
+      for (int i = 0; i < fields.length; i++) {
+        if (matches(i, text)) {
+          matches.add(fields[i]);
+        }
+      }
+    } else {
+      Postings candidates = null;
+
+      for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+        Postings postings = grams.get(text.substring(i, i + GRAM_LENGTH));
+
+        if (postings == null) {
+          return Collections.emptyList();
+        } else if (candidates == null || postings.size < candidates.size) {
+          candidates = postings;
+        }
+      }
+
+      for (int i = 0; i < candidates.size; i++) {
+        int position = candidates.positions[i];
+
+        if (matches(position, text)) {
+          matches.add(fields[position]);
+        }
+      }
+    }
+
+    return Collections.unmodifiableList(matches);
+  }
+
+  private boolean matches(int position, String text) {
+    return names[position].contains(text) || categories[position].contains(text);
+  }
+
+  /**
+   * The ascending positions of the fields containing one trigram.
+   */
+  private static final class Postings {
+    private int[] positions = new int[4];
+    private int size;
+
+    void add(int position) {
+      // A trigram may appear several times in a field's name and category.
+      if (size > 0 && positions[size - 1] == position) {
+        return;
+      } else if (size == positions.length) {
+        positions = Arrays.copyOf(positions, size * 2);
+      }
+
+      positions[size++] = position;
+    }
+  }
+}
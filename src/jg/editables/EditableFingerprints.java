@@ -0,0 +1,187 @@
+package jg.editables;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Computes fingerprints of the editable state of objects, a 64 bit hash over the values of every
+ * editable field in schema order, so objects changed behind EditableField's back can be found
+ * without serialising them. Primitive values are hashed from their raw bits without boxing, and
+ * reference values by identity unless another hash is given. Each class's hash is seeded from its
+ * name and the names of its editable fields rather than its identity, so fingerprints are the same
+ * in every run of the program unless references are hashed by identity. Large inputs are
+ * fingerprinted in parallel on the common fork join pool. May be shared between threads.
+ * @author Jordan Glanfield
+ */
+public final class EditableFingerprints {
+
+  /**
+   * The number of objects below which fingerprints are computed sequentially. Kept a multiple of
+   * 64 so that parallel tasks never share a word of the dirty bitmap.
+   */
+  public static final int PARALLEL_THRESHOLD = 8192;
+
+  private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+  private static final long NULL_HASH = 0x6A09E667F3BCC909L;
+
+  private static final ClassValue<Long> SEEDS = new ClassValue<Long>() {
+    @Override
+    protected Long computeValue(Class<?> type) {
+      EditableSchema schema = EditablePropertyUtils.getSchema(type);
+      long seed = mix(type.getName().hashCode());
+
+      for (EditableField field : schema.getFields()) {
+        seed = (seed ^ field.getName().hashCode()) * MULTIPLIER;
+      }
+
+      return mix(seed);
+    }
+  };
+
+  private final ToLongFunction<Object> referenceHash;
+
+  /**
+   * Creates fingerprints hashing reference values by identity, so replacing a value with an equal
+   * one counts as a change.
+   */
+  public EditableFingerprints() {
+    this(System::identityHashCode);
+  }
+
+  /**
+   * Creates fingerprints hashing non-null reference values with the given function, such as
+   * Object::hashCode to ignore values replaced with equal ones.
+   */
+  public EditableFingerprints(ToLongFunction<Object> referenceHash) {
+    this.referenceHash = referenceHash;
+  }
+
+  // Fingerprinting
+
+  /**
+   * Returns the fingerprint of the editable fields of the given object, or 0 for null.
+   */
+  public long fingerprint(Object object) {
+    if (object == null) {
+      return 0;
+    }
+
+    EditableSchema schema = EditablePropertyUtils.getSchema(object.getClass());
+    long hash = SEEDS.get(schema.getEditableClass());
+
+    for (int i = 0; i < schema.getFieldCount(); i++) {
+      EditableField field = schema.getField(i);
+      long bits;
+
+      if (field.isPrimitive()) {
+        bits = field.getBits(object);
+      } else {
+        Object value = field.getFieldValueChecked(object);
+        bits = value == null ? NULL_HASH : referenceHash.applyAsLong(value);
+      }
+
+      hash = (hash ^ bits) * MULTIPLIER;
+    }
+
+    return mix(hash);
+  }
+
+  /**
+   * Returns the fingerprint of each object, as fingerprint, at the object's position.
+   */
+  public long[] fingerprint(Object[] objects) {
+    long[] fingerprints = new long[objects.length];
+    run(new FingerprintTask(objects, 0, objects.length, fingerprints, null));
+    return fingerprints;
+  }
+
+  // Dirty detection
+
+  /**
+   * Fingerprints each object and compares the result with the fingerprint held at its position in
+   * the array, which is replaced with the new one. The array would usually have been filled by
+   * fingerprint or an earlier call, so the objects changed since are found.
+   * @return a bitmap with the bit at each object's position set if its fingerprint changed.
+   * @throws IllegalArgumentException if the array is not the same length as the objects.
+   */
+  public BitSet updateDirty(Collection<?> objects, long[] fingerprints) {
+    return updateDirty(objects.toArray(), fingerprints);
+  }
+
+  /**
+   * Fingerprints each object and compares it with the fingerprint at its position in the array,
+   * as above.
+   * @return a bitmap with the bit at each object's position set if its fingerprint changed.
+   * @throws IllegalArgumentException if the array is not the same length as the objects.
+   */
+  public BitSet updateDirty(Object[] objects, long[] fingerprints) {
+    if (objects.length != fingerprints.length) {
+      throw new IllegalArgumentException("Expected " + objects.length + " fingerprints but got "
+          + fingerprints.length);
+    }
+
+    long[] words = new long[(objects.length + 63) >>> 6];
+    run(new FingerprintTask(objects, 0, objects.length, fingerprints, words));
+    return BitSet.valueOf(words);
+  }
+
+  private static void run(FingerprintTask task) {
+    if (task.to - task.from < PARALLEL_THRESHOLD) {
+      task.compute();
+    } else {
+      task.invoke();
+    }
+  }
+
+  /**
+   * Finishes a hash so that every input bit affects every output bit, as the final step of
+   * MurmurHash3.
+   */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  private class FingerprintTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final Object[] objects;
+    private final int from;
+    private final int to;
+    private final long[] fingerprints;
+    private final long[] words;
+
+    FingerprintTask(Object[] objects, int from, int to, long[] fingerprints, long[] words) {
+      this.objects = objects;
+      this.from = from;
+      this.to = to;
+      this.fingerprints = fingerprints;
+      this.words = words;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from < PARALLEL_THRESHOLD) {
+        for (int i = from; i < to; i++) {
+          long fingerprint = fingerprint(objects[i]);
+
+          if (words != null && fingerprint != fingerprints[i]) {
+            words[i >>> 6] |= 1L << i;
+          }
+
+          fingerprints[i] = fingerprint;
+        }
+      } else {
+        // Split on a word boundary so the halves write disjoint words.
+        int middle = (from + ((to - from) >>> 1)) & ~63;
+        invokeAll(new FingerprintTask(objects, from, middle, fingerprints, words),
+            new FingerprintTask(objects, middle, to, fingerprints, words));
+      }
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package jg.editables;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A secondary index from the values of one editable field to the objects holding them, either
+ * hashed for equality lookups or sorted for range lookups as well. Every write through the field,
+ * or its copies in subclass schemas, moves the object before the write returns, so lookups see
+ * all completed writes without waiting for FieldChangeNotifier. Writes that bypass EditableField
+ * are not seen. Thread safe.
+ * @author Jordan Glanfield
+ */
+public class EditableIndex {
+
+  private final EditableField field;
+  private final Map<Object, Set<Object>> entries;
+  private final Set<Object> nullEntries = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Map<Object, Object> indexedValues = new IdentityHashMap<>();
+
+  private EditableIndex(EditableField field, Map<Object, Set<Object>> entries,
+      Collection<?> objects) {
+    this.field = field;
+    this.entries = entries;
+
+    for (Object object : objects) {
+      add(object);
+    }
+
+    field.addIndex(this);
+  }
+
+  /**
+   * Creates a hashed index of the field's values on the given objects, supporting equality
+   * lookups.
+   */
+  public static EditableIndex hashIndex(EditableField field, Collection<?> objects) {
+    return new EditableIndex(field, new HashMap<>(), objects);
+  }
+
+  /**
+   * Creates a sorted index of the field's values on the given objects, supporting equality and
+   * range lookups. Values must be mutually Comparable, nulls are only found by equality lookups.
+   */
+  public static EditableIndex sortedIndex(EditableField field, Collection<?> objects) {
+    return new EditableIndex(field, new TreeMap<>(), objects);
+  }
+
+  // Getters
+
+  /**
+   * Returns the field whose values are indexed.
+   */
+  public EditableField getField() {
+    return field;
+  }
+
+  /**
+   * Returns whether the index supports range lookups.
+   */
+  public boolean isSorted() {
+    return entries instanceof NavigableMap;
+  }
+
+  /**
+   * Returns the number of indexed objects.
+   */
+  public synchronized int size() {
+    return indexedValues.size();
+  }
+
+  // Maintenance
+
+  /**
+   * Adds the object to the index under its current value of the field.
+   */
+  public synchronized void add(Object object) {
+    Object value = field.getFieldValueChecked(object);
+    indexedValues.put(object, value);
+    getBucket(value, true).add(object);
+  }
+
+  /**
+   * Removes the object from the index.
+   */
+  public synchronized void remove(Object object) {
+    if (indexedValues.containsKey(object)) {
+      removeFromBucket(object, indexedValues.remove(object));
+    }
+  }
+
+  /**
+   * Moves an indexed object to the bucket for its current value of the field. Objects that are
+   * not indexed are ignored.
+   */
+  public synchronized void update(Object object) {
+    if (indexedValues.containsKey(object)) {
+      remove(object);
+      add(object);
+    }
+  }
+
+  /**
+   * Stops maintaining the index as the field is written.
+   */
+  public void close() {
+    field.removeIndex(this);
+  }
+
+  private Set<Object> getBucket(Object value, boolean bCreate) {
+    if (value == null) {
+      return nullEntries;
+    } else if (bCreate) {
+      return entries.computeIfAbsent(value,
+          (key) -> Collections.newSetFromMap(new IdentityHashMap<>()));
+    } else {
+      return entries.get(value);
+    }
+  }
+
+  private void removeFromBucket(Object object, Object value) {
+    Set<Object> bucket = getBucket(value, false);
+
+    if (bucket != null) {
+      bucket.remove(object);
+
+      if (bucket.isEmpty() && value != null) {
+        entries.remove(value);
+      }
+    }
+  }
+
+  // Lookups
+
+  /**
+   * Returns the indexed objects whose value of the field equals the given value.
+   */
+  public synchronized List<Object> getEqual(Object value) {
+    Set<Object> bucket = getBucket(value, false);
+    return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+  }
+
+  /**
+   * Returns the indexed objects whose value of the field lies in the given range, in ascending
+   * order of value. Either bound may be null to leave that end of the range open.
+   * @throws UnsupportedOperationException if the index is not sorted.
+   */
+  public synchronized List<Object> getRange(Object from, boolean bFromInclusive, Object to,
+      boolean bToInclusive) {
+    if (!isSorted()) {
+      throw new UnsupportedOperationException("Range lookups need a sorted index");
+    }
+
+    NavigableMap<Object, Set<Object>> sorted = (NavigableMap<Object, Set<Object>>) entries;
+
+    if (from != null) {
+      sorted = sorted.tailMap(from, bFromInclusive);
+    }
+
+    if (to != null) {
+      sorted = sorted.headMap(to, bToInclusive);
+    }
+
+    List<Object> objects = new ArrayList<>();
+
+    for (Set<Object> bucket : sorted.values()) {
+      objects.addAll(bucket);
+    }
+
+    return objects;
+  }
+}
@@ -0,0 +1,184 @@
+package jg.editables;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Contains static methods for instrumenting schema discovery, setter resolution, parsing and
+ * field writes. While enabled, each operation is counted and timed per class or per field and
+ * discovery, parse and set operations are also emitted as Flight Recorder events in the
+ * "Editables" category. While disabled, the default, instrumentation costs one volatile read
+ * per operation. The unboxed accessors of EditableField are not instrumented. Statistics are
+ * weakly keyed, so they do not keep classes or fields from being unloaded.
+ * @author Jordan Glanfield
+ */
+public class EditableMetrics {
+
+  /**
+   * The instrumented operations. Discovery and parse statistics are kept per class, setter
+   * resolution and set statistics per EditableField.
+   */
+  public enum Operation {
+    DISCOVERY, SETTER_RESOLUTION, PARSE, SET
+  }
+
+  static volatile boolean bEnabled = false;
+
+  private static final Map<Operation, Map<Object, LatencyStats>> stats =
+      new EnumMap<>(Operation.class);
+
+  static {
+    for (Operation operation : Operation.values()) {
+      stats.put(operation, Collections.synchronizedMap(new WeakHashMap<>()));
+    }
+  }
+
+  /**
+   * Enables or disables instrumentation. Statistics already gathered are kept.
+   */
+  public static void setEnabled(boolean bEnabled) {
+    EditableMetrics.bEnabled = bEnabled;
+  }
+
+  /**
+   * Returns whether instrumentation is enabled.
+   */
+  public static boolean isEnabled() {
+    return bEnabled;
+  }
+
+  /**
+   * Returns the statistics for the operation on the given class or EditableField, or null if
+   * none have been recorded.
+   */
+  public static LatencyStats getStats(Operation operation, Object key) {
+    return stats.get(operation).get(key);
+  }
+
+  /**
+   * Returns an unmodifiable snapshot of the statistics for the operation, keyed by class or
+   * EditableField. The statistics themselves stay live.
+   */
+  public static Map<Object, LatencyStats> getStats(Operation operation) {
+    Map<Object, LatencyStats> operationStats = stats.get(operation);
+
+    synchronized (operationStats) {
+      return Collections.unmodifiableMap(new HashMap<>(operationStats));
+    }
+  }
+
+  /**
+   * Discards all gathered statistics.
+   */
+  public static void reset() {
+    for (Map<Object, LatencyStats> operationStats : stats.values()) {
+      operationStats.clear();
+    }
+  }
+
+  /**
+   * Returns the start time to pass to record, or 0 if instrumentation is disabled.
+   */
+  static long start() {
+    return bEnabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Records an operation begun at the given start time on the given class or EditableField. Does
+   * nothing if the operation was started while instrumentation was disabled.
+   */
+  static void record(Operation operation, Object key, long start, boolean bSuccess) {
+    if (start == 0) {
+      return;
+    }
+
+    long nanos = System.nanoTime() - start;
+    stats.get(operation).computeIfAbsent(key, (k) -> new LatencyStats()).record(nanos, bSuccess);
+
+    switch (operation) {
+      case DISCOVERY:
+        DiscoveryEvent discovery = new DiscoveryEvent();
+        if (discovery.shouldCommit()) {
+          discovery.editableClass = (Class<?>) key;
+          discovery.latency = nanos;
+          discovery.commit();
+        }
+        break;
+      case PARSE:
+        ParseEvent parse = new ParseEvent();
+        if (parse.shouldCommit()) {
+          parse.targetClass = (Class<?>) key;
+          parse.success = bSuccess;
+          parse.latency = nanos;
+          parse.commit();
+        }
+        break;
+      case SET:
+        SetEvent set = new SetEvent();
+        if (set.shouldCommit()) {
+          EditableField field = (EditableField) key;
+          set.declaringClass = field.getDeclaringClass();
+          set.field = field.getName();
+          set.success = bSuccess;
+          set.latency = nanos;
+          set.commit();
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  @Name("jg.editables.SchemaDiscovery")
+  @Label("Editable Schema Discovery")
+  @Category("Editables")
+  static class DiscoveryEvent extends Event {
+    @Label("Class")
+    Class<?> editableClass;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+  }
+
+  @Name("jg.editables.Parse")
+  @Label("Editable Value Parse")
+  @Category("Editables")
+  static class ParseEvent extends Event {
+    @Label("Target Class")
+    Class<?> targetClass;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+  }
+
+  @Name("jg.editables.Set")
+  @Label("Editable Field Set")
+  @Category("Editables")
+  static class SetEvent extends Event {
+    @Label("Declaring Class")
+    Class<?> declaringClass;
+
+    @Label("Field")
+    String field;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+  }
+}
@@ -1,8 +1,5 @@
 package jg.editables;
 
-import java.lang.reflect.Field;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -12,34 +9,41 @@ import java.util.Map;
  */
 public class EditablePropertyUtils {
 
+  private static final ClassValue<EditableSchema> SCHEMAS = new ClassValue<EditableSchema>() {
+    @Override
+    protected EditableSchema computeValue(Class<?> type) {
+      Class<?> superClass = type.getSuperclass();
+      EditableSchema superSchema = superClass == null ? null : SCHEMAS.get(superClass);
+      long start = EditableMetrics.start();
+      EditableSchema schema = EditableSchema.compile(type, superSchema);
+      EditableMetrics.record(EditableMetrics.Operation.DISCOVERY, type, start, true);
+      return schema;
+    }
+  };
+
   /**
-   * Generates a map from string categories to lists of editable fields, in the class and any
-   * superclasses, belonging to those categories.
+   * Returns the cached schema of editable fields for the class and any superclasses, compiling
+   * it on first use. Safe to call from multiple threads.
    */
-  public static Map<String, List<EditableField>> getPropertyGroups(Class clazz) {
-    Map<String, List<EditableField>> groups = new LinkedHashMap<>();
-    List<Field> fields = ReflectionUtils.getAllDeclaredFields(clazz);
-
-    for (Field field : fields) {
-      if (field.isAnnotationPresent(Editable.class)) {
-        Editable editable = field.getAnnotation(Editable.class);
-        String category = editable.category();
-        List<EditableField> list;
-        EditableField property = new EditableField(clazz, field, editable);
-
-        if (!groups.containsKey(category)) {
-          list = new LinkedList<>();
-          list.add(property);
-          groups.put(category, list);
-        } else {
-          groups.get(category).add(property);
-        }
+  public static EditableSchema getSchema(Class<?> clazz) {
+    return SCHEMAS.get(clazz);
+  }
 
-        field.setAccessible(true);
-      }
-    }
+  /**
+   * Returns the editable field with the given name in the class or any superclasses, or null if
+   * there is none. Fields declared by the class hide those of its superclasses with the same
+   * name. Uses the schema's field index rather than scanning the class's fields.
+   */
+  public static EditableField findField(Class<?> clazz, String name) {
+    return getSchema(clazz).getFieldIndex().getField(name);
+  }
 
-    return groups;
+  /**
+   * Returns an unmodifiable map from string categories to lists of editable fields, in the class
+   * and any superclasses, belonging to those categories. The map is cached per class.
+   */
+  public static Map<String, List<EditableField>> getPropertyGroups(Class clazz) {
+    return getSchema(clazz).getPropertyGroups();
   }
 
   /**
@@ -61,7 +65,7 @@ public class EditablePropertyUtils {
       System.out.println(entry.getKey());
 
       for (EditableField field : entry.getValue()) {
-        System.out.println("\t" + field.getField().getName() + " " + field.getFieldValueChecked(object));
+        System.out.println("\t" + field.getName() + " " + field.getFieldValueChecked(object));
       }
     }
   }
@@ -0,0 +1,243 @@
+package jg.editables;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.DoublePredicate;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A query over a collection of objects sharing an editable schema, selecting those whose editable
+ * field values satisfy every added condition. Fields are named either by their name alone or as
+ * "category/name". Large collections are filtered in parallel, and equality and range conditions
+ * on fields with a supplied EditableIndex start from the index's matches instead of scanning.
+ * @author Jordan Glanfield
+ */
+public class EditableQuery<T> {
+
+  private final Class<T> clazz;
+  private final Collection<T> objects;
+  private final EditableSchema schema;
+  private final List<Condition> conditions = new ArrayList<>();
+  private final List<EditableIndex> indexes = new ArrayList<>();
+
+  private EditableQuery(Class<T> clazz, Collection<T> objects) {
+    this.clazz = clazz;
+    this.objects = objects;
+    this.schema = EditablePropertyUtils.getSchema(clazz);
+  }
+
+  /**
+   * Begins a query over the given objects, all of which are instances of the given class.
+   */
+  public static <T> EditableQuery<T> from(Class<T> clazz, Collection<T> objects) {
+    return new EditableQuery<>(clazz, objects);
+  }
+
+  /**
+   * Returns the editable field of the schema named by either "name" or "category/name".
+   * @throws IllegalArgumentException if there is no such field.
+   */
+  public EditableField getField(String name) {
+    int separator = name.lastIndexOf('/');
+    String category = separator < 0 ? null : name.substring(0, separator);
+    String fieldName = name.substring(separator + 1);
+
+    for (int i = 0; i < schema.getFieldCount(); i++) {
+      EditableField field = schema.getField(i);
+
+      if (field.getName().equals(fieldName)
+          && (category == null || category.equals(field.getCategory()))) {
+        return field;
+      }
+    }
+
+    throw new IllegalArgumentException("No editable field " + name + " in " + schema);
+  }
+
+  // Conditions
+
+  /**
+   * Requires the boxed value of the named field to satisfy the predicate.
+   */
+  public EditableQuery<T> where(String name, Predicate<Object> predicate) {
+    EditableField field = getField(name);
+    conditions.add(new Condition(field,
+        (object) -> predicate.test(field.getFieldValueChecked(object))));
+    return this;
+  }
+
+  /**
+   * Requires the value of the named int field to satisfy the predicate, without boxing.
+   */
+  public EditableQuery<T> whereInt(String name, IntPredicate predicate) {
+    EditableField field = getField(name);
+    conditions.add(new Condition(field, (object) -> predicate.test(field.getInt(object))));
+    return this;
+  }
+
+  /**
+   * Requires the value of the named long field to satisfy the predicate, without boxing.
+   */
+  public EditableQuery<T> whereLong(String name, LongPredicate predicate) {
+    EditableField field = getField(name);
+    conditions.add(new Condition(field, (object) -> predicate.test(field.getLong(object))));
+    return this;
+  }
+
+  /**
+   * Requires the value of the named double field to satisfy the predicate, without boxing.
+   */
+  public EditableQuery<T> whereDouble(String name, DoublePredicate predicate) {
+    EditableField field = getField(name);
+    conditions.add(new Condition(field, (object) -> predicate.test(field.getDouble(object))));
+    return this;
+  }
+
+  /**
+   * Requires the value of the named field to equal the given value. Uses an index on the field if
+   * one was supplied.
+   */
+  public EditableQuery<T> whereEquals(String name, Object value) {
+    EditableField field = getField(name);
+    Condition condition = new Condition(field,
+        (object) -> Objects.equals(field.getFieldValueChecked(object), value));
+    condition.indexLookup = (index) -> index.getEqual(value);
+    conditions.add(condition);
+    return this;
+  }
+
+  /**
+   * Requires the value of the named field to lie between the given inclusive bounds, either of
+   * which may be null to leave that end open. Uses a sorted index on the field if one was
+   * supplied.
+   */
+  public <V extends Comparable<? super V>> EditableQuery<T> whereBetween(String name, V from,
+      V to) {
+    EditableField field = getField(name);
+    Condition condition = new Condition(field, (object) -> {
+      @SuppressWarnings("unchecked")
+      V value = (V) field.getFieldValueChecked(object);
+      return value != null && (from == null || value.compareTo(from) >= 0)
+          && (to == null || value.compareTo(to) <= 0);
+    });
+    condition.bNeedsSortedIndex = true;
+    condition.indexLookup = (index) -> index.getRange(from, true, to, true);
+    conditions.add(condition);
+    return this;
+  }
+
+  /**
+   * Requires the value of at least one field in the given category to satisfy the predicate.
+   */
+  public EditableQuery<T> whereAnyInCategory(String category, Predicate<Object> predicate) {
+    List<EditableField> fields = schema.getPropertyGroups().get(category);
+
+    if (fields == null) {
+      conditions.add(new Condition(null, (object) -> false));
+    } else {
+      conditions.add(new Condition(null, (object) -> {
+        for (EditableField field : fields) {
+          if (predicate.test(field.getFieldValueChecked(object))) {
+            return true;
+          }
+        }
+
+        return false;
+      }));
+    }
+
+    return this;
+  }
+
+  /**
+   * Supplies an index that equality or range conditions on its field may start from. The index
+   * should cover exactly the queried objects, as matches are then taken from the index.
+   */
+  public EditableQuery<T> useIndex(EditableIndex index) {
+    indexes.add(index);
+    return this;
+  }
+
+  // Evaluation
+
+  /**
+   * Returns the objects satisfying every condition.
+   */
+  public List<T> list() {
+    return stream().collect(Collectors.toList());
+  }
+
+  /**
+   * Returns the number of objects satisfying every condition.
+   */
+  public long count() {
+    return stream().count();
+  }
+
+  private Stream<T> stream() {
+    Collection<T> candidates = getIndexedCandidates();
+
+    if (candidates == null) {
+      candidates = objects;
+    }
+
+    Stream<T> stream = candidates.size() >= BulkEditUtils.PARALLEL_THRESHOLD
+        ? candidates.parallelStream() : candidates.stream();
+    // Indexed conditions are checked again as writes bypassing EditableField are not indexed.
+    return stream.filter(this::matches);
+  }
+
+  private Collection<T> getIndexedCandidates() {
+    for (Condition condition : conditions) {
+      if (condition.indexLookup == null) {
+        continue;
+      }
+
+      for (EditableIndex index : indexes) {
+        if (index.getField() == condition.field
+            && (index.isSorted() || !condition.bNeedsSortedIndex)) {
+          List<T> candidates = new ArrayList<>();
+
+          for (Object object : condition.indexLookup.apply(index)) {
+            if (clazz.isInstance(object)) {
+              candidates.add(clazz.cast(object));
+            }
+          }
+
+          return candidates;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  private boolean matches(T object) {
+    for (Condition condition : conditions) {
+      if (!condition.test.test(object)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static class Condition {
+    private final EditableField field;
+    private final Predicate<Object> test;
+    private Function<EditableIndex, List<Object>> indexLookup;
+    private boolean bNeedsSortedIndex = false;
+
+    Condition(EditableField field, Predicate<Object> test) {
+      this.field = field;
+      this.test = test;
+    }
+  }
+}
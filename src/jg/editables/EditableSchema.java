@@ -0,0 +1,247 @@
+package jg.editables;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable description of the editable fields of a class, in the same order and grouping as
+ * produced by EditablePropertyUtils.getPropertyGroups. Schemas are compiled once per class and
+ * cached, see EditablePropertyUtils.getSchema. A schema shares the compiled fields of its
+ * superclass schema wherever the field's setter resolves identically in the subclass. Classes
+ * with accessors generated by jg.editables.processing.EditableProcessor use them in place of
+ * scanning their declared fields and annotations.
+ * @author Jordan Glanfield
+ */
+public final class EditableSchema {
+
+  private final Class<?> editableClass;
+  private final EditableField[] fields;
+  private final String[] categories;
+  private final Map<String, List<EditableField>> propertyGroups;
+  private volatile EditableFieldIndex fieldIndex;
+
+  private EditableSchema(Class<?> editableClass, EditableField[] fields) {
+    this.editableClass = editableClass;
+    this.fields = fields;
+
+    Map<String, List<EditableField>> groups = new LinkedHashMap<>();
+
+    for (EditableField field : fields) {
+      groups.computeIfAbsent(field.getCategory(), (category) -> new ArrayList<>()).add(field);
+    }
+
+    categories = new String[groups.size()];
+
+    Map<String, List<EditableField>> immutableGroups = new LinkedHashMap<>();
+    int i = 0;
+
+    for (Map.Entry<String, List<EditableField>> entry : groups.entrySet()) {
+      EditableField[] categoryFields = entry.getValue().toArray(new EditableField[0]);
+      categories[i] = entry.getKey();
+      immutableGroups.put(categories[i], Collections.unmodifiableList(Arrays.asList(categoryFields)));
+      i++;
+    }
+
+    propertyGroups = Collections.unmodifiableMap(immutableGroups);
+  }
+
+  /**
+   * Compiles the schema for the given class, reusing the fields of the superclass schema.
+   */
+  static EditableSchema compile(Class<?> clazz, EditableSchema superSchema) {
+    List<EditableField> fields = getGeneratedFields(clazz);
+
+    if (fields == null) {
+      fields = new ArrayList<>();
+
+      // Platform classes declare no editable fields.
+      if (!isPlatformClass(clazz)) {
+        for (Field field : clazz.getDeclaredFields()) {
+          Editable editable = field.getAnnotation(Editable.class);
+
+          if (editable != null) {
+            fields.add(new EditableField(clazz, field, editable));
+          }
+        }
+      }
+    }
+
+    if (superSchema != null) {
+      for (EditableField inherited : superSchema.fields) {
+        if (inherited.hasSetter() || !inherited.requestsSetter()) {
+          fields.add(inherited);
+        } else {
+          // The setter may only be declared in this subclass so resolve it again.
+          fields.add(inherited.resolveFor(clazz));
+        }
+      }
+    }
+
+    return new EditableSchema(clazz, fields.toArray(new EditableField[0]));
+  }
+
+  /**
+   * Returns the editable fields declared by the class as described by its generated accessors,
+   * or null if there are no usable generated accessors. Fields the accessors can both read and
+   * write are created from their metadata without reflection, others are looked up
+   * reflectively and use the accessors where they can.
+   */
+  private static List<EditableField> getGeneratedFields(Class<?> clazz) {
+    EditableAccessors accessors = findGeneratedAccessors(clazz);
+
+    if (accessors == null) {
+      return null;
+    }
+
+    String[] names = accessors.getFieldNames();
+    String[] categories = accessors.getCategories();
+    Class<?>[] types = accessors.getFieldTypes();
+    String[] setterNames = accessors.getSetterNames();
+    List<EditableField> fields = new ArrayList<>(names.length);
+
+    try {
+      for (int i = 0; i < names.length; i++) {
+        if (types != null && setterNames != null && types[i] != null && accessors.canGet(i)
+            && accessors.canSet(i)) {
+          fields.add(new EditableField(clazz, accessors, i, names[i], types[i], categories[i],
+              setterNames[i]));
+          continue;
+        }
+
+        Field field = clazz.getDeclaredField(names[i]);
+        Editable editable = field.getAnnotation(Editable.class);
+
+        if (editable == null) {
+          return null;
+        }
+
+        fields.add(new EditableField(clazz, field, editable, accessors, i));
+      }
+    } catch (NoSuchFieldException e) {
+      // Accessors generated for an older version of the class.
+      return null;
+    }
+
+    return fields;
+  }
+
+  /**
+   * Returns the generated accessors of the class, or null if it has none. Only classes listed in
+   * the editable class index are probed, as the processor indexes every class it generates
+   * accessors for, so other classes pay no failed class lookup.
+   */
+  private static EditableAccessors findGeneratedAccessors(Class<?> clazz) {
+    if (clazz.isPrimitive() || clazz.isArray() || !EditableClassIndex.isIndexed(clazz)) {
+      return null;
+    }
+
+    try {
+      Class<?> accessorsClass = Class.forName(clazz.getName() + EditableAccessors.CLASS_SUFFIX,
+          true, clazz.getClassLoader());
+
+      if (EditableAccessors.class.isAssignableFrom(accessorsClass)) {
+        return (EditableAccessors) accessorsClass.getDeclaredConstructor().newInstance();
+      } else {
+        return null;
+      }
+    } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static boolean isPlatformClass(Class<?> clazz) {
+    ClassLoader classLoader = clazz.getClassLoader();
+    return classLoader == null || classLoader == ClassLoader.getPlatformClassLoader();
+  }
+
+  // Getters
+
+  /**
+   * Returns the class this schema describes.
+   */
+  public Class<?> getEditableClass() {
+    return editableClass;
+  }
+
+  /**
+   * Returns the number of editable fields in the class and its superclasses.
+   */
+  public int getFieldCount() {
+    return fields.length;
+  }
+
+  /**
+   * Returns the editable field at the given position in schema order. Fields declared by the
+   * class come before those declared by its superclasses.
+   */
+  public EditableField getField(int index) {
+    return fields[index];
+  }
+
+  /**
+   * Returns the position of the given field in schema order or -1 if it is not part of this
+   * schema.
+   */
+  public int indexOf(EditableField field) {
+    for (int i = 0; i < fields.length; i++) {
+      if (fields[i] == field) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Returns the number of distinct categories.
+   */
+  public int getCategoryCount() {
+    return categories.length;
+  }
+
+  /**
+   * Returns the category at the given position, in order of first appearance.
+   */
+  public String getCategory(int index) {
+    return categories[index];
+  }
+
+  /**
+   * Returns an unmodifiable list of all editable fields in schema order.
+   */
+  public List<EditableField> getFields() {
+    return Collections.unmodifiableList(Arrays.asList(fields));
+  }
+
+  /**
+   * Returns an unmodifiable map from categories to the editable fields belonging to them.
+   */
+  public Map<String, List<EditableField>> getPropertyGroups() {
+    return propertyGroups;
+  }
+
+  /**
+   * Returns the index of the schema's fields by name and category, building it on first use.
+   */
+  public EditableFieldIndex getFieldIndex() {
+    EditableFieldIndex index = fieldIndex;
+
+    if (index == null) {
+      // Racing threads may each build an index, any of which is equivalent.
+      index = new EditableFieldIndex(getFields());
+      fieldIndex = index;
+    }
+
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return "EditableSchema[" + editableClass.getName() + "]";
+  }
+}
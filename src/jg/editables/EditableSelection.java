@@ -0,0 +1,288 @@
+package jg.editables;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A set of objects edited together, exposing the editable fields common to all of their schemas
+ * and the values of one field at a time across every target. Targets are grouped by class so each
+ * write goes through the EditableField of the target's own schema. Used by PropertiesDialog's
+ * multi-object mode. Not thread safe.
+ * @author Jordan Glanfield
+ */
+final class EditableSelection {
+
+  /**
+   * The text shown in place of a value when the targets hold differing values.
+   */
+  static final String MIXED_VALUE_TEXT = "<mixed>";
+
+  private final Object[] targets;
+  private final ParsingFunctionsMap parsingFunctions;
+  private final List<Group> groups = new ArrayList<>();
+  private final Map<String, List<EditableField>> propertyGroups = new LinkedHashMap<>();
+
+  private EditableField loadedField;
+  private Object[] values;
+
+  EditableSelection(Collection<?> objects, ParsingFunctionsMap parsingFunctions) {
+    this.targets = objects.toArray();
+    this.parsingFunctions = parsingFunctions;
+    Map<Class<?>, List<Integer>> positions = new LinkedHashMap<>();
+
+    for (int i = 0; i < targets.length; i++) {
+      positions.computeIfAbsent(targets[i].getClass(), (key) -> new ArrayList<>()).add(i);
+    }
+
+    for (Map.Entry<Class<?>, List<Integer>> entry : positions.entrySet()) {
+      groups.add(new Group(EditablePropertyUtils.getSchema(entry.getKey()), entry.getValue()));
+    }
+
+    if (!groups.isEmpty()) {
+      for (EditableField field : groups.get(0).schema.getFields()) {
+        if (isCommon(field.getField())) {
+          propertyGroups.computeIfAbsent(field.getCategory(), (key) -> new ArrayList<>())
+              .add(field);
+        }
+      }
+    }
+  }
+
+  private boolean isCommon(Field field) {
+    for (Group group : groups) {
+      if (!group.fields.containsKey(field)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  // Getters
+
+  /**
+   * Returns the number of objects being edited.
+   */
+  int size() {
+    return targets.length;
+  }
+
+  /**
+   * Returns the editable fields shared by every target grouped by category, as
+   * EditablePropertyUtils.getPropertyGroups.
+   */
+  Map<String, List<EditableField>> getPropertyGroups() {
+    return propertyGroups;
+  }
+
+  /**
+   * Returns the distinct non-null values of the field across the targets, compared by identity.
+   */
+  List<Object> getDistinctValues(EditableField field) {
+    load(field);
+    Set<Object> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<Object> result = new ArrayList<>();
+
+    for (Object value : values) {
+      if (value != null && distinct.add(value)) {
+        result.add(value);
+      }
+    }
+
+    return result;
+  }
+
+  // Values
+
+  /**
+   * Reads the field's value on every target, returning the text to show for it.
+   */
+  String load(EditableField field) {
+    loadedField = field;
+    values = new Object[targets.length];
+
+    for (Group group : groups) {
+      EditableField groupField = group.fields.get(field.getField());
+
+      for (int position : group.positions) {
+        values[position] = groupField.getFieldValueChecked(targets[position]);
+      }
+    }
+
+    return getText();
+  }
+
+  /**
+   * Returns the text of the value most recently loaded, or MIXED_VALUE_TEXT if the targets' values
+   * differ.
+   */
+  String getText() {
+    if (values == null || values.length == 0) {
+      return "";
+    }
+
+    for (int i = 1; i < values.length; i++) {
+      if (!Objects.equals(values[0], values[i])) {
+        return MIXED_VALUE_TEXT;
+      }
+    }
+
+    return parsingFunctions.format(values[0]);
+  }
+
+  /**
+   * Parses the string once with the selection's parsingFunctions and writes the result to the
+   * field on every target. With an edit history the writes are made in one transaction, so they
+   * undo together and none are kept unless all succeed. Afterwards only the targets that were
+   * written are read again.
+   * @return true if every target was written and false if not.
+   */
+  boolean apply(EditableField field, String string, EditHistory editHistory) {
+    if (field != loadedField) {
+      load(field);
+    }
+
+    Object value = parse(field, string);
+
+    if (value == null) {
+      return false;
+    }
+
+    BitSet written = new BitSet(targets.length);
+    boolean bSuccess = true;
+    boolean bReload = false;
+
+    if (editHistory != null) {
+      EditTransaction transaction = editHistory.begin();
+
+      try {
+        for (Group group : groups) {
+          EditableField groupField = group.fields.get(field.getField());
+
+          for (int position : group.positions) {
+            if (transaction.setValue(groupField, targets[position], value)) {
+              written.set(position);
+            }
+          }
+        }
+      } catch (RuntimeException e) {
+        // A setter rejected the value, so every write made so far is undone.
+        transaction.rollback();
+        load(field);
+        return false;
+      }
+
+      bSuccess = transaction.commit();
+    } else {
+      for (Group group : groups) {
+        EditableField groupField = group.fields.get(field.getField());
+        BitSet groupWritten;
+
+        try {
+          groupWritten = BulkEditUtils.setValue(groupField, group.getTargets(targets), value);
+        } catch (RuntimeException e) {
+          // A setter rejected the value part way through the group, so its writes are unknown.
+          bSuccess = false;
+          bReload = true;
+          continue;
+        }
+
+        for (int i = groupWritten.nextSetBit(0); i >= 0; i = groupWritten.nextSetBit(i + 1)) {
+          written.set(group.positions[i]);
+        }
+      }
+    }
+
+    if (bReload) {
+      load(field);
+    } else {
+      for (int i = written.nextSetBit(0); i >= 0; i = written.nextSetBit(i + 1)) {
+        values[i] = field.getFieldValueChecked(targets[i]);
+      }
+    }
+
+    return bSuccess && written.cardinality() == targets.length;
+  }
+
+  /**
+   * Parses the string once and stages one batch writing the result to the field on every target,
+   * to be applied by the thread owning the targets.
+   * @return true if the string was parsed and the batch staged and false if not.
+   */
+  boolean stage(EditableField field, String string, EditStage editStage) {
+    Object value = parse(field, string);
+
+    if (value == null) {
+      return false;
+    }
+
+    EditStage.Batch batch = editStage.begin();
+
+    for (Group group : groups) {
+      EditableField groupField = group.fields.get(field.getField());
+
+      for (int position : group.positions) {
+        batch.setValue(groupField, targets[position], value);
+      }
+    }
+
+    batch.submit();
+    return true;
+  }
+
+  /**
+   * Returns the string parsed for the field, which every group shares, or null if it could not
+   * be parsed.
+   */
+  private Object parse(EditableField field, String string) {
+    Class<?> type = field.getType();
+    Object value;
+
+    try {
+      value = parsingFunctions.parse(type, string);
+    } catch (RuntimeException e) {
+      return null;
+    }
+
+    if (value == null) {
+      value = EditableCodecs.lookupEnumConstant(type, string);
+    }
+
+    return value;
+  }
+
+  private static class Group {
+    private final EditableSchema schema;
+    private final int[] positions;
+    private final Map<Field, EditableField> fields = new HashMap<>();
+
+    Group(EditableSchema schema, List<Integer> positions) {
+      this.schema = schema;
+      this.positions = positions.stream().mapToInt(Integer::intValue).toArray();
+
+      for (EditableField field : schema.getFields()) {
+        fields.put(field.getField(), field);
+      }
+    }
+
+    Object[] getTargets(Object[] targets) {
+      Object[] groupTargets = new Object[positions.length];
+
+      for (int i = 0; i < positions.length; i++) {
+        groupTargets[i] = targets[positions[i]];
+      }
+
+      return groupTargets;
+    }
+  }
+}
@@ -0,0 +1,481 @@
+package jg.editables;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Contains static methods for saving the editable state of many objects of one class to a compact
+ * binary file and loading it back. The file starts with a header describing the schema, followed
+ * by one record per object holding its editable field values in schema order. Primitives are
+ * stored with a fixed width, strings and enums as length prefixed UTF-8 and other values as their
+ * toString representation, which is parsed again on load. Files are loaded through a memory
+ * mapping and primitive values are written straight into fields without boxing. Fields are matched
+ * by name and type when loading, so fields added or removed since saving are tolerated.
+ * @author Jordan Glanfield
+ */
+public class EditableSnapshots {
+
+  private static final int MAGIC = 0x4544534E;
+  private static final short VERSION = 1;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private static final byte TYPE_BOOLEAN = 1;
+  private static final byte TYPE_BYTE = 2;
+  private static final byte TYPE_SHORT = 3;
+  private static final byte TYPE_CHAR = 4;
+  private static final byte TYPE_INT = 5;
+  private static final byte TYPE_FLOAT = 6;
+  private static final byte TYPE_LONG = 7;
+  private static final byte TYPE_DOUBLE = 8;
+  private static final byte TYPE_STRING = 9;
+  private static final byte TYPE_ENUM = 10;
+  private static final byte TYPE_TEXT = 11;
+
+  /**
+   * Saves the editable fields of each object, all of which must be instances of the given class,
+   * to the file at the given path, replacing it if it exists.
+   */
+  public static void save(Path path, Class<?> clazz, List<?> objects) throws IOException {
+    EditableSchema schema = EditablePropertyUtils.getSchema(clazz);
+    byte[] types = new byte[schema.getFieldCount()];
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      Output output = new Output(channel);
+      output.ensure(10);
+      output.buffer.putInt(MAGIC);
+      output.buffer.putShort(VERSION);
+      output.putString(clazz.getName());
+      output.ensure(4);
+      output.buffer.putInt(types.length);
+
+      for (int i = 0; i < types.length; i++) {
+        EditableField field = schema.getField(i);
+        types[i] = getTypeCode(field.getType());
+        output.putString(field.getName());
+        output.ensure(1);
+        output.buffer.put(types[i]);
+      }
+
+      output.ensure(4);
+      output.buffer.putInt(objects.size());
+
+      for (Object object : objects) {
+        for (int i = 0; i < types.length; i++) {
+          putValue(output, schema.getField(i), types[i], object);
+        }
+      }
+
+      output.flush();
+    }
+  }
+
+  /**
+   * Loads saved editable state into the given objects, the n-th record going to the n-th object.
+   * Each object must be an instance of the saved class, and is matched against the schema of its
+   * own class. Saved fields without a matching field of the same name and type are skipped and
+   * fields that were not saved are left untouched. Values are parsed with the given
+   * parsingFunctions where they were saved as text.
+   * @return the number of objects loaded into, the lesser of the record and object counts.
+   * @throws IllegalArgumentException if an object is not an instance of the saved class.
+   */
+  public static int load(Path path, List<?> objects, ParsingFunctionsMap parsingFunctions)
+      throws IOException {
+    if (objects.isEmpty()) {
+      return 0;
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      try {
+        SavedLayout layout = readHeader(buffer);
+        int count = Math.min(layout.recordCount, objects.size());
+
+        for (int i = 0; i < count; i++) {
+          readRecord(buffer, layout, objects.get(i), parsingFunctions);
+        }
+
+        return count;
+      } catch (BufferUnderflowException e) {
+        throw new IOException("Truncated snapshot " + path, e);
+      }
+    }
+  }
+
+  /**
+   * Loads saved editable state into new objects created by the given factory, one per record, as
+   * above.
+   * @throws IllegalArgumentException if an object is not an instance of the saved class.
+   */
+  public static <T> List<T> load(Path path, Supplier<T> factory,
+      ParsingFunctionsMap parsingFunctions) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      try {
+        SavedLayout layout = readHeader(buffer);
+        List<T> objects = new ArrayList<>(layout.recordCount);
+
+        for (int i = 0; i < layout.recordCount; i++) {
+          T object = factory.get();
+          readRecord(buffer, layout, object, parsingFunctions);
+          objects.add(object);
+        }
+
+        return objects;
+      } catch (BufferUnderflowException e) {
+        throw new IOException("Truncated snapshot " + path, e);
+      }
+    }
+  }
+
+  private static byte getTypeCode(Class<?> type) {
+    if (type == boolean.class) {
+      return TYPE_BOOLEAN;
+    } else if (type == byte.class) {
+      return TYPE_BYTE;
+    } else if (type == short.class) {
+      return TYPE_SHORT;
+    } else if (type == char.class) {
+      return TYPE_CHAR;
+    } else if (type == int.class) {
+      return TYPE_INT;
+    } else if (type == float.class) {
+      return TYPE_FLOAT;
+    } else if (type == long.class) {
+      return TYPE_LONG;
+    } else if (type == double.class) {
+      return TYPE_DOUBLE;
+    } else if (type == String.class) {
+      return TYPE_STRING;
+    } else if (type.isEnum()) {
+      return TYPE_ENUM;
+    } else {
+      return TYPE_TEXT;
+    }
+  }
+
+  private static void putValue(Output output, EditableField field, byte type, Object object)
+      throws IOException {
+    ByteBuffer buffer = output.buffer;
+
+    switch (type) {
+      case TYPE_BOOLEAN:
+        output.ensure(1);
+        buffer.put(field.getBoolean(object) ? (byte) 1 : (byte) 0);
+        break;
+      case TYPE_BYTE:
+        output.ensure(1);
+        buffer.put((byte) field.getBits(object));
+        break;
+      case TYPE_SHORT:
+        output.ensure(2);
+        buffer.putShort((short) field.getBits(object));
+        break;
+      case TYPE_CHAR:
+        output.ensure(2);
+        buffer.putChar((char) field.getBits(object));
+        break;
+      case TYPE_INT:
+        output.ensure(4);
+        buffer.putInt(field.getInt(object));
+        break;
+      case TYPE_FLOAT:
+        output.ensure(4);
+        buffer.putFloat(field.getFloat(object));
+        break;
+      case TYPE_LONG:
+        output.ensure(8);
+        buffer.putLong(field.getLong(object));
+        break;
+      case TYPE_DOUBLE:
+        output.ensure(8);
+        buffer.putDouble(field.getDouble(object));
+        break;
+      case TYPE_ENUM:
+        Object constant = field.getFieldValueChecked(object);
+        output.putString(constant == null ? null : ((Enum<?>) constant).name());
+        break;
+      default:
+        Object value = field.getFieldValueChecked(object);
+        output.putString(value == null ? null : value.toString());
+        break;
+    }
+  }
+
+  private static SavedLayout readHeader(ByteBuffer buffer) throws IOException {
+    if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+      throw new IOException("Not an editable snapshot");
+    }
+
+    String className = getString(buffer);
+    int fieldCount = buffer.getInt();
+    SavedLayout layout = new SavedLayout(className, fieldCount);
+
+    for (int i = 0; i < fieldCount; i++) {
+      layout.names[i] = getString(buffer);
+      layout.types[i] = buffer.get();
+    }
+
+    layout.recordCount = buffer.getInt();
+    return layout;
+  }
+
+  /**
+   * Returns the fields of the class matching each saved field, or null where there is none.
+   */
+  private static EditableField[] matchFields(SavedLayout layout, Class<?> clazz) {
+    EditableSchema schema = EditablePropertyUtils.getSchema(clazz);
+    EditableField[] fields = new EditableField[layout.names.length];
+    Map<String, List<EditableField>> fieldsByName = new HashMap<>();
+
+    for (EditableField field : schema.getFields()) {
+      fieldsByName.computeIfAbsent(field.getName(), (name) -> new ArrayList<>())
+          .add(field);
+    }
+
+    Map<String, Integer> occurrences = new HashMap<>();
+
+    for (int i = 0; i < fields.length; i++) {
+      // Shadowed fields share a name so match them by order of occurrence.
+      int occurrence = occurrences.merge(layout.names[i], 1, Integer::sum) - 1;
+      List<EditableField> candidates = fieldsByName.get(layout.names[i]);
+
+      if (candidates != null && occurrence < candidates.size()) {
+        EditableField field = candidates.get(occurrence);
+
+        if (getTypeCode(field.getType()) == layout.types[i]) {
+          fields[i] = field;
+        }
+      }
+    }
+
+    return fields;
+  }
+
+  /**
+   * Returns whether the class or one of its superclasses has the given name.
+   */
+  private static boolean isNamedOrSubclass(Class<?> clazz, String className) {
+    for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+      if (current.getName().equals(className)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private static void readRecord(ByteBuffer buffer, SavedLayout layout, Object object,
+      ParsingFunctionsMap parsingFunctions) {
+    EditableField[] fields = layout.getFields(object.getClass());
+
+    for (int i = 0; i < layout.types.length; i++) {
+      EditableField field = fields[i];
+
+      switch (layout.types[i]) {
+        case TYPE_BOOLEAN:
+          byte bool = buffer.get();
+          if (field != null) {
+            field.setBoolean(object, bool != 0);
+          }
+          break;
+        case TYPE_BYTE:
+          byte b = buffer.get();
+          if (field != null) {
+            field.setBits(object, b);
+          }
+          break;
+        case TYPE_SHORT:
+          short s = buffer.getShort();
+          if (field != null) {
+            field.setBits(object, s);
+          }
+          break;
+        case TYPE_CHAR:
+          char c = buffer.getChar();
+          if (field != null) {
+            field.setBits(object, c);
+          }
+          break;
+        case TYPE_INT:
+          int n = buffer.getInt();
+          if (field != null) {
+            field.setInt(object, n);
+          }
+          break;
+        case TYPE_FLOAT:
+          float f = buffer.getFloat();
+          if (field != null) {
+            field.setFloat(object, f);
+          }
+          break;
+        case TYPE_LONG:
+          long l = buffer.getLong();
+          if (field != null) {
+            field.setLong(object, l);
+          }
+          break;
+        case TYPE_DOUBLE:
+          double d = buffer.getDouble();
+          if (field != null) {
+            field.setDouble(object, d);
+          }
+          break;
+        default:
+          if (field == null) {
+            skipString(buffer);
+          } else {
+            setText(field, layout.types[i], object, getString(buffer), parsingFunctions);
+          }
+          break;
+      }
+    }
+  }
+
+  private static void setText(EditableField field, byte type, Object object, String string,
+      ParsingFunctionsMap parsingFunctions) {
+    Class<?> fieldType = field.getType();
+
+    if (string == null) {
+      field.setValue(object, null);
+    } else if (type == TYPE_STRING) {
+      field.setValue(object, string);
+    } else if (type == TYPE_ENUM) {
+      Object constant = EditableCodecs.lookupEnumConstant(fieldType, string);
+
+      // A constant that no longer exists leaves the field as it is.
+      if (constant != null) {
+        field.setValue(object, constant);
+      }
+    } else if (parsingFunctions != null) {
+      try {
+        Object value = parsingFunctions.parse(fieldType, string);
+
+        if (value != null) {
+          field.setValue(object, value);
+        }
+      } catch (RuntimeException e) {
+        // The saved text is no longer valid for the field, leave the field as it is.
+      }
+    }
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+
+    if (length < 0) {
+      return null;
+    }
+
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void skipString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+
+    if (length > 0) {
+      buffer.position(buffer.position() + length);
+    }
+  }
+
+  /**
+   * The saved class along with the saved field names and types in file order, and for each class
+   * loaded into the current field each maps to or null.
+   */
+  private static class SavedLayout {
+    private final String className;
+    private final String[] names;
+    private final byte[] types;
+    private final Map<Class<?>, EditableField[]> fieldsByClass = new HashMap<>();
+    private int recordCount;
+
+    SavedLayout(String className, int fieldCount) {
+      this.className = className;
+      names = new String[fieldCount];
+      types = new byte[fieldCount];
+    }
+
+    EditableField[] getFields(Class<?> clazz) {
+      EditableField[] fields = fieldsByClass.get(clazz);
+
+      if (fields == null) {
+        if (!isNamedOrSubclass(clazz, className)) {
+          throw new IllegalArgumentException("Snapshot of " + className
+              + " cannot be loaded into " + clazz.getName());
+        }
+
+        fields = matchFields(this, clazz);
+        fieldsByClass.put(clazz, fields);
+      }
+
+      return fields;
+    }
+  }
+
+  /**
+   * Buffers writes to a file channel.
+   */
+  private static class Output {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    Output(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    void ensure(int bytes) throws IOException {
+      if (buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    void putString(String string) throws IOException {
+      ensure(4);
+
+      if (string == null) {
+        buffer.putInt(-1);
+        return;
+      }
+
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      buffer.putInt(bytes.length);
+
+      if (bytes.length <= buffer.capacity()) {
+        ensure(bytes.length);
+        buffer.put(bytes);
+      } else {
+        flush();
+        ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+
+        while (wrapped.hasRemaining()) {
+          channel.write(wrapped);
+        }
+      }
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+
+      buffer.clear();
+    }
+  }
+}
@@ -0,0 +1,294 @@
+package jg.editables;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A blocking client for an EditableTuningServer on the local machine. Fields are addressed by
+ * their position in the root's schema, as listed by listFields. Requests may be pipelined by
+ * sending several with sendSet before awaiting their responses, and change events for subscribed
+ * roots are delivered to their listeners on the calling thread whenever responses are read or
+ * pollEvents is called. Not thread safe.
+ * @author Jordan Glanfield
+ */
+public class EditableTuningClient implements Closeable {
+
+  private final Socket socket;
+  private final DataInputStream input;
+  private final OutputStream output;
+  private final Map<Integer, DataInputStream> responses = new HashMap<>();
+  private final Map<Integer, ChangeListener> listeners = new HashMap<>();
+  private int nextRequestId = 0;
+
+  /**
+   * Receives changes to the fields of a subscribed root.
+   */
+  @FunctionalInterface
+  public interface ChangeListener {
+
+    /**
+     * Called with the position of the changed field in the root's schema and its new value as
+     * text, or null if the new value is null.
+     */
+    void fieldChanged(int fieldIndex, String value);
+  }
+
+  /**
+   * Connects to a tuning server listening on the given port of the loopback interface.
+   */
+  public EditableTuningClient(int port) throws IOException {
+    socket = new Socket(InetAddress.getLoopbackAddress(), port);
+    socket.setTcpNoDelay(true);
+    input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    output = new BufferedOutputStream(socket.getOutputStream());
+  }
+
+  /**
+   * Returns the editable fields of the named root in schema order, as "category/name".
+   */
+  public List<String> listFields(String root) throws IOException {
+    TuningProtocol.FrameBuilder request = newRequest(TuningProtocol.LIST);
+    request.data.writeUTF(root);
+    DataInputStream response = await(send(request));
+
+    int count = response.readInt();
+    List<String> fields = new ArrayList<>(count);
+
+    for (int i = 0; i < count; i++) {
+      String category = response.readUTF();
+      String name = response.readUTF();
+      response.readUTF();
+      fields.add(category + "/" + name);
+    }
+
+    return fields;
+  }
+
+  /**
+   * Returns the values of the given fields of the named root as text, with null for null values.
+   */
+  public String[] get(String root, int... fieldIndices) throws IOException {
+    TuningProtocol.FrameBuilder request = newRequest(TuningProtocol.GET);
+    request.data.writeUTF(root);
+    request.data.writeInt(fieldIndices.length);
+
+    for (int index : fieldIndices) {
+      request.data.writeInt(index);
+    }
+
+    DataInputStream response = await(send(request));
+    String[] values = new String[response.readInt()];
+
+    for (int i = 0; i < values.length; i++) {
+      values[i] = readValue(response);
+    }
+
+    return values;
+  }
+
+  /**
+   * Sets the given fields of the named root from text and waits for the result. The writes take
+   * effect when the server's EditStage is applied.
+   * @return a bitmap with the bit at each field's position in the request set if the write
+   * was staged.
+   */
+  public BitSet set(String root, int[] fieldIndices, String[] values) throws IOException {
+    return awaitSet(sendSet(root, fieldIndices, values));
+  }
+
+  /**
+   * Queues a request to set the given fields of the named root without waiting for the result,
+   * so many requests can be pipelined. Queued requests are sent when the buffer fills, on flush or
+   * when a response is awaited.
+   * @return the id of the request, to be passed to awaitSet.
+   */
+  public int sendSet(String root, int[] fieldIndices, String[] values) throws IOException {
+    if (fieldIndices.length != values.length) {
+      throw new IllegalArgumentException("Expected one value per field index");
+    }
+
+    TuningProtocol.FrameBuilder request = newRequest(TuningProtocol.SET);
+    request.data.writeUTF(root);
+    request.data.writeInt(fieldIndices.length);
+
+    for (int i = 0; i < fieldIndices.length; i++) {
+      request.data.writeInt(fieldIndices[i]);
+      request.data.writeUTF(values[i]);
+    }
+
+    return queue(request);
+  }
+
+  /**
+   * Waits for the result of a request queued by sendSet.
+   * @return a bitmap with the bit at each field's position in the request set if the write
+   * was staged.
+   */
+  public BitSet awaitSet(int requestId) throws IOException {
+    flush();
+    DataInputStream response = await(requestId);
+    byte[] written = new byte[(response.readInt() + 7) >>> 3];
+    response.readFully(written);
+    return BitSet.valueOf(written);
+  }
+
+  /**
+   * Subscribes to changes to the fields of the named root.
+   * @return the id of the subscription, to be passed to unsubscribe.
+   */
+  public int subscribe(String root, ChangeListener listener) throws IOException {
+    TuningProtocol.FrameBuilder request = newRequest(TuningProtocol.SUBSCRIBE);
+    request.data.writeUTF(root);
+    int requestId = queue(request);
+    listeners.put(requestId, listener);
+
+    try {
+      await(requestId);
+    } catch (IllegalArgumentException e) {
+      listeners.remove(requestId);
+      throw e;
+    }
+
+    return requestId;
+  }
+
+  /**
+   * Ends a subscription made by subscribe.
+   */
+  public void unsubscribe(int subscriptionId) throws IOException {
+    TuningProtocol.FrameBuilder request = newRequest(TuningProtocol.UNSUBSCRIBE);
+    request.data.writeInt(subscriptionId);
+    listeners.remove(subscriptionId);
+    await(send(request));
+  }
+
+  /**
+   * Delivers change events to their listeners, waiting up to the given time for the first.
+   * @return the number of events delivered.
+   */
+  public int pollEvents(int timeoutMillis) throws IOException {
+    flush();
+    socket.setSoTimeout(Math.max(timeoutMillis, 1));
+
+    try {
+      // Wait for the first byte without consuming it, so a timeout never splits a frame.
+      input.mark(1);
+
+      if (input.read() < 0) {
+        throw new EOFException();
+      }
+
+      input.reset();
+    } catch (SocketTimeoutException e) {
+      return 0;
+    } finally {
+      socket.setSoTimeout(0);
+    }
+
+    int events = 0;
+
+    do {
+      if (readFrame() == TuningProtocol.EVENT) {
+        events++;
+      }
+    } while (input.available() > 0);
+
+    return events;
+  }
+
+  /**
+   * Sends any queued requests.
+   */
+  public void flush() throws IOException {
+    output.flush();
+  }
+
+  /**
+   * Disconnects from the server.
+   */
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+
+  // Framing
+
+  private TuningProtocol.FrameBuilder newRequest(byte opcode) {
+    return new TuningProtocol.FrameBuilder(opcode, nextRequestId++);
+  }
+
+  private int queue(TuningProtocol.FrameBuilder request) throws IOException {
+    ByteBuffer frame = request.toBuffer();
+    output.write(frame.array(), 0, frame.limit());
+    return request.getRequestId();
+  }
+
+  private int send(TuningProtocol.FrameBuilder request) throws IOException {
+    int requestId = queue(request);
+    flush();
+    return requestId;
+  }
+
+  /**
+   * Reads frames until the response to the given request arrives, returning it positioned after
+   * its status.
+   * @throws IllegalArgumentException if the server rejected the request.
+   */
+  private DataInputStream await(int requestId) throws IOException {
+    flush();
+
+    while (!responses.containsKey(requestId)) {
+      readFrame();
+    }
+
+    DataInputStream response = responses.remove(requestId);
+    byte status = response.readByte();
+
+    if (status == TuningProtocol.UNKNOWN_ROOT) {
+      throw new IllegalArgumentException("Unknown root in request " + requestId);
+    } else if (status != TuningProtocol.OK) {
+      throw new IllegalArgumentException("Bad request " + requestId);
+    }
+
+    return response;
+  }
+
+  private byte readFrame() throws IOException {
+    byte[] payload = new byte[input.readInt()];
+    input.readFully(payload);
+    DataInputStream frame = new DataInputStream(new ByteArrayInputStream(payload));
+    byte opcode = frame.readByte();
+    int requestId = frame.readInt();
+
+    if (opcode == TuningProtocol.EVENT) {
+      ChangeListener listener = listeners.get(requestId);
+
+      if (listener != null) {
+        listener.fieldChanged(frame.readInt(), readValue(frame));
+      }
+    } else {
+      responses.put(requestId, frame);
+    }
+
+    return opcode;
+  }
+
+  private static String readValue(DataInputStream frame) throws IOException {
+    return frame.readBoolean() ? frame.readUTF() : null;
+  }
+}
@@ -0,0 +1,488 @@
+package jg.editables;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An embeddable server exposing the editable fields of registered root objects to tuning clients
+ * on the loopback interface, so constants of a running program can be changed without restarting
+ * it. One background thread serves every connection through a non-blocking selector, decoding
+ * pipelined requests as they arrive and writing their responses in batches. Values are parsed
+ * with the server's ParsingFunctionsMap on the server thread and staged on its EditStage, so the
+ * roots are only written, through EditableField with setters and change listeners applying, when
+ * the thread owning them calls EditStage.apply. Clients subscribed to a root are sent every
+ * change to its fields as delivered by FieldChangeNotifier, and a client that stops reading is
+ * disconnected once MAX_QUEUED_BYTES of output is waiting for it. See TuningProtocol for the wire
+ * format and EditableTuningClient for a client.
+ * @author Jordan Glanfield
+ */
+public class EditableTuningServer implements Closeable {
+
+  /**
+   * The most output that may wait to be sent to one client before it is disconnected.
+   */
+  public static final int MAX_QUEUED_BYTES = 16 * TuningProtocol.MAX_FRAME_LENGTH;
+
+  private final ParsingFunctionsMap parsingFunctions;
+  private final Map<String, Object> roots = new ConcurrentHashMap<>();
+  private final Queue<Connection> pendingOutput = new ConcurrentLinkedQueue<>();
+  private Selector selector;
+  private ServerSocketChannel serverChannel;
+  private Thread thread;
+  private volatile EditStage editStage = new EditStage();
+  private volatile boolean bRunning = false;
+
+  /**
+   * @param parsingFunctions the functions used to parse values sent by clients.
+   */
+  public EditableTuningServer(ParsingFunctionsMap parsingFunctions) {
+    this.parsingFunctions = parsingFunctions;
+  }
+
+  /**
+   * Exposes the editable fields of the object to clients under the given name, replacing any
+   * object previously registered under it.
+   */
+  public void register(String name, Object root) {
+    roots.put(name, root);
+  }
+
+  /**
+   * Stops exposing the object registered under the given name. Existing subscriptions to it are
+   * kept until their clients unsubscribe or disconnect.
+   */
+  public void unregister(String name) {
+    roots.remove(name);
+  }
+
+  /**
+   * Sets the stage that writes requested by clients are staged on, replacing the server's own,
+   * each request's writes forming one batch. A write succeeds once its value is parsed and takes
+   * effect when the thread owning the roots calls EditStage.apply.
+   */
+  public void setEditStage(EditStage editStage) {
+    this.editStage = Objects.requireNonNull(editStage);
+  }
+
+  /**
+   * Returns the stage that writes requested by clients are staged on, which the thread owning the
+   * roots must apply for them to take effect.
+   */
+  public EditStage getEditStage() {
+    return editStage;
+  }
+
+  /**
+   * Binds the server to the given port on the loopback interface and starts serving clients on a
+   * background thread.
+   * @param port the port to listen on, or 0 for any free port.
+   * @return the port the server is listening on.
+   */
+  public synchronized int start(int port) throws IOException {
+    if (bRunning) {
+      throw new IllegalStateException("Tuning server already started");
+    }
+
+    selector = Selector.open();
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    serverChannel.configureBlocking(false);
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+    bRunning = true;
+    thread = new Thread(this::run, "Editable tuning server");
+    thread.setDaemon(true);
+    thread.start();
+
+    return getPort();
+  }
+
+  /**
+   * Returns the port the server is listening on or -1 if it has not been started.
+   */
+  public int getPort() {
+    return serverChannel == null ? -1 : serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Stops the server, disconnecting every client.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (!bRunning) {
+      return;
+    }
+
+    bRunning = false;
+    selector.wakeup();
+
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    for (SelectionKey key : selector.keys()) {
+      if (key.attachment() instanceof Connection) {
+        ((Connection) key.attachment()).close();
+      }
+    }
+
+    selector.close();
+    serverChannel.close();
+  }
+
+  // Selector loop
+
+  private void run() {
+    while (bRunning) {
+      try {
+        selector.select();
+      } catch (IOException e) {
+        Thread.currentThread().getUncaughtExceptionHandler()
+            .uncaughtException(Thread.currentThread(), e);
+        return;
+      }
+
+      Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+      while (keys.hasNext()) {
+        SelectionKey key = keys.next();
+        keys.remove();
+
+        if (key.isValid() && key.isAcceptable()) {
+          accept();
+        } else if (key.attachment() instanceof Connection) {
+          Connection connection = (Connection) key.attachment();
+
+          try {
+            if (key.isValid() && key.isReadable()) {
+              connection.read();
+            }
+
+            if (key.isValid()) {
+              connection.flush();
+            }
+          } catch (IOException | RuntimeException e) {
+            connection.close();
+          }
+        }
+      }
+
+      Connection connection;
+
+      while ((connection = pendingOutput.poll()) != null) {
+        try {
+          connection.flush();
+        } catch (IOException e) {
+          connection.close();
+        }
+      }
+    }
+  }
+
+  private void accept() {
+    try {
+      SocketChannel channel = serverChannel.accept();
+
+      if (channel != null) {
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+      }
+    } catch (IOException e) {
+      // The client went away before it could be accepted.
+    }
+  }
+
+  private class Connection {
+    private final SocketChannel channel;
+    private SelectionKey key;
+    private ByteBuffer input = ByteBuffer.allocate(8192);
+    private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<ByteBuffer> writing = new ArrayDeque<>();
+    private final Map<Integer, FieldChangeListener> subscriptions = new HashMap<>();
+    private final AtomicInteger queuedBytes = new AtomicInteger();
+    private volatile boolean bOverflowed = false;
+
+    Connection(SocketChannel channel) {
+      this.channel = channel;
+    }
+
+    void read() throws IOException {
+      if (channel.read(input) < 0) {
+        close();
+        return;
+      }
+
+      input.flip();
+
+      while (input.remaining() >= 4) {
+        int length = input.getInt(input.position());
+
+        if (length < 5 || length > TuningProtocol.MAX_FRAME_LENGTH) {
+          throw new IOException("Bad frame length " + length);
+        } else if (input.remaining() < 4 + length) {
+          if (input.capacity() < 4 + length) {
+            input = ByteBuffer.allocate(4 + length).put(input);
+            input.flip();
+          }
+
+          break;
+        }
+
+        byte[] payload = new byte[length];
+        input.position(input.position() + 4);
+        input.get(payload);
+        handle(new DataInputStream(new ByteArrayInputStream(payload)));
+      }
+
+      input.compact();
+    }
+
+    /**
+     * Queues the frame to be sent, or drops it and marks the connection to be closed if the
+     * client has fallen too far behind.
+     */
+    void send(ByteBuffer frame) {
+      if (bOverflowed || queuedBytes.addAndGet(frame.remaining()) > MAX_QUEUED_BYTES) {
+        bOverflowed = true;
+      } else {
+        output.add(frame);
+      }
+    }
+
+    /**
+     * Writes as much queued output as the socket accepts in one gathering write, waiting for the
+     * socket to become writable if any remains.
+     * @throws IOException if the client has stopped reading its output.
+     */
+    void flush() throws IOException {
+      if (bOverflowed) {
+        throw new IOException("Client output exceeds " + MAX_QUEUED_BYTES + " bytes");
+      }
+
+      ByteBuffer frame;
+
+      while ((frame = output.poll()) != null) {
+        writing.add(frame);
+      }
+
+      if (!writing.isEmpty()) {
+        channel.write(writing.toArray(new ByteBuffer[0]));
+
+        while (!writing.isEmpty() && !writing.peek().hasRemaining()) {
+          queuedBytes.addAndGet(-writing.poll().limit());
+        }
+      }
+
+      if (key.isValid()) {
+        key.interestOps(writing.isEmpty()
+            ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      }
+    }
+
+    void close() {
+      for (FieldChangeListener listener : subscriptions.values()) {
+        FieldChangeNotifier.unsubscribe(listener);
+      }
+
+      subscriptions.clear();
+      key.cancel();
+
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // Already closed.
+      }
+    }
+
+    // Requests
+
+    private void handle(DataInputStream request) throws IOException {
+      byte opcode = request.readByte();
+      int requestId = request.readInt();
+      TuningProtocol.FrameBuilder response = new TuningProtocol.FrameBuilder(opcode, requestId);
+
+      if (opcode == TuningProtocol.UNSUBSCRIBE) {
+        FieldChangeListener listener = subscriptions.remove(request.readInt());
+
+        if (listener != null) {
+          FieldChangeNotifier.unsubscribe(listener);
+        }
+
+        response.data.writeByte(listener == null ? TuningProtocol.BAD_REQUEST : TuningProtocol.OK);
+        send(response.toBuffer());
+        return;
+      }
+
+      Object root = roots.get(request.readUTF());
+
+      if (root == null) {
+        response.data.writeByte(TuningProtocol.UNKNOWN_ROOT);
+        send(response.toBuffer());
+        return;
+      }
+
+      EditableSchema schema = EditablePropertyUtils.getSchema(root.getClass());
+
+      if (opcode == TuningProtocol.LIST) {
+        response.data.writeByte(TuningProtocol.OK);
+        response.data.writeInt(schema.getFieldCount());
+
+        for (int i = 0; i < schema.getFieldCount(); i++) {
+          EditableField field = schema.getField(i);
+          response.data.writeUTF(field.getCategory());
+          response.data.writeUTF(field.getName());
+          response.data.writeUTF(field.getType().getName());
+        }
+      } else if (opcode == TuningProtocol.GET) {
+        handleGet(request, response, root, schema);
+      } else if (opcode == TuningProtocol.SET) {
+        handleSet(request, response, root, schema);
+      } else if (opcode == TuningProtocol.SUBSCRIBE) {
+        subscribe(requestId, root, schema);
+        response.data.writeByte(TuningProtocol.OK);
+      } else {
+        response.data.writeByte(TuningProtocol.BAD_REQUEST);
+      }
+
+      send(response.toBuffer());
+    }
+
+    private void handleGet(DataInputStream request, TuningProtocol.FrameBuilder response,
+        Object root, EditableSchema schema) throws IOException {
+      int count = request.readInt();
+      int[] indices = readIndices(request, count, schema);
+
+      if (indices == null) {
+        response.data.writeByte(TuningProtocol.BAD_REQUEST);
+        return;
+      }
+
+      response.data.writeByte(TuningProtocol.OK);
+      response.data.writeInt(count);
+
+      for (int index : indices) {
+        writeValue(response, schema.getField(index).getFieldValueChecked(root));
+      }
+    }
+
+    private void handleSet(DataInputStream request, TuningProtocol.FrameBuilder response,
+        Object root, EditableSchema schema) throws IOException {
+      int count = request.readInt();
+
+      if (count < 0 || count > TuningProtocol.MAX_FRAME_LENGTH) {
+        response.data.writeByte(TuningProtocol.BAD_REQUEST);
+        return;
+      }
+
+      byte[] written = new byte[(count + 7) >>> 3];
+      EditStage.Batch batch = editStage.begin();
+
+      for (int i = 0; i < count; i++) {
+        int index = request.readInt();
+        String value = request.readUTF();
+
+        if (index < 0 || index >= schema.getFieldCount()) {
+          continue;
+        }
+
+        if (batch.setFieldValue(schema.getField(index), root, value, parsingFunctions)) {
+          written[i >>> 3] |= 1 << (i & 7);
+        }
+      }
+
+      batch.submit();
+      response.data.writeByte(TuningProtocol.OK);
+      response.data.writeInt(count);
+      response.data.write(written);
+    }
+
+    private int[] readIndices(DataInputStream request, int count, EditableSchema schema)
+        throws IOException {
+      if (count < 0 || count > TuningProtocol.MAX_FRAME_LENGTH) {
+        return null;
+      }
+
+      int[] indices = new int[count];
+
+      for (int i = 0; i < count; i++) {
+        indices[i] = request.readInt();
+
+        if (indices[i] < 0 || indices[i] >= schema.getFieldCount()) {
+          return null;
+        }
+      }
+
+      return indices;
+    }
+
+    private void subscribe(int requestId, Object root, EditableSchema schema) {
+      Map<EditableField, Integer> positions = new IdentityHashMap<>();
+
+      for (int i = 0; i < schema.getFieldCount(); i++) {
+        positions.put(schema.getField(i), i);
+      }
+
+      FieldChangeListener listener = (object, field) -> {
+        Integer index = positions.get(field);
+
+        if (index == null) {
+          return;
+        }
+
+        TuningProtocol.FrameBuilder event =
+            new TuningProtocol.FrameBuilder(TuningProtocol.EVENT, requestId);
+
+        try {
+          event.data.writeInt(index);
+          writeValue(event, field.getFieldValueChecked(object));
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+
+        send(event.toBuffer());
+        pendingOutput.add(this);
+        selector.wakeup();
+      };
+
+      FieldChangeListener previous = subscriptions.put(requestId, listener);
+
+      if (previous != null) {
+        FieldChangeNotifier.unsubscribe(previous);
+      }
+
+      FieldChangeNotifier.subscribeToObject(root, listener);
+    }
+
+    private void writeValue(TuningProtocol.FrameBuilder frame, Object value) throws IOException {
+      frame.data.writeBoolean(value != null);
+
+      if (value != null) {
+        frame.data.writeUTF(parsingFunctions.format(value));
+      }
+    }
+  }
+}
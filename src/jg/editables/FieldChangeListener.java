@@ -0,0 +1,17 @@
+package jg.editables;
+
+/**
+ * Receives notifications of successful writes made through an EditableField, see
+ * FieldChangeNotifier.
+ * @author Jordan Glanfield
+ */
+@FunctionalInterface
+public interface FieldChangeListener {
+
+  /**
+   * Called after the field has been written on the given object. When notifications are
+   * coalesced this is called once for any number of writes to the same field on the same object
+   * since the last flush.
+   */
+  void fieldChanged(Object object, EditableField field);
+}
@@ -0,0 +1,265 @@
+package jg.editables;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Contains static methods for subscribing to writes made through EditableField, per field, per
+ * object or per class. By default notifications are coalesced: writes only mark their object and
+ * field as changed and flush, typically called once per frame or tick, notifies the listeners
+ * once per changed pair. Listeners are run on a configurable executor, which defaults to running
+ * them on the thread calling flush. Writes cost a single volatile read while nothing is
+ * subscribed.
+ * @author Jordan Glanfield
+ */
+public class FieldChangeNotifier {
+
+  // Whether any listener is subscribed, checked by EditableField before reporting writes.
+  static volatile boolean bActive = false;
+
+  private static final Map<FieldKey, List<FieldChangeListener>> fieldListeners =
+      new ConcurrentHashMap<>();
+  private static final Map<IdentityKey, List<FieldChangeListener>> objectListeners =
+      new ConcurrentHashMap<>();
+  private static final Map<Class<?>, List<FieldChangeListener>> classListeners =
+      new ConcurrentHashMap<>();
+  // Replaced rather than cleared when class subscriptions change, so a resolution racing with the
+  // change is stored in the discarded map and cannot hide the new subscription.
+  private static volatile Map<Class<?>, List<FieldChangeListener>> resolvedClassListeners =
+      new ConcurrentHashMap<>();
+  private static final Set<Change> pendingChanges = ConcurrentHashMap.newKeySet();
+
+  private static volatile Executor executor = Runnable::run;
+  private static volatile boolean bCoalescing = true;
+
+  /**
+   * Subscribes the listener to writes of the given field on any object, including writes through
+   * the copies of the field that subclass schemas resolve their own setter for.
+   */
+  public static void subscribeToField(EditableField field, FieldChangeListener listener) {
+    add(fieldListeners, new FieldKey(field), listener);
+  }
+
+  /**
+   * Subscribes the listener to writes of any field on the given object, compared by identity.
+   * The object is strongly referenced until the listener is unsubscribed.
+   */
+  public static void subscribeToObject(Object object, FieldChangeListener listener) {
+    add(objectListeners, new IdentityKey(object), listener);
+  }
+
+  /**
+   * Subscribes the listener to writes of any field on instances of the given class or its
+   * subclasses.
+   */
+  public static synchronized void subscribeToClass(Class<?> clazz,
+      FieldChangeListener listener) {
+    add(classListeners, clazz, listener);
+    resolvedClassListeners = new ConcurrentHashMap<>();
+  }
+
+  private static synchronized <K> void add(Map<K, List<FieldChangeListener>> listeners, K key,
+      FieldChangeListener listener) {
+    listeners.computeIfAbsent(key, (k) -> new CopyOnWriteArrayList<>()).add(listener);
+    bActive = true;
+  }
+
+  /**
+   * Removes every subscription of the given listener.
+   */
+  public static synchronized void unsubscribe(FieldChangeListener listener) {
+    remove(fieldListeners, listener);
+    remove(objectListeners, listener);
+    remove(classListeners, listener);
+    resolvedClassListeners = new ConcurrentHashMap<>();
+    bActive = !fieldListeners.isEmpty() || !objectListeners.isEmpty()
+        || !classListeners.isEmpty();
+  }
+
+  private static <K> void remove(Map<K, List<FieldChangeListener>> listeners,
+      FieldChangeListener listener) {
+    listeners.values().forEach((list) -> list.remove(listener));
+    listeners.values().removeIf(List::isEmpty);
+  }
+
+  /**
+   * Sets the executor listeners are run on. Each notification is submitted as one task running
+   * every listener interested in it.
+   */
+  public static void setExecutor(Executor executor) {
+    FieldChangeNotifier.executor = executor;
+  }
+
+  /**
+   * Sets whether notifications are coalesced until the next flush, or submitted to the executor
+   * as soon as each write succeeds.
+   */
+  public static void setCoalescing(boolean bCoalescing) {
+    FieldChangeNotifier.bCoalescing = bCoalescing;
+
+    if (!bCoalescing) {
+      flush();
+    }
+  }
+
+  /**
+   * Notifies listeners once for every object and field written since the last flush.
+   */
+  public static void flush() {
+    for (Change change : pendingChanges) {
+      if (pendingChanges.remove(change)) {
+        dispatch(change.object, change.field);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of changed object and field pairs waiting for the next flush.
+   */
+  public static int getPendingCount() {
+    return pendingChanges.size();
+  }
+
+  static void fieldChanged(Object object, EditableField field) {
+    if (bCoalescing) {
+      pendingChanges.add(new Change(object, field));
+    } else {
+      dispatch(object, field);
+    }
+  }
+
+  private static void dispatch(Object object, EditableField field) {
+    List<FieldChangeListener> listeners = getListeners(object, field);
+
+    if (listeners.isEmpty()) {
+      return;
+    }
+
+    try {
+      executor.execute(() -> {
+        for (FieldChangeListener listener : listeners) {
+          try {
+            listener.fieldChanged(object, field);
+          } catch (VirtualMachineError e) {
+            throw e;
+          } catch (RuntimeException | Error e) {
+            // A failing listener must neither fail the write nor starve the other listeners.
+            report(e);
+          }
+        }
+      });
+    } catch (VirtualMachineError e) {
+      throw e;
+    } catch (RuntimeException | Error e) {
+      report(e);
+    }
+  }
+
+  private static void report(Throwable e) {
+    Thread thread = Thread.currentThread();
+    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+  }
+
+  private static List<FieldChangeListener> getListeners(Object object, EditableField field) {
+    List<FieldChangeListener> listeners = new ArrayList<>();
+    List<FieldChangeListener> forField =
+        fieldListeners.isEmpty() ? null : fieldListeners.get(new FieldKey(field));
+
+    if (forField != null) {
+      listeners.addAll(forField);
+    }
+
+    if (object != null) {
+      List<FieldChangeListener> forObject = objectListeners.get(new IdentityKey(object));
+
+      if (forObject != null) {
+        listeners.addAll(forObject);
+      }
+
+      listeners.addAll(resolvedClassListeners.computeIfAbsent(object.getClass(),
+          FieldChangeNotifier::resolveClassListeners));
+    }
+
+    return listeners;
+  }
+
+  private static List<FieldChangeListener> resolveClassListeners(Class<?> clazz) {
+    List<FieldChangeListener> listeners = new ArrayList<>();
+
+    for (Map.Entry<Class<?>, List<FieldChangeListener>> entry : classListeners.entrySet()) {
+      if (entry.getKey().isAssignableFrom(clazz)) {
+        listeners.addAll(entry.getValue());
+      }
+    }
+
+    return listeners;
+  }
+
+  /**
+   * Identifies a field by its declaring class and name, equal for every EditableField wrapping it.
+   */
+  private static class FieldKey {
+    private final Class<?> declaringClass;
+    private final String name;
+
+    FieldKey(EditableField field) {
+      declaringClass = field.getDeclaringClass();
+      name = field.getName();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof FieldKey && ((FieldKey) other).declaringClass == declaringClass
+          && ((FieldKey) other).name.equals(name);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * declaringClass.hashCode() + name.hashCode();
+    }
+  }
+
+  private static class IdentityKey {
+    private final Object object;
+
+    IdentityKey(Object object) {
+      this.object = object;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof IdentityKey && ((IdentityKey) other).object == object;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(object);
+    }
+  }
+
+  private static class Change {
+    private final Object object;
+    private final EditableField field;
+
+    Change(Object object, EditableField field) {
+      this.object = object;
+      this.field = field;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Change && ((Change) other).object == object
+          && ((Change) other).field == field;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(object) + field.hashCode();
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package jg.editables;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe counters and a latency histogram for one instrumented operation on one class or
+ * field, see EditableMetrics. Latencies are bucketed by powers of two nanoseconds.
+ * @author Jordan Glanfield
+ */
+public class LatencyStats {
+
+  private static final int BUCKET_COUNT = 64;
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder failureCount = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+  private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+  LatencyStats() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  void record(long nanos, boolean bSuccess) {
+    long clamped = Math.max(nanos, 1);
+    count.increment();
+    totalNanos.add(clamped);
+    maxNanos.accumulate(clamped);
+    buckets[63 - Long.numberOfLeadingZeros(clamped)].increment();
+
+    if (!bSuccess) {
+      failureCount.increment();
+    }
+  }
+
+  /**
+   * Returns the number of recorded operations.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the number of recorded operations that failed.
+   */
+  public long getFailureCount() {
+    return failureCount.sum();
+  }
+
+  /**
+   * Returns the mean latency in nanoseconds, or 0 if nothing was recorded.
+   */
+  public double getMeanNanos() {
+    long recorded = count.sum();
+    return recorded == 0 ? 0 : (double) totalNanos.sum() / recorded;
+  }
+
+  /**
+   * Returns the greatest recorded latency in nanoseconds.
+   */
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * Returns an upper bound on the latency in nanoseconds below which the given fraction of
+   * operations completed, accurate to within a factor of two.
+   */
+  public long getPercentileNanos(double fraction) {
+    long recorded = count.sum();
+    long threshold = (long) Math.ceil(recorded * fraction);
+    long seen = 0;
+
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += buckets[i].sum();
+
+      if (seen >= threshold && seen > 0) {
+        return i == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+      }
+    }
+
+    return 0;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() + " failures=" + getFailureCount() + " mean="
+        + (long) getMeanNanos() + "ns p99<=" + getPercentileNanos(0.99) + "ns max="
+        + getMaxNanos() + "ns";
+  }
+}
@@ -1,30 +1,273 @@
 package jg.editables;
 
+import java.util.ArrayDeque;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
- * Maps classes to functions that will parse a string into an instance of that class.
+ * Maps classes to functions that will parse a string into an instance of that class. Primitive
+ * types may additionally be given unboxed parsing functions, which EditableField uses to set
+ * primitive fields without allocating. Lookups are cached per target class and the map may be
+ * shared between threads.
  * @author Jordan Glanfield
  */
 public class ParsingFunctionsMap {
+
+  /**
+   * A function producing a float from its argument, the float counterpart of ToDoubleFunction.
+   */
+  @FunctionalInterface
+  public interface ToFloatFunction<T> {
+    float applyAsFloat(T value);
+  }
   
+  // The powers of ten exactly representable as doubles.
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  // Marks a target class for which no parsing function could be resolved.
+  private static final Function<String, Object> NO_FUNCTION = (string) -> null;
+
+  // The functions getPrimitiveParsingFunctions gives the int, long, float and double types, which
+  // the constructor recognises to register their unboxed counterparts.
+  private static final Function<String, Object> PARSE_INT = Integer::parseInt;
+  private static final Function<String, Object> PARSE_LONG = Long::parseLong;
+  private static final Function<String, Object> PARSE_FLOAT = Float::parseFloat;
+  private static final Function<String, Object> PARSE_DOUBLE = Double::parseDouble;
+
+  private static final ToIntFunction<CharSequence> PARSE_UNBOXED_INT =
+      (chars) -> Integer.parseInt(chars, 0, chars.length(), 10);
+  private static final ToLongFunction<CharSequence> PARSE_UNBOXED_LONG =
+      (chars) -> Long.parseLong(chars, 0, chars.length(), 10);
+
+  // Registered functions, only accessed while holding the lock on this.
   private Map<Class<?>, Function<String, Object>> parsingFunctions;
 
+  private Map<Class<?>, Function<String, Object>> resolvedFunctions = new ConcurrentHashMap<>();
+  private Map<Class<?>, ToIntFunction<CharSequence>> intParsingFunctions =
+      new ConcurrentHashMap<>();
+  private Map<Class<?>, ToLongFunction<CharSequence>> longParsingFunctions =
+      new ConcurrentHashMap<>();
+  private Map<Class<?>, ToFloatFunction<CharSequence>> floatParsingFunctions =
+      new ConcurrentHashMap<>();
+  private Map<Class<?>, ToDoubleFunction<CharSequence>> doubleParsingFunctions =
+      new ConcurrentHashMap<>();
+
   /**
    * Creates a parsing functions map out of the given map of classes to functions for converting a
-   * string representation to an object that is assignable to that type.
+   * string representation to an object that is assignable to that type. The given map is copied,
+   * use addParsingFunction to register further functions. Primitive int, long, float and double
+   * types mapped to the functions of getPrimitiveParsingFunctions also get their unboxed parsing
+   * functions.
    */
   public ParsingFunctionsMap(Map<Class<?>, Function<String, Object>> parsingFunctions) {
-    this.parsingFunctions = parsingFunctions;
+    this.parsingFunctions = new LinkedHashMap<>(parsingFunctions);
+
+    if (parsingFunctions.get(Integer.TYPE) == PARSE_INT) {
+      intParsingFunctions.put(Integer.TYPE, PARSE_UNBOXED_INT);
+    }
+    if (parsingFunctions.get(Long.TYPE) == PARSE_LONG) {
+      longParsingFunctions.put(Long.TYPE, PARSE_UNBOXED_LONG);
+    }
+    if (parsingFunctions.get(Float.TYPE) == PARSE_FLOAT) {
+      floatParsingFunctions.put(Float.TYPE, ParsingFunctionsMap::parseFloat);
+    }
+    if (parsingFunctions.get(Double.TYPE) == PARSE_DOUBLE) {
+      doubleParsingFunctions.put(Double.TYPE, ParsingFunctionsMap::parseDouble);
+    }
   }
 
   /**
-   * Adds the given parsing function to the map.
+   * Adds the given parsing function to the map, replacing any unboxed parsing function for the
+   * same class.
    */
-  public void addParsingFunction(Class<?> targetClass, Function<String, Object> conversion) {
+  public synchronized void addParsingFunction(Class<?> targetClass,
+      Function<String, Object> conversion) {
     parsingFunctions.put(targetClass, conversion);
+    invalidate(targetClass);
+  }
+
+  /**
+   * Adds the given unboxed parsing function for an int type to the map. A boxing equivalent is
+   * also added so that parse and canParse agree with it.
+   */
+  public synchronized void addIntParsingFunction(Class<?> targetClass, ToIntFunction<CharSequence> conversion) {
+    parsingFunctions.put(targetClass, (string) -> conversion.applyAsInt(string));
+    invalidate(targetClass);
+    intParsingFunctions.put(targetClass, conversion);
+  }
+
+  /**
+   * Adds the given unboxed parsing function for a long type to the map. A boxing equivalent is
+   * also added so that parse and canParse agree with it.
+   */
+  public synchronized void addLongParsingFunction(Class<?> targetClass,
+      ToLongFunction<CharSequence> conversion) {
+    parsingFunctions.put(targetClass, (string) -> conversion.applyAsLong(string));
+    invalidate(targetClass);
+    longParsingFunctions.put(targetClass, conversion);
+  }
+
+  /**
+   * Adds the given unboxed parsing function for a float type to the map. A boxing equivalent is
+   * also added so that parse and canParse agree with it.
+   */
+  public synchronized void addFloatParsingFunction(Class<?> targetClass,
+      ToFloatFunction<CharSequence> conversion) {
+    parsingFunctions.put(targetClass, (string) -> conversion.applyAsFloat(string));
+    invalidate(targetClass);
+    floatParsingFunctions.put(targetClass, conversion);
+  }
+
+  /**
+   * Adds the given unboxed parsing function for a double type to the map. A boxing equivalent is
+   * also added so that parse and canParse agree with it.
+   */
+  public synchronized void addDoubleParsingFunction(Class<?> targetClass,
+      ToDoubleFunction<CharSequence> conversion) {
+    parsingFunctions.put(targetClass, (string) -> conversion.applyAsDouble(string));
+    invalidate(targetClass);
+    doubleParsingFunctions.put(targetClass, conversion);
+  }
+
+  /**
+   * Adds unboxed parsing functions for the int, long, float and double primitive types, replacing
+   * any parsing functions already present for those types. Maps built from
+   * getPrimitiveParsingFunctions already have them.
+   */
+  public synchronized void addUnboxedParsingFunctions() {
+    addIntParsingFunction(Integer.TYPE, PARSE_UNBOXED_INT);
+    addLongParsingFunction(Long.TYPE, PARSE_UNBOXED_LONG);
+    addFloatParsingFunction(Float.TYPE, ParsingFunctionsMap::parseFloat);
+    addDoubleParsingFunction(Double.TYPE, ParsingFunctionsMap::parseDouble);
+  }
+
+  /**
+   * Parses a float as Float.parseFloat does. Plain decimals of up to 7 significant digits with an
+   * exponent of at most 10 after moving the point are computed exactly without creating a String,
+   * and anything else falls back to Float.parseFloat.
+   */
+  static float parseFloat(CharSequence chars) {
+    double value = parseDecimal(chars, 7, 10, true);
+    return Double.isNaN(value) ? Float.parseFloat(chars.toString()) : (float) value;
+  }
+
+  /**
+   * Parses a double as Double.parseDouble does. Plain decimals of up to 15 significant digits with
+   * an exponent of at most 22 after moving the point are computed exactly without creating a
+   * String, and anything else falls back to Double.parseDouble.
+   */
+  static double parseDouble(CharSequence chars) {
+    double value = parseDecimal(chars, 15, 22, false);
+    return Double.isNaN(value) ? Double.parseDouble(chars.toString()) : value;
+  }
+
+  /**
+   * Parses an optionally signed decimal with an optional fraction and exponent, returning NaN if
+   * it has another form or too many digits or too large an exponent to be exact. Both the digits
+   * and the power of ten are then exactly representable, so a single multiplication or division
+   * in the target precision rounds correctly.
+   */
+  private static double parseDecimal(CharSequence chars, int maxDigits, int maxScale,
+      boolean bFloat) {
+    int length = chars.length();
+    int i = 0;
+    boolean bNegative = false;
+
+    if (i < length && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+      bNegative = chars.charAt(i++) == '-';
+    }
+
+    long mantissa = 0;
+    int digits = 0;
+    int scale = 0;
+    boolean bAnyDigit = false;
+    boolean bPoint = false;
+
+    for (; i < length; i++) {
+      char c = chars.charAt(i);
+
+      if (c >= '0' && c <= '9') {
+        bAnyDigit = true;
+
+        if ((mantissa != 0 || c != '0') && ++digits > maxDigits) {
+          return Double.NaN;
+        }
+
+        mantissa = mantissa * 10 + (c - '0');
+        scale -= bPoint ? 1 : 0;
+      } else if (c == '.' && !bPoint) {
+        bPoint = true;
+      } else {
+        break;
+      }
+    }
+
+    if (!bAnyDigit) {
+      return Double.NaN;
+    } else if (i < length) {
+      if (chars.charAt(i) != 'e' && chars.charAt(i) != 'E') {
+        return Double.NaN;
+      }
+
+      boolean bNegativeExponent = false;
+
+      if (++i < length && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+        bNegativeExponent = chars.charAt(i++) == '-';
+      }
+
+      if (i == length) {
+        return Double.NaN;
+      }
+
+      int exponent = 0;
+
+      for (; i < length; i++) {
+        char c = chars.charAt(i);
+
+        if (c < '0' || c > '9' || exponent > 1000) {
+          return Double.NaN;
+        }
+
+        exponent = exponent * 10 + (c - '0');
+      }
+
+      scale += bNegativeExponent ? -exponent : exponent;
+    }
+
+    if (scale < -maxScale || scale > maxScale) {
+      return Double.NaN;
+    }
+
+    double value;
+
+    if (bFloat) {
+      float power = (float) POWERS_OF_TEN[Math.abs(scale)];
+      value = scale < 0 ? (float) mantissa / power : (float) mantissa * power;
+    } else {
+      double power = POWERS_OF_TEN[Math.abs(scale)];
+      value = scale < 0 ? mantissa / power : mantissa * power;
+    }
+
+    return bNegative ? -value : value;
+  }
+
+  private void invalidate(Class<?> targetClass) {
+    resolvedFunctions.clear();
+    intParsingFunctions.remove(targetClass);
+    longParsingFunctions.remove(targetClass);
+    floatParsingFunctions.remove(targetClass);
+    doubleParsingFunctions.remove(targetClass);
   }
 
   /**
@@ -39,34 +282,155 @@ public class ParsingFunctionsMap {
    * null if no function was present or the parsing failed.
    */
   public Object parse(Class<?> targetClass, String string) {
-    Function<String, Object> parseFunction = getParseFunction(targetClass);
+    long start = EditableMetrics.start();
+    Object result = null;
 
-    if (parseFunction != null) {
-      return parseFunction.apply(string);
-    } else {
-      return null;
+    try {
+      Function<String, Object> parseFunction = getParseFunction(targetClass);
+
+      if (parseFunction != null) {
+        result = parseFunction.apply(string);
+      }
+
+      return result;
+    } finally {
+      EditableMetrics.record(EditableMetrics.Operation.PARSE, targetClass, start, result != null);
     }
   }
 
   /**
    * Returns the parsing function available for the given class or null if none is present. Will
    * first search for a direct parsing function for the targetClass and then for a parsing function
-   * for a class from which targetClass is assignable.
+   * for a class from which targetClass is assignable. Of those, the class fewest superclass or
+   * interface steps below targetClass is used, with ties going to the earliest registered. The
+   * result, including the absence of a function, is cached until a function is next added.
    */
   public Function<String, Object> getParseFunction(Class<?> targetClass) {
+    Function<String, Object> parseFunction = resolvedFunctions.get(targetClass);
+
+    if (parseFunction == null) {
+      parseFunction = resolveParseFunction(targetClass);
+    }
+
+    return parseFunction == NO_FUNCTION ? null : parseFunction;
+  }
+
+  private synchronized Function<String, Object> resolveParseFunction(Class<?> targetClass) {
     Function<String, Object> parseFunction = parsingFunctions.get(targetClass);
+
     if (parseFunction == null) {
+      int bestDistance = Integer.MAX_VALUE;
+      parseFunction = NO_FUNCTION;
+
       for (Map.Entry<Class<?>, Function<String, Object>> entry : parsingFunctions.entrySet()) {
         if (targetClass.isAssignableFrom(entry.getKey())) {
-          parseFunction = entry.getValue();
-          break;
+          int distance = getHierarchyDistance(entry.getKey(), targetClass);
+
+          if (parseFunction == NO_FUNCTION || distance < bestDistance) {
+            parseFunction = entry.getValue();
+            bestDistance = distance;
+          }
         }
       }
     }
-    
+
+    resolvedFunctions.put(targetClass, parseFunction);
     return parseFunction;
   }
 
+  /**
+   * Returns the number of superclass or interface steps needed to get from subClass to superClass,
+   * or Integer.MAX_VALUE if superClass is only reachable implicitly, as Object is from interfaces.
+   */
+  private static int getHierarchyDistance(Class<?> subClass, Class<?> superClass) {
+    Queue<Class<?>> current = new ArrayDeque<>();
+    Set<Class<?>> visited = new HashSet<>();
+    current.add(subClass);
+    int distance = 0;
+
+    while (!current.isEmpty()) {
+      Queue<Class<?>> next = new ArrayDeque<>();
+
+      for (Class<?> clazz : current) {
+        if (clazz == superClass) {
+          return distance;
+        }
+
+        if (clazz.getSuperclass() != null && visited.add(clazz.getSuperclass())) {
+          next.add(clazz.getSuperclass());
+        }
+
+        for (Class<?> implemented : clazz.getInterfaces()) {
+          if (visited.add(implemented)) {
+            next.add(implemented);
+          }
+        }
+      }
+
+      current = next;
+      distance++;
+    }
+
+    return Integer.MAX_VALUE;
+  }
+
+  /**
+   * Returns the unboxed int parsing function for the given class or null if none is present.
+   */
+  public ToIntFunction<CharSequence> getIntParseFunction(Class<?> targetClass) {
+    return intParsingFunctions.get(targetClass);
+  }
+
+  /**
+   * Returns the unboxed long parsing function for the given class or null if none is present.
+   */
+  public ToLongFunction<CharSequence> getLongParseFunction(Class<?> targetClass) {
+    return longParsingFunctions.get(targetClass);
+  }
+
+  /**
+   * Returns the unboxed float parsing function for the given class or null if none is present.
+   */
+  public ToFloatFunction<CharSequence> getFloatParseFunction(Class<?> targetClass) {
+    return floatParsingFunctions.get(targetClass);
+  }
+
+  /**
+   * Returns the unboxed double parsing function for the given class or null if none is present.
+   */
+  public ToDoubleFunction<CharSequence> getDoubleParseFunction(Class<?> targetClass) {
+    return doubleParsingFunctions.get(targetClass);
+  }
+
+  // Formatting
+
+  /**
+   * Appends the text for the given value to the builder, the reverse of parse. Null values
+   * append nothing and other values their toString representation.
+   */
+  public void format(Object value, StringBuilder out) {
+    if (value != null) {
+      out.append(value);
+    }
+  }
+
+  /**
+   * Returns the text for the given value as appended by format, which is empty for null values.
+   */
+  public String format(Object value) {
+    StringBuilder out = new StringBuilder();
+    format(value, out);
+    return out.toString();
+  }
+
+  /**
+   * Returns whether values of the given class are formatted other than by toString, which
+   * EditableField uses to decide whether primitive values may be formatted without boxing.
+   */
+  public boolean hasFormatter(Class<?> targetClass) {
+    return false;
+  }
+
   /**
    * Returns a map from classes to parsing functions containing parsing functions for booleans,
    * chars, bytes, shorts, ints, longs, floats, doubles, strings and the boxed variants of all
@@ -76,11 +440,11 @@ public class ParsingFunctionsMap {
     Map<Class<?>, Function<String, Object>> parsingFunctions = new LinkedHashMap<>();
 
     parsingFunctions.put(String.class, (string) -> string);
-    parsingFunctions.put(Double.TYPE, Double::parseDouble);
+    parsingFunctions.put(Double.TYPE, PARSE_DOUBLE);
     parsingFunctions.put(Double.class, Double::parseDouble);
-    parsingFunctions.put(Float.TYPE, Float::parseFloat);
+    parsingFunctions.put(Float.TYPE, PARSE_FLOAT);
     parsingFunctions.put(Float.class, Float::parseFloat);
-    parsingFunctions.put(Long.TYPE, Long::parseLong);
+    parsingFunctions.put(Long.TYPE, PARSE_LONG);
     parsingFunctions.put(Long.class, Long::parseLong);
 
     Function<String, Object> charParsingFunction = (string) -> {
@@ -94,7 +458,7 @@ public class ParsingFunctionsMap {
     parsingFunctions.put(Character.TYPE, charParsingFunction);
     parsingFunctions.put(Character.class, charParsingFunction);
 
-    parsingFunctions.put(Integer.TYPE, Integer::parseInt);
+    parsingFunctions.put(Integer.TYPE, PARSE_INT);
     parsingFunctions.put(Integer.class, Integer::parseInt);
     parsingFunctions.put(Short.TYPE, Short::parseShort);
     parsingFunctions.put(Short.class, Short::parseShort);
@@ -1,6 +1,8 @@
 package jg.editables;
 
+import java.awt.Component;
 import java.awt.Dialog;
+import java.awt.EventQueue;
 import java.awt.Frame;
 import java.awt.List;
 import java.awt.TextField;
@@ -10,15 +12,27 @@ import java.awt.event.ItemEvent;
 import java.awt.event.ItemListener;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.awt.event.TextEvent;
+import java.awt.event.TextListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.lang.reflect.Field;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Provides a rudimentary dialog for modifying editable fields on an object using a list of
- * field categories, a list of fields for each category and a text field for value entry.
+ * field categories, a list of fields for each category and a text field for value entry. The list
+ * of fields for a category is only built when the category is first shown. Given a background
+ * executor the dialog runs in virtual mode, where field lists only paint their visible rows and
+ * schema discovery and value reads happen on the executor, with results delivered back to the
+ * event dispatch thread. A dialog created by createMultiDialog edits many objects at once, showing
+ * the fields common to all of them and a mixed marker where their values differ. Typing in the
+ * filter box below the value field lists the fields of every category whose name or category
+ * contains the typed text, found through an EditableFieldIndex.
  * @author Jordan Glanfield
  */
 public class PropertiesDialog extends Dialog {
@@ -30,17 +44,28 @@ public class PropertiesDialog extends Dialog {
   private static final int LIST_PADDING = 35;
   private static final int FIELD_WIDTH = 80;
   private static final int FIELD_HEIGHT = 20;
+  private static final int FIELD_SPACING = 10;
   
   private List categories = new List(1, false);
   private Map<String, java.util.List<EditableField>> categoryProperties;
-  private Map<String, List> categoryLists;
-  private List activeList;
+  private Map<String, Component> categoryLists = new LinkedHashMap<>();
+  private Component activeList;
+  private java.util.List<EditableField> activeProperties;
+  private Component filterList;
+  private EditableFieldIndex fieldIndex;
+  private EscapeKeyListener escapeKeyListener = new EscapeKeyListener();
   private TextField valueField = new TextField(50);
+  private TextField filterField = new TextField(50);
 
   private EditableField selectedProperty;
   private Object object;
+  private EditableSelection selection;
   private ParsingFunctionsMap parsingFunctions;
+  private EditHistory editHistory;
+  private EditStage editStage;
+  private Executor backgroundExecutor;
   private boolean bComplexProperty = false;
+  private boolean bValueLoaded = true;
 
   /**
    * @param owner the frame owning this dialog.
@@ -60,6 +85,29 @@ public class PropertiesDialog extends Dialog {
     initialise(object, parsingFunctions, categoryProperties);
   }
 
+  /**
+   * Creates a dialog in virtual mode, reading values and discovering the schemas of complex
+   * properties on the given executor.
+   * @param backgroundExecutor the executor for work kept off the event dispatch thread, or null
+   * to do all work on the calling thread.
+   */
+  public PropertiesDialog(Frame owner, String title, boolean modal, Object object,
+      ParsingFunctionsMap parsingFunctions,
+      Map<String, java.util.List<EditableField>> categoryProperties, Executor backgroundExecutor) {
+    super(owner, title, modal);
+
+    this.backgroundExecutor = backgroundExecutor;
+    initialise(object, parsingFunctions, categoryProperties);
+  }
+
+  private PropertiesDialog(Frame owner, String title, boolean modal,
+      EditableSelection selection, ParsingFunctionsMap parsingFunctions) {
+    super(owner, title, modal);
+
+    this.selection = selection;
+    initialise(null, parsingFunctions, selection.getPropertyGroups());
+  }
+
   public PropertiesDialog(Frame owner, String title, boolean modal, Object object,
       ParsingFunctionsMap parsingFunctions) {
     this(owner, title, modal, object, parsingFunctions,
@@ -98,8 +146,6 @@ public class PropertiesDialog extends Dialog {
       }
     });
 
-    EscapeKeyListener escapeKeyListener = new EscapeKeyListener();
-
     this.categoryProperties = categoryProperties;
 
     categories.setLocation(LIST_PADDING, LIST_PADDING);
@@ -108,34 +154,16 @@ public class PropertiesDialog extends Dialog {
     categories.addKeyListener(escapeKeyListener);
     add(categories);
 
-    categoryLists = new LinkedHashMap<>();
-
-    for (Map.Entry<String, java.util.List<EditableField>> entry :
-        categoryProperties.entrySet()) {
-      String categoryName = entry.getKey();
-
+    for (String categoryName : categoryProperties.keySet()) {
       categories.add(categoryName);
-
-      List list = new List(1, false);
-      categoryLists.put(categoryName, list);
-
-      for (EditableField property : entry.getValue()) {
-        list.add(property.toString());
-      }
-
-      list.setLocation(2 * LIST_PADDING + CATEGORY_LIST_WIDTH, LIST_PADDING);
-      list.setSize(PROPERTIES_LIST_WIDTH, HEIGHT - 2 * LIST_PADDING);
-      list.setVisible(false);
-      list.addItemListener(new PropertiesListManager(list));
-      list.addKeyListener(escapeKeyListener);
-      add(list);
-
-      addKeyListener(escapeKeyListener);
     }
 
+    addKeyListener(escapeKeyListener);
+
     if (categories.getItemCount() > 0) {
       categories.select(0);
-      activeList = categoryLists.get(categories.getItem(0));
+      activeList = getCategoryList(categories.getItem(0));
+      activeProperties = categoryProperties.get(categories.getItem(0));
       activeList.setVisible(true);
     }
 
@@ -145,6 +173,32 @@ public class PropertiesDialog extends Dialog {
     valueField.addActionListener(new ValueFieldManager());
     valueField.addKeyListener(escapeKeyListener);
     add(valueField);
+
+    filterField.setLocation(3 * LIST_PADDING + CATEGORY_LIST_WIDTH + PROPERTIES_LIST_WIDTH,
+        LIST_PADDING + FIELD_HEIGHT + FIELD_SPACING);
+    filterField.setSize(FIELD_WIDTH, FIELD_HEIGHT);
+    filterField.addTextListener(new FilterFieldManager());
+    filterField.addKeyListener(escapeKeyListener);
+    add(filterField);
+  }
+
+  /**
+   * Sets the history that edits made through this dialog, and any dialogs it opens for complex
+   * properties, are recorded in. Edits are not recorded if the history is null.
+   */
+  public void setEditHistory(EditHistory editHistory) {
+    this.editHistory = editHistory;
+  }
+
+  /**
+   * Sets the stage that edits made through this dialog, and any dialogs it opens for complex
+   * properties, are staged on instead of being written directly. An edit of several objects is
+   * staged as one batch. The thread owning the objects then applies them with EditStage.apply,
+   * recording them in a history of its own if wanted. Edits are written directly if the stage is
+   * null.
+   */
+  public void setEditStage(EditStage editStage) {
+    this.editStage = editStage;
   }
 
   /**
@@ -156,64 +210,239 @@ public class PropertiesDialog extends Dialog {
   }
   
   private void setActiveList() {
-    activeList.setVisible(false);
-    activeList = categoryLists.get(categories.getSelectedItem());
+    String category = categories.getSelectedItem();
+
+    if (category != null) {
+      showList(getCategoryList(category), categoryProperties.get(category));
+    }
+  }
+
+  /**
+   * Lists the fields whose name or category contains the filter text, or the fields of the
+   * selected category if the filter is empty.
+   */
+  private void setFilteredList() {
+    String query = filterField.getText();
+
+    if (query.trim().isEmpty()) {
+      setActiveList();
+      return;
+    }
+
+    java.util.List<EditableField> matches = getFieldIndex().search(query);
+
+    if (filterList == null) {
+      filterList = createFieldList(matches);
+    } else if (filterList instanceof VirtualFieldList) {
+      ((VirtualFieldList) filterList).setFields(matches);
+    } else {
+      List awtList = (List) filterList;
+      awtList.removeAll();
+
+      for (EditableField property : matches) {
+        awtList.add(property.toString());
+      }
+    }
+
+    showList(filterList, matches);
+  }
+
+  private void showList(Component list, java.util.List<EditableField> properties) {
+    // Apply any edit of the selected property before its value is cleared along with the list.
+    setPropertyValue();
+    selectedProperty = null;
+
+    if (activeList != null) {
+      activeList.setVisible(false);
+    }
+
+    activeList = list;
+    activeProperties = properties;
     activeList.setVisible(true);
     valueField.setText("");
   }
+
+  /**
+   * Returns the index of the dialog's fields, using the schema's own index when the dialog shows
+   * every editable field of the object.
+   */
+  private EditableFieldIndex getFieldIndex() {
+    if (fieldIndex == null) {
+      if (object != null && categoryProperties == EditablePropertyUtils.getPropertyGroups(object)) {
+        fieldIndex = EditablePropertyUtils.getSchema(object.getClass()).getFieldIndex();
+      } else {
+        java.util.List<EditableField> properties = new java.util.ArrayList<>();
+
+        for (java.util.List<EditableField> categoryFields : categoryProperties.values()) {
+          properties.addAll(categoryFields);
+        }
+
+        fieldIndex = new EditableFieldIndex(properties);
+      }
+    }
+
+    return fieldIndex;
+  }
+
+  /**
+   * Returns the list of fields for the category, building it if the category has not been shown.
+   */
+  private Component getCategoryList(String category) {
+    Component list = categoryLists.get(category);
+
+    if (list != null) {
+      return list;
+    }
+
+    list = createFieldList(categoryProperties.get(category));
+    categoryLists.put(category, list);
+    return list;
+  }
+
+  private Component createFieldList(java.util.List<EditableField> properties) {
+    Component list;
+
+    if (backgroundExecutor != null) {
+      VirtualFieldList virtualList = new VirtualFieldList(properties);
+      virtualList.addItemListener(new PropertiesListManager());
+      list = virtualList;
+    } else {
+      List awtList = new List(1, false);
+
+      for (EditableField property : properties) {
+        awtList.add(property.toString());
+      }
+
+      awtList.addItemListener(new PropertiesListManager());
+      list = awtList;
+    }
+
+    list.setLocation(2 * LIST_PADDING + CATEGORY_LIST_WIDTH, LIST_PADDING);
+    list.setSize(PROPERTIES_LIST_WIDTH, HEIGHT - 2 * LIST_PADDING);
+    list.setVisible(false);
+    list.addKeyListener(escapeKeyListener);
+    add(list);
+    return list;
+  }
+
+  private int getSelectedIndex() {
+    if (activeList instanceof VirtualFieldList) {
+      return ((VirtualFieldList) activeList).getSelectedIndex();
+    } else {
+      return ((List) activeList).getSelectedIndex();
+    }
+  }
   
   private void loadValueField() {
     if (selectedProperty != null) {
-      if (bComplexProperty) {
+      if (selection != null) {
+        if (bComplexProperty) {
+          java.util.List<Object> values = selection.getDistinctValues(selectedProperty);
+
+          if (!values.isEmpty()) {
+            showNestedDialog(createMultiDialog((Frame) getParent(),
+                selectedProperty.getName(), isModal(), values, parsingFunctions));
+          }
+        } else {
+          valueField.setText(selection.load(selectedProperty));
+        }
+      } else if (bComplexProperty) {
         Object value = selectedProperty.getFieldValueChecked(object);
         
         if (value != null) {
-          PropertiesDialog newDialog = createDialog((Frame) getParent(),
-              selectedProperty.getField().getName(),
-              isModal(),
-              value,
-              parsingFunctions);
-          
-          PropertiesDialog thisDialog = this;
-
-          if (newDialog != null) {
-            newDialog.addWindowListener(new WindowAdapter() {
-              @Override
-              public void windowClosed(WindowEvent e) {
-                thisDialog.requestFocus();
-              }
-            });
-            
-            newDialog.setVisible(true);
+          if (backgroundExecutor != null) {
+            createDialogAsync((Frame) getParent(), selectedProperty.getName(),
+                isModal(), value, parsingFunctions, backgroundExecutor)
+                .thenAccept(this::showNestedDialog);
+          } else {
+            showNestedDialog(createDialog((Frame) getParent(),
+                selectedProperty.getName(),
+                isModal(),
+                value,
+                parsingFunctions));
           }
         }
+      } else if (backgroundExecutor != null) {
+        EditableField property = selectedProperty;
+        bValueLoaded = false;
+        valueField.setText("");
+
+        backgroundExecutor.execute(() -> {
+          Object value = property.getFieldValueChecked(object);
+          String text = parsingFunctions.format(value);
+
+          EventQueue.invokeLater(() -> {
+            if (selectedProperty == property && !bValueLoaded) {
+              valueField.setText(text);
+              bValueLoaded = true;
+            }
+          });
+        });
       } else {
-        valueField.setText(selectedProperty.getFieldValueChecked(object).toString());
+        valueField.setText(parsingFunctions.format(selectedProperty.getFieldValueChecked(object)));
       }
     } else {
       valueField.setText("");
     }
   }
   
+  private void showNestedDialog(PropertiesDialog newDialog) {
+    PropertiesDialog thisDialog = this;
+
+    if (newDialog != null) {
+      newDialog.setEditHistory(editHistory);
+      newDialog.setEditStage(editStage);
+      newDialog.addWindowListener(new WindowAdapter() {
+        @Override
+        public void windowClosed(WindowEvent e) {
+          thisDialog.requestFocus();
+        }
+      });
+
+      newDialog.setVisible(true);
+    }
+  }
+
   private void setPropertyValue() {
-    if (selectedProperty != null && !bComplexProperty) {
+    // A value still being read in virtual mode has not been shown, so there is nothing to apply.
+    if (selectedProperty != null && !bComplexProperty && bValueLoaded && selection != null) {
+      String text = valueField.getText();
+
+      // Leaving the shown value untouched, mixed or not, writes nothing to the targets.
+      if (!text.equals(selection.getText())) {
+        if (editStage == null) {
+          selection.apply(selectedProperty, text, editHistory);
+          valueField.setText(selection.getText());
+        } else if (!selection.stage(selectedProperty, text, editStage)) {
+          valueField.setText(selection.getText());
+        }
+      }
+    } else if (selectedProperty != null && !bComplexProperty && bValueLoaded) {
       Object oldValue = selectedProperty.getFieldValueChecked(object);
       boolean bSuccess;
-      try {
-        bSuccess = selectedProperty.setFieldValue(object, valueField.getText(), parsingFunctions);
-      } catch (RuntimeException e) {
-        bSuccess = false;
+      if (editStage != null) {
+        bSuccess = editStage.stageFieldValue(selectedProperty, object, valueField.getText(),
+            parsingFunctions);
+      } else if (editHistory != null) {
+        EditTransaction transaction = editHistory.begin();
+        transaction.setFieldValue(selectedProperty, object, valueField.getText(), parsingFunctions);
+        bSuccess = transaction.commit();
+      } else {
+        try {
+          bSuccess = selectedProperty.setFieldValue(object, valueField.getText(), parsingFunctions);
+        } catch (RuntimeException e) {
+          bSuccess = false;
+        }
       }
 
       if (!bSuccess) {
-        valueField.setText(oldValue.toString());
+        valueField.setText(parsingFunctions.format(oldValue));
       }
     }
   }
   
   public void setSelectedProperty() {
-    selectedProperty =
-        categoryProperties.get(categories.getSelectedItem()).get(activeList.getSelectedIndex());
+    selectedProperty = activeProperties.get(getSelectedIndex());
     Field field = selectedProperty.getField();
     bComplexProperty = !parsingFunctions.canParse(field.getType()) && !selectedProperty.isEnumValue();
     loadValueField();
@@ -235,6 +464,37 @@ public class PropertiesDialog extends Dialog {
     }
   }
 
+  /**
+   * Attempts to create a properties dialog editing all of the given objects together, returning
+   * the dialog if their schemas share any editable fields or null if not. Values entered are
+   * parsed once and written to every object in a batch, in parallel for large selections.
+   */
+  public static PropertiesDialog createMultiDialog(Frame owner, String title, boolean modal,
+      Collection<?> objects, ParsingFunctionsMap parsingFunctions) {
+    EditableSelection selection = new EditableSelection(objects, parsingFunctions);
+
+    if (selection.getPropertyGroups().isEmpty()) {
+      return null;
+    } else {
+      return new PropertiesDialog(owner, title, modal, selection, parsingFunctions);
+    }
+  }
+
+  /**
+   * As createDialog, but discovers the object's editable fields on the given executor and then
+   * creates the dialog in virtual mode on the event dispatch thread. The returned future
+   * completes with null if there are no valid categories for the object.
+   */
+  public static CompletableFuture<PropertiesDialog> createDialogAsync(Frame owner, String title,
+      boolean modal, Object object, ParsingFunctionsMap parsingFunctions,
+      Executor backgroundExecutor) {
+    return CompletableFuture
+        .supplyAsync(() -> EditablePropertyUtils.getPropertyGroups(object), backgroundExecutor)
+        .thenApplyAsync((categoryProperties) -> categoryProperties.isEmpty() ? null
+            : new PropertiesDialog(owner, title, modal, object, parsingFunctions,
+                categoryProperties, backgroundExecutor), EventQueue::invokeLater);
+  }
+
   private class EscapeKeyListener extends KeyAdapter {
 
     @Override
@@ -249,26 +509,34 @@ public class PropertiesDialog extends Dialog {
 
     @Override
     public void itemStateChanged(ItemEvent e) {
+      // Choosing a category clears the filter.
+      if (!filterField.getText().isEmpty()) {
+        filterField.setText("");
+      }
+
       setActiveList();
     }
   }
   
   private class PropertiesListManager implements ItemListener {
-    private List list;
-    
-    public PropertiesListManager(List list) {
-      this.list = list;
-    }
 
     @Override
     public void itemStateChanged(ItemEvent e) {
-      if (activeList.getSelectedItem() != null) {
+      if (getSelectedIndex() >= 0) {
         setPropertyValue();
       }
       setSelectedProperty();
     }
   }
 
+  private class FilterFieldManager implements TextListener {
+
+    @Override
+    public void textValueChanged(TextEvent e) {
+      setFilteredList();
+    }
+  }
+
   private class ValueFieldManager implements ActionListener {
 
     @Override
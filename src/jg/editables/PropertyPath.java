@@ -0,0 +1,361 @@
+package jg.editables;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A dotted path of editable field names, such as "transform.position.x", compiled against a root
+ * class into the chain of editable fields it passes through. Each segment is looked up in the
+ * schema of the declared type of the previous field, so the first editable field with that name
+ * is used, matching the schema order. Where a declared type that is not final, such as an
+ * interface or superclass, lacks the next field, the rest of the path is compiled against the
+ * runtime class of each value reached there instead. The reads of the intermediate fields are
+ * composed into a single method handle when the path is compiled. Compiled paths are cached per
+ * root class. Reads return null, or the given default for primitives, and writes fail if an
+ * intermediate value is null.
+ * @author Jordan Glanfield
+ */
+public final class PropertyPath {
+
+  private static final MethodHandle IS_NULL = findIsNull();
+
+  private static final ClassValue<Map<String, PropertyPath>> PATHS =
+      new ClassValue<Map<String, PropertyPath>>() {
+        @Override
+        protected Map<String, PropertyPath> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private final Class<?> rootClass;
+  private final String path;
+  private final EditableField leaf;
+
+  // Reads every field but the leaf, or every field if the rest of the path is compiled against
+  // runtime classes, of type (Object)Object and returning null once a value is null.
+  private final MethodHandle targetHandle;
+  private final String remainder;
+
+  private PropertyPath(Class<?> rootClass, String path, EditableField[] fields,
+      String remainder) {
+    this.rootClass = rootClass;
+    this.path = path;
+    this.remainder = remainder;
+    leaf = remainder == null ? fields[fields.length - 1] : null;
+
+    MethodHandle handle = MethodHandles.identity(Object.class);
+    int count = remainder == null ? fields.length - 1 : fields.length;
+
+    for (int i = 0; i < count; i++) {
+      MethodHandle read = fields[i].getReadHandle();
+      MethodHandle orNull = MethodHandles.identity(Object.class);
+      handle = MethodHandles.filterReturnValue(handle,
+          MethodHandles.guardWithTest(IS_NULL, orNull, read));
+    }
+
+    targetHandle = handle;
+  }
+
+  private static MethodHandle findIsNull() {
+    try {
+      return MethodHandles.lookup().findStatic(Objects.class, "isNull",
+          MethodType.methodType(boolean.class, Object.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns the compiled path for the given root class and dotted path.
+   * @throws IllegalArgumentException if the root class has no editable field named by the first
+   *     segment, or a later segment names no editable field of a final declared type.
+   */
+  public static PropertyPath compile(Class<?> rootClass, String path) {
+    Map<String, PropertyPath> paths = PATHS.get(rootClass);
+    PropertyPath compiled = paths.get(path);
+
+    if (compiled == null) {
+      compiled = paths.computeIfAbsent(path, (key) -> resolve(rootClass, key));
+    }
+
+    return compiled;
+  }
+
+  private static PropertyPath resolve(Class<?> rootClass, String path) {
+    String[] names = path.split("\\.", -1);
+    EditableField[] fields = new EditableField[names.length];
+    Class<?> current = rootClass;
+
+    for (int i = 0; i < names.length; i++) {
+      fields[i] = findField(current, names[i]);
+
+      if (fields[i] == null && i > 0 && isExtensible(current)) {
+        // A subclass or implementation may declare the field, so look for it at runtime.
+        String remainder = String.join(".", Arrays.asList(names).subList(i, names.length));
+        return new PropertyPath(rootClass, path, Arrays.copyOf(fields, i), remainder);
+      } else if (fields[i] == null) {
+        throw new IllegalArgumentException("No editable field " + names[i] + " in "
+            + current.getName() + " for path " + path);
+      }
+
+      current = fields[i].getType();
+    }
+
+    return new PropertyPath(rootClass, path, fields, null);
+  }
+
+  private static boolean isExtensible(Class<?> clazz) {
+    return !clazz.isPrimitive() && !clazz.isArray() && !Modifier.isFinal(clazz.getModifiers());
+  }
+
+  private static EditableField findField(Class<?> clazz, String name) {
+    if (clazz.isPrimitive() || clazz.isArray()) {
+      return null;
+    }
+
+    EditableSchema schema = EditablePropertyUtils.getSchema(clazz);
+
+    for (int i = 0; i < schema.getFieldCount(); i++) {
+      if (schema.getField(i).getName().equals(name)) {
+        return schema.getField(i);
+      }
+    }
+
+    return null;
+  }
+
+  // Getters
+
+  /**
+   * Returns the class the path was compiled against.
+   */
+  public Class<?> getRootClass() {
+    return rootClass;
+  }
+
+  /**
+   * Returns the dotted path.
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Returns the editable field the path ends in, or null if it is resolved against the runtime
+   * class of an intermediate value, see getLeafField(Object).
+   */
+  public EditableField getLeafField() {
+    return leaf;
+  }
+
+  /**
+   * Returns the editable field the path ends in when followed from the given root, or null if
+   * any value along the way is null.
+   */
+  public EditableField getLeafField(Object root) {
+    if (remainder == null) {
+      return leaf;
+    }
+
+    Object target = readTarget(root);
+    return target == null ? null : tail(target).getLeafField(target);
+  }
+
+  /**
+   * Returns the object owning the leaf field, reached by following every segment but the last
+   * from the root, or null if any value along the way is null.
+   */
+  public Object getTarget(Object root) {
+    Object target = readTarget(root);
+    return target == null || remainder == null ? target : tail(target).getTarget(target);
+  }
+
+  private Object readTarget(Object root) {
+    try {
+      return (Object) targetHandle.invokeExact(root);
+    } catch (ClassCastException e) {
+      throw new IllegalArgumentException("Cannot follow " + this + " from " + root, e);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Returns the rest of the path compiled against the runtime class of the given value.
+   */
+  private PropertyPath tail(Object target) {
+    return compile(target.getClass(), remainder);
+  }
+
+  // Access
+
+  /**
+   * Returns the value at the end of the path, or null if it or any value along the way is null.
+   */
+  public Object get(Object root) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return null;
+    }
+
+    return remainder == null ? leaf.getFieldValueChecked(target) : tail(target).get(target);
+  }
+
+  /**
+   * Applies the given value to the leaf field as EditableField.setValue.
+   * @return true if successful and false if not, including when a value along the way is null.
+   */
+  public boolean set(Object root, Object value) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return false;
+    }
+
+    return remainder == null ? leaf.setValue(target, value) : tail(target).set(target, value);
+  }
+
+  /**
+   * Parses the string and applies it to the leaf field as EditableField.setFieldValue.
+   * @return true if successful and false if not, including when a value along the way is null.
+   */
+  public boolean setFieldValue(Object root, String string, ParsingFunctionsMap parsingFunctions) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return false;
+    } else if (remainder != null) {
+      return tail(target).setFieldValue(target, string, parsingFunctions);
+    }
+
+    return leaf.setFieldValue(target, string, parsingFunctions);
+  }
+
+  /**
+   * Returns the value of the int leaf field, or the default if a value along the way is null.
+   */
+  public int getInt(Object root, int defaultValue) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return defaultValue;
+    }
+
+    return remainder == null ? leaf.getInt(target) : tail(target).getInt(target, defaultValue);
+  }
+
+  /**
+   * Applies the value to the int leaf field without boxing.
+   * @return true if successful and false if not, including when a value along the way is null.
+   */
+  public boolean setInt(Object root, int value) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return false;
+    }
+
+    return remainder == null ? leaf.setInt(target, value) : tail(target).setInt(target, value);
+  }
+
+  /**
+   * Returns the value of the long leaf field, or the default if a value along the way is null.
+   */
+  public long getLong(Object root, long defaultValue) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return defaultValue;
+    }
+
+    return remainder == null ? leaf.getLong(target) : tail(target).getLong(target, defaultValue);
+  }
+
+  /**
+   * Applies the value to the long leaf field without boxing.
+   * @return true if successful and false if not, including when a value along the way is null.
+   */
+  public boolean setLong(Object root, long value) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return false;
+    }
+
+    return remainder == null ? leaf.setLong(target, value) : tail(target).setLong(target, value);
+  }
+
+  /**
+   * Returns the value of the float leaf field, or the default if a value along the way is null.
+   */
+  public float getFloat(Object root, float defaultValue) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return defaultValue;
+    }
+
+    return remainder == null ? leaf.getFloat(target)
+        : tail(target).getFloat(target, defaultValue);
+  }
+
+  /**
+   * Applies the value to the float leaf field without boxing.
+   * @return true if successful and false if not, including when a value along the way is null.
+   */
+  public boolean setFloat(Object root, float value) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return false;
+    }
+
+    return remainder == null ? leaf.setFloat(target, value)
+        : tail(target).setFloat(target, value);
+  }
+
+  /**
+   * Returns the value of the double leaf field, or the default if a value along the way is null.
+   */
+  public double getDouble(Object root, double defaultValue) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return defaultValue;
+    }
+
+    return remainder == null ? leaf.getDouble(target)
+        : tail(target).getDouble(target, defaultValue);
+  }
+
+  /**
+   * Applies the value to the double leaf field without boxing.
+   * @return true if successful and false if not, including when a value along the way is null.
+   */
+  public boolean setDouble(Object root, double value) {
+    Object target = readTarget(root);
+
+    if (target == null) {
+      return false;
+    }
+
+    return remainder == null ? leaf.setDouble(target, value)
+        : tail(target).setDouble(target, value);
+  }
+
+  // Miscellaneous
+
+  @Override
+  public String toString() {
+    return rootClass.getSimpleName() + "." + path;
+  }
+}
@@ -2,7 +2,7 @@ package jg.editables;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
@@ -16,7 +16,7 @@ public class ReflectionUtils {
    * Returns a list of all fields in the class and its superclasses. 
    */
   public static List<Field> getAllDeclaredFields(Class<?> clazz) {
-    List<Field> fields = new LinkedList<>();
+    List<Field> fields = new ArrayList<>();
     Class<?> current = clazz;
     
     while (current != null) {
@@ -0,0 +1,86 @@
+package jg.editables;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and framing shared by EditableTuningServer and EditableTuningClient.
+ *
+ * Every message is a frame made up of a big endian int length followed by that many bytes of
+ * payload. A payload starts with a one byte opcode and an int request id chosen by the client, and
+ * strings within it are written as by DataOutput.writeUTF. Requests are:
+ * <ul>
+ *   <li>LIST root: answered with the status, an int field count and then the category, name and
+ *   type name of each field in schema order.</li>
+ *   <li>GET root, int count, count int field indices: answered with the status, the count and
+ *   each value as a boolean presence flag followed, if present, by its text.</li>
+ *   <li>SET root, int count, count pairs of int field index and value text: answered with the
+ *   status, the count and a bitmap of (count + 7) / 8 bytes with a bit set for each write that
+ *   was staged.</li>
+ *   <li>SUBSCRIBE root: answered with the status. Later writes through EditableField to the root
+ *   are sent as EVENT frames carrying the subscribing request's id, the int field index and the
+ *   value as for GET.</li>
+ *   <li>UNSUBSCRIBE int subscription id: answered with the status.</li>
+ * </ul>
+ * Responses repeat the request's opcode and id and are sent in request order, so requests may be
+ * pipelined without waiting for earlier responses.
+ * @author Jordan Glanfield
+ */
+final class TuningProtocol {
+
+  static final int MAX_FRAME_LENGTH = 1 << 20;
+
+  static final byte LIST = 1;
+  static final byte GET = 2;
+  static final byte SET = 3;
+  static final byte SUBSCRIBE = 4;
+  static final byte UNSUBSCRIBE = 5;
+  static final byte EVENT = 6;
+
+  static final byte OK = 0;
+  static final byte UNKNOWN_ROOT = 1;
+  static final byte BAD_REQUEST = 2;
+
+  private TuningProtocol() {
+  }
+
+  /**
+   * Builds one frame, leaving room for the length which is filled in by toBuffer.
+   */
+  static final class FrameBuilder extends ByteArrayOutputStream {
+    final DataOutputStream data = new DataOutputStream(this);
+    private final int requestId;
+
+    FrameBuilder(byte opcode, int requestId) {
+      super(64);
+      this.requestId = requestId;
+      count = 4;
+      write(opcode);
+      writeInt(requestId);
+    }
+
+    private void writeInt(int value) {
+      write(value >>> 24);
+      write(value >>> 16);
+      write(value >>> 8);
+      write(value);
+    }
+
+    int getRequestId() {
+      return requestId;
+    }
+
+    /**
+     * Returns the frame ready to be written, with its length filled in.
+     */
+    ByteBuffer toBuffer() {
+      int length = count - 4;
+      buf[0] = (byte) (length >>> 24);
+      buf[1] = (byte) (length >>> 16);
+      buf[2] = (byte) (length >>> 8);
+      buf[3] = (byte) length;
+      return ByteBuffer.wrap(buf, 0, count);
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package jg.editables;
+
+import java.awt.AWTEventMulticaster;
+import java.awt.BorderLayout;
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.ItemSelectable;
+import java.awt.Panel;
+import java.awt.Scrollbar;
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.List;
+
+/**
+ * A single selection list of editable fields that only paints the rows currently scrolled into
+ * view, so that showing thousands of fields costs no more than showing a screenful. Used by
+ * PropertiesDialog in place of java.awt.List when running in virtual mode.
+ * @author Jordan Glanfield
+ */
+class VirtualFieldList extends Panel implements ItemSelectable {
+  private static final long serialVersionUID = 1L;
+
+  private static final int ROW_PADDING = 2;
+  private static final Color SELECTION_COLOR = new Color(51, 153, 255);
+
+  private final Rows rows = new Rows();
+  private final Scrollbar scrollbar = new Scrollbar(Scrollbar.VERTICAL);
+  private List<EditableField> fields;
+  private int selectedIndex = -1;
+  private ItemListener itemListener;
+
+  VirtualFieldList(List<EditableField> fields) {
+    this.fields = fields;
+
+    setLayout(new BorderLayout());
+    add(rows, BorderLayout.CENTER);
+    add(scrollbar, BorderLayout.EAST);
+
+    scrollbar.addAdjustmentListener((e) -> rows.repaint());
+    rows.addMouseListener(new MouseAdapter() {
+      @Override
+      public void mousePressed(MouseEvent e) {
+        rows.requestFocus();
+        select(scrollbar.getValue() + e.getY() / getRowHeight());
+      }
+    });
+    rows.addMouseWheelListener((MouseWheelEvent e) ->
+        scrollbar.setValue(scrollbar.getValue() + e.getWheelRotation() * 3));
+    rows.addKeyListener(new KeyAdapter() {
+      @Override
+      public void keyPressed(KeyEvent e) {
+        if (e.getKeyCode() == KeyEvent.VK_DOWN) {
+          select(selectedIndex + 1);
+        } else if (e.getKeyCode() == KeyEvent.VK_UP) {
+          select(selectedIndex - 1);
+        }
+      }
+    });
+  }
+
+  /**
+   * Replaces the listed fields, clearing the selection.
+   */
+  void setFields(List<EditableField> fields) {
+    this.fields = fields;
+    selectedIndex = -1;
+    scrollbar.setValue(0);
+    updateScrollbar();
+    rows.repaint();
+  }
+
+  /**
+   * Returns the index of the selected row or -1 if there is none.
+   */
+  int getSelectedIndex() {
+    return selectedIndex;
+  }
+
+  private void select(int index) {
+    if (index < 0 || index >= fields.size() || index == selectedIndex) {
+      return;
+    }
+
+    selectedIndex = index;
+    int visibleRows = getVisibleRowCount();
+
+    if (index < scrollbar.getValue()) {
+      scrollbar.setValue(index);
+    } else if (index >= scrollbar.getValue() + visibleRows) {
+      scrollbar.setValue(index - visibleRows + 1);
+    }
+
+    rows.repaint();
+
+    if (itemListener != null) {
+      itemListener.itemStateChanged(new ItemEvent(this, ItemEvent.ITEM_STATE_CHANGED,
+          fields.get(index), ItemEvent.SELECTED));
+    }
+  }
+
+  private int getRowHeight() {
+    FontMetrics metrics = rows.getFontMetrics(rows.getFont());
+    return metrics == null ? 16 : metrics.getHeight() + ROW_PADDING;
+  }
+
+  private int getVisibleRowCount() {
+    return Math.max(1, rows.getHeight() / getRowHeight());
+  }
+
+  private void updateScrollbar() {
+    int visibleRows = getVisibleRowCount();
+    scrollbar.setValues(Math.min(scrollbar.getValue(), Math.max(0, fields.size() - visibleRows)),
+        visibleRows, 0, Math.max(fields.size(), visibleRows));
+  }
+
+  @Override
+  public void doLayout() {
+    super.doLayout();
+    updateScrollbar();
+  }
+
+  @Override
+  public synchronized void addKeyListener(KeyListener listener) {
+    rows.addKeyListener(listener);
+  }
+
+  // ItemSelectable
+
+  @Override
+  public Object[] getSelectedObjects() {
+    return selectedIndex < 0 ? null : new Object[] {fields.get(selectedIndex)};
+  }
+
+  @Override
+  public void addItemListener(ItemListener listener) {
+    itemListener = AWTEventMulticaster.add(itemListener, listener);
+  }
+
+  @Override
+  public void removeItemListener(ItemListener listener) {
+    itemListener = AWTEventMulticaster.remove(itemListener, listener);
+  }
+
+  private class Rows extends Canvas {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void paint(Graphics g) {
+      int rowHeight = getRowHeight();
+      int first = scrollbar.getValue();
+      int last = Math.min(fields.size(), first + getHeight() / rowHeight + 1);
+      FontMetrics metrics = g.getFontMetrics();
+
+      for (int i = first; i < last; i++) {
+        int y = (i - first) * rowHeight;
+
+        if (i == selectedIndex) {
+          g.setColor(SELECTION_COLOR);
+          g.fillRect(0, y, getWidth(), rowHeight);
+          g.setColor(Color.WHITE);
+        } else {
+          g.setColor(Color.BLACK);
+        }
+
+        g.drawString(fields.get(i).toString(), ROW_PADDING, y + metrics.getAscent() + 1);
+      }
+    }
+  }
+}
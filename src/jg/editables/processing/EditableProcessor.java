@@ -0,0 +1,404 @@
+package jg.editables.processing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import jg.editables.Editable;
+import jg.editables.EditableAccessors;
+import jg.editables.EditableClassIndex;
+
+/**
+ * Optional annotation processor that generates an implementation of EditableAccessors for every
+ * class declaring editable fields. The generated class lives in the same package, is named after
+ * the class with EditableAccessors.CLASS_SUFFIX appended and reads and writes non-private fields
+ * directly, calling the configured setter where it is accessible. Enable it by passing
+ * "-processor jg.editables.processing.EditableProcessor" to javac. It also writes the index read by
+ * EditableClassIndex, listing every class declaring editable fields along with their categories
+ * and names. Entries from an earlier index in the output directory are kept for classes that still
+ * exist and were not compiled again, so incremental compilation does not lose them, while the
+ * entries of recompiled classes are replaced or, if they no longer declare editable fields,
+ * dropped. As javac only runs the processor when some compiled source uses Editable, a clean build
+ * is needed to drop the entries of classes that lose their editable fields in a compilation
+ * where no other source uses it.
+ * @author Jordan Glanfield
+ */
+@SupportedAnnotationTypes("jg.editables.Editable")
+public class EditableProcessor extends AbstractProcessor {
+
+  private final Map<String, String> indexEntries = new LinkedHashMap<>();
+  private final Set<String> compiledTypes = new HashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    Map<TypeElement, List<VariableElement>> editableFields = new LinkedHashMap<>();
+    addCompiledTypes(ElementFilter.typesIn(roundEnv.getRootElements()));
+
+    for (Element element : roundEnv.getElementsAnnotatedWith(Editable.class)) {
+      if (element.getKind() == ElementKind.FIELD) {
+        TypeElement type = (TypeElement) element.getEnclosingElement();
+        editableFields.computeIfAbsent(type, (key) -> new ArrayList<>());
+      }
+    }
+
+    for (TypeElement type : editableFields.keySet()) {
+      // Use declaration order rather than the order elements were reported in.
+      for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+        if (field.getAnnotation(Editable.class) != null) {
+          editableFields.get(type).add(field);
+        }
+      }
+
+      if (type.getNestingKind() != NestingKind.LOCAL
+          && type.getNestingKind() != NestingKind.ANONYMOUS) {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        indexEntries.put(binaryName, getIndexEntry(binaryName, type, editableFields.get(type)));
+      }
+
+      if (!isAccessibleFromPackage(type)) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+            "Editable accessors not generated for inaccessible type", type);
+      } else {
+        try {
+          writeAccessors(type, editableFields.get(type));
+        } catch (IOException e) {
+          processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+              "Could not write editable accessors: " + e.getMessage(), type);
+        }
+      }
+    }
+
+    if (roundEnv.processingOver()) {
+      try {
+        writeIndex();
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+            "Could not write editable class index: " + e.getMessage());
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Records the binary names of the types compiled in this round along with their member types,
+   * whose earlier index entries are stale.
+   */
+  private void addCompiledTypes(Iterable<TypeElement> types) {
+    for (TypeElement type : types) {
+      compiledTypes.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+      addCompiledTypes(ElementFilter.typesIn(type.getEnclosedElements()));
+    }
+  }
+
+  /**
+   * Returns the index line for the type: its binary name, the binary name of its nearest
+   * superclass declaring editable fields or EditableClassIndex.NO_SUPERCLASS, then the category
+   * and name of each editable field, all separated by tabs.
+   */
+  private String getIndexEntry(String binaryName, TypeElement type,
+      List<VariableElement> fields) {
+    StringBuilder entry = new StringBuilder(binaryName).append('\t');
+    TypeElement ancestor = getEditableSuperclass(type);
+    entry.append(ancestor == null ? EditableClassIndex.NO_SUPERCLASS
+        : processingEnv.getElementUtils().getBinaryName(ancestor).toString());
+
+    for (VariableElement field : fields) {
+      entry.append('\t').append(field.getAnnotation(Editable.class).category())
+          .append('\t').append(field.getSimpleName());
+    }
+
+    return entry.toString();
+  }
+
+  private TypeElement getEditableSuperclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+
+    while (superclass.getKind() == TypeKind.DECLARED) {
+      TypeElement current = (TypeElement) ((DeclaredType) superclass).asElement();
+
+      for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+        if (field.getAnnotation(Editable.class) != null) {
+          return current;
+        }
+      }
+
+      superclass = current.getSuperclass();
+    }
+
+    return null;
+  }
+
+  private void writeIndex() throws IOException {
+    Map<String, String> entries = new LinkedHashMap<>();
+    boolean bEarlierIndex = false;
+
+    try {
+      FileObject existing = processingEnv.getFiler()
+          .getResource(StandardLocation.CLASS_OUTPUT, "", EditableClassIndex.RESOURCE);
+
+      try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+        String line;
+        bEarlierIndex = true;
+
+        while ((line = reader.readLine()) != null) {
+          String name = line.substring(0, Math.max(line.indexOf('\t'), 0));
+
+          // Classes deleted since the earlier build are dropped, as are those compiled again,
+          // which are indexed afresh if they still declare editable fields.
+          if (!name.isEmpty() && !compiledTypes.contains(name) && processingEnv.getElementUtils()
+              .getTypeElement(name.replace('$', '.')) != null) {
+            entries.put(name, line);
+          }
+        }
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      // There is no earlier index.
+    }
+
+    entries.putAll(indexEntries);
+
+    // An earlier index is rewritten even if empty so none of its entries are left behind.
+    if (entries.isEmpty() && !bEarlierIndex) {
+      return;
+    }
+
+    FileObject index = processingEnv.getFiler()
+        .createResource(StandardLocation.CLASS_OUTPUT, "", EditableClassIndex.RESOURCE);
+
+    try (Writer writer = index.openWriter()) {
+      for (String entry : entries.values()) {
+        writer.write(entry);
+        writer.write('\n');
+      }
+    }
+  }
+
+  private boolean isAccessibleFromPackage(TypeElement type) {
+    Element current = type;
+
+    while (current instanceof TypeElement) {
+      TypeElement currentType = (TypeElement) current;
+
+      if (currentType.getModifiers().contains(Modifier.PRIVATE)
+          || currentType.getNestingKind() == NestingKind.LOCAL
+          || currentType.getNestingKind() == NestingKind.ANONYMOUS) {
+        return false;
+      }
+
+      current = currentType.getEnclosingElement();
+    }
+
+    return true;
+  }
+
+  private void writeAccessors(TypeElement type, List<VariableElement> fields) throws IOException {
+    PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+    String packageName = packageElement.getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+    String simpleName = (packageName.isEmpty() ? binaryName
+        : binaryName.substring(packageName.length() + 1)) + EditableAccessors.CLASS_SUFFIX;
+    String typeName = erasure(type.asType());
+
+    StringBuilder names = new StringBuilder();
+    StringBuilder types = new StringBuilder();
+    StringBuilder setterNames = new StringBuilder();
+    StringBuilder categories = new StringBuilder();
+    StringBuilder readable = new StringBuilder();
+    StringBuilder writable = new StringBuilder();
+    StringBuilder getCases = new StringBuilder();
+    StringBuilder setCases = new StringBuilder();
+
+    for (int i = 0; i < fields.size(); i++) {
+      VariableElement field = fields.get(i);
+      Editable editable = field.getAnnotation(Editable.class);
+      String name = field.getSimpleName().toString();
+      String fieldType = erasure(field.asType());
+      boolean canGet = !field.getModifiers().contains(Modifier.PRIVATE);
+      boolean canSetDirectly = canGet && !field.getModifiers().contains(Modifier.FINAL);
+      ExecutableElement setter = findSetter(type, field, editable.setterName());
+      boolean canCallSetter = setter != null && isCallable(setter, packageElement);
+      String separator = i == 0 ? "" : ", ";
+
+      boolean bRequestsSetter = !Editable.NO_SETTER.equals(editable.setterName());
+
+      names.append(separator).append(constant(name));
+      types.append(separator).append(isAccessible(field.asType(), packageElement)
+          ? fieldType + ".class" : "null");
+      setterNames.append(separator).append(constant(editable.setterName()));
+      categories.append(separator).append(constant(editable.category()));
+      readable.append(separator).append(canGet);
+      // A setter that is missing or cannot be called from here is left to the reflective
+      // fallback, which resolves it against each subclass.
+      writable.append(separator).append(bRequestsSetter ? canCallSetter : canSetDirectly);
+
+      if (canGet) {
+        getCases.append("      case ").append(i).append(": return target.").append(name)
+            .append(";\n");
+      }
+
+      if (canCallSetter) {
+        setCases.append("      case ").append(i).append(": target.")
+            .append(setter.getSimpleName()).append("((").append(fieldType)
+            .append(") value); return;\n");
+      } else if (!bRequestsSetter && canSetDirectly) {
+        setCases.append("      case ").append(i).append(": target.").append(name)
+            .append(" = (").append(fieldType).append(") value; return;\n");
+      }
+    }
+
+    String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+    try (Writer writer = processingEnv.getFiler()
+        .createSourceFile(qualifiedName, type).openWriter()) {
+      if (!packageName.isEmpty()) {
+        writer.write("package " + packageName + ";\n\n");
+      }
+
+      writer.write("/**\n * Editable accessors for " + typeName
+          + ", generated by EditableProcessor.\n */\n");
+      writer.write("@SuppressWarnings({\"unchecked\", \"rawtypes\", \"static-access\"})\n");
+      writer.write("public final class " + simpleName
+          + " implements jg.editables.EditableAccessors {\n\n");
+      writer.write("  private static final String[] FIELD_NAMES = {" + names + "};\n");
+      writer.write("  private static final Class<?>[] FIELD_TYPES = {" + types + "};\n");
+      writer.write("  private static final String[] SETTER_NAMES = {" + setterNames + "};\n");
+      writer.write("  private static final String[] CATEGORIES = {" + categories + "};\n");
+      writer.write("  private static final boolean[] READABLE = {" + readable + "};\n");
+      writer.write("  private static final boolean[] WRITABLE = {" + writable + "};\n\n");
+      writer.write("  @Override\n  public String[] getFieldNames() {\n"
+          + "    return FIELD_NAMES.clone();\n  }\n\n");
+      writer.write("  @Override\n  public Class<?>[] getFieldTypes() {\n"
+          + "    return FIELD_TYPES.clone();\n  }\n\n");
+      writer.write("  @Override\n  public String[] getSetterNames() {\n"
+          + "    return SETTER_NAMES.clone();\n  }\n\n");
+      writer.write("  @Override\n  public String[] getCategories() {\n"
+          + "    return CATEGORIES.clone();\n  }\n\n");
+      writer.write("  @Override\n  public boolean canGet(int index) {\n"
+          + "    return READABLE[index];\n  }\n\n");
+      writer.write("  @Override\n  public boolean canSet(int index) {\n"
+          + "    return WRITABLE[index];\n  }\n\n");
+      writer.write("  @Override\n  public Object get(Object object, int index) {\n");
+      writer.write("    " + typeName + " target = (" + typeName + ") object;\n");
+      writer.write("    switch (index) {\n" + getCases);
+      writer.write("      default: throw new UnsupportedOperationException(\"Field \" + index);\n");
+      writer.write("    }\n  }\n\n");
+      writer.write("  @Override\n  public void set(Object object, int index, Object value) {\n");
+      writer.write("    " + typeName + " target = (" + typeName + ") object;\n");
+      writer.write("    switch (index) {\n" + setCases);
+      writer.write("      default: throw new UnsupportedOperationException(\"Field \" + index);\n");
+      writer.write("    }\n  }\n}\n");
+    }
+  }
+
+  /**
+   * Returns the first named single argument setter accepting the field's type, searching the
+   * type and its superclasses in the same way as ReflectionUtils.findMethodInHierarchy, or null if
+   * there is none.
+   */
+  private ExecutableElement findSetter(TypeElement type, VariableElement field,
+      String setterName) {
+    if (Editable.NO_SETTER.equals(setterName)) {
+      return null;
+    }
+
+    TypeElement current = type;
+
+    while (current != null) {
+      for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+        if (method.getSimpleName().contentEquals(setterName)
+            && method.getParameters().size() == 1
+            && processingEnv.getTypeUtils().isSameType(
+                method.getParameters().get(0).asType(), field.asType())) {
+          return method;
+        }
+      }
+
+      TypeMirror superclass = current.getSuperclass();
+      current = superclass.getKind() == TypeKind.DECLARED
+          ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns whether the generated accessors can call the given setter on an instance.
+   */
+  private boolean isCallable(ExecutableElement method, PackageElement packageElement) {
+    Set<Modifier> modifiers = method.getModifiers();
+    boolean samePackage =
+        processingEnv.getElementUtils().getPackageOf(method).equals(packageElement);
+
+    return !modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.STATIC)
+        && (modifiers.contains(Modifier.PUBLIC) || samePackage);
+  }
+
+  /**
+   * Returns whether code in the given package can name the erasure of the type.
+   */
+  private boolean isAccessible(TypeMirror type, PackageElement packageElement) {
+    TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+
+    while (erased.getKind() == TypeKind.ARRAY) {
+      erased = ((ArrayType) erased).getComponentType();
+    }
+
+    if (erased.getKind() != TypeKind.DECLARED) {
+      return erased.getKind().isPrimitive();
+    }
+
+    Element current = ((DeclaredType) erased).asElement();
+
+    while (current instanceof TypeElement) {
+      Set<Modifier> modifiers = current.getModifiers();
+
+      if (modifiers.contains(Modifier.PRIVATE) || (!modifiers.contains(Modifier.PUBLIC)
+          && !processingEnv.getElementUtils().getPackageOf(current).equals(packageElement))) {
+        return false;
+      }
+
+      current = current.getEnclosingElement();
+    }
+
+    return true;
+  }
+
+  private String erasure(TypeMirror type) {
+    return processingEnv.getTypeUtils().erasure(type).toString();
+  }
+
+  private String constant(String value) {
+    return processingEnv.getElementUtils().getConstantExpression(value);
+  }
+}
@@ -0,0 +1,93 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import org.junit.Test;
+
+/**
+ * Tests applying one change across many objects with BulkEditUtils.
+ * @author Jordan Glanfield
+ */
+public class BulkEditUtilsTest {
+
+  enum Mode {
+    FAST, SLOW
+  }
+
+  static class Target {
+    @Editable
+    int count;
+
+    @Editable
+    Mode mode;
+
+    @Editable(setterName = "setPositive")
+    int positive;
+
+    void setPositive(int positive) {
+      if (positive < 0) {
+        throw new IllegalArgumentException("Negative");
+      }
+
+      this.positive = positive;
+    }
+  }
+
+  private static ParsingFunctionsMap parsingFunctions() {
+    ParsingFunctionsMap parsingFunctions = new ParsingFunctionsMap(new HashMap<>());
+    parsingFunctions.addUnboxedParsingFunctions();
+    return parsingFunctions;
+  }
+
+  private static Target[] targets(int count) {
+    Target[] targets = new Target[count];
+
+    for (int i = 0; i < count; i++) {
+      targets[i] = new Target();
+    }
+
+    return targets;
+  }
+
+  @Test
+  public void writesParsedValueToEveryObjectInParallel() {
+    Target[] targets = targets(BulkEditUtils.PARALLEL_THRESHOLD * 3 + 17);
+    EditableField field = EditablePropertyUtils.findField(Target.class, "count");
+    BitSet written = BulkEditUtils.setFieldValue(field, targets, "42", parsingFunctions());
+
+    assertEquals(targets.length, written.cardinality());
+    assertTrue(Arrays.stream(targets).allMatch((target) -> target.count == 42));
+  }
+
+  @Test
+  public void reportsFailedWritesPerObject() {
+    Object[] objects = {new Target(), "not a target", new Target()};
+    EditableField field = EditablePropertyUtils.findField(Target.class, "mode");
+    BitSet written = BulkEditUtils.setFieldValue(field, objects, "SLOW", parsingFunctions());
+
+    assertEquals(BitSet.valueOf(new long[] {0b101}), written);
+    assertEquals(Mode.SLOW, ((Target) objects[2]).mode);
+  }
+
+  @Test
+  public void setterExceptionsFailOnlyTheirObject() {
+    Target[] targets = targets(3);
+    EditableField field = EditablePropertyUtils.findField(Target.class, "positive");
+
+    assertEquals(3, BulkEditUtils.setValue(field, targets, 5).cardinality());
+    assertTrue(BulkEditUtils.setValue(field, targets, -5).isEmpty());
+    assertEquals(5, targets[1].positive);
+  }
+
+  @Test
+  public void unparsableValueWritesNothing() {
+    Target[] targets = targets(2);
+    EditableField field = EditablePropertyUtils.findField(Target.class, "mode");
+    assertTrue(BulkEditUtils.setFieldValue(field, targets, "MEDIUM", parsingFunctions())
+        .isEmpty());
+  }
+}
@@ -0,0 +1,138 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests undoing and redoing transactions recorded in an EditHistory and the bounds it keeps.
+ * @author Jordan Glanfield
+ */
+public class EditHistoryTest {
+
+  static class Counter {
+    @Editable
+    int value;
+
+    @Editable
+    int other;
+  }
+
+  private static final EditableField VALUE =
+      EditablePropertyUtils.findField(Counter.class, "value");
+  private static final EditableField OTHER =
+      EditablePropertyUtils.findField(Counter.class, "other");
+
+  private static void set(EditHistory history, Counter counter, int value) {
+    EditTransaction transaction = history.begin();
+    transaction.setValue(VALUE, counter, value);
+    transaction.commit();
+  }
+
+  @Test
+  public void undoAndRedoStepThroughTransactions() {
+    EditHistory history = new EditHistory(10, 100);
+    Counter counter = new Counter();
+    set(history, counter, 1);
+    set(history, counter, 2);
+
+    assertTrue(history.undo());
+    assertEquals(1, counter.value);
+    assertTrue(history.undo());
+    assertEquals(0, counter.value);
+    assertFalse(history.undo());
+    assertTrue(history.redo());
+    assertEquals(1, counter.value);
+  }
+
+  @Test
+  public void oldestTransactionsAreEvictedByCount() {
+    EditHistory history = new EditHistory(3, 100);
+    Counter counter = new Counter();
+
+    for (int i = 1; i <= 5; i++) {
+      set(history, counter, i);
+    }
+
+    assertEquals(3, history.getEditCount());
+
+    while (history.undo()) {
+      // Undo as far as the history reaches.
+    }
+
+    assertEquals(2, counter.value);
+  }
+
+  @Test
+  public void oldestTransactionsAreEvictedByEdits() {
+    EditHistory history = new EditHistory(10, 3);
+    Counter counter = new Counter();
+    set(history, counter, 1);
+    set(history, counter, 2);
+    EditTransaction transaction = history.begin();
+    transaction.setValue(VALUE, counter, 3);
+    transaction.setValue(OTHER, counter, 3);
+    transaction.commit();
+
+    assertEquals(3, history.getEditCount());
+    assertTrue(history.undo());
+    assertTrue(history.undo());
+    assertFalse(history.canUndo());
+    assertEquals(1, counter.value);
+    assertEquals(0, counter.other);
+  }
+
+  @Test
+  public void oversizedTransactionIsKept() {
+    EditHistory history = new EditHistory(10, 1);
+    Counter counter = new Counter();
+    set(history, counter, 1);
+    EditTransaction transaction = history.begin();
+    transaction.setValue(VALUE, counter, 2);
+    transaction.setValue(OTHER, counter, 2);
+    transaction.commit();
+
+    assertEquals(2, history.getEditCount());
+    assertTrue(history.undo());
+    assertFalse(history.canUndo());
+    assertEquals(1, counter.value);
+  }
+
+  @Test
+  public void newTransactionTruncatesRedo() {
+    EditHistory history = new EditHistory(10, 100);
+    Counter counter = new Counter();
+    set(history, counter, 1);
+    set(history, counter, 2);
+    history.undo();
+    set(history, counter, 5);
+
+    assertFalse(history.canRedo());
+    assertEquals(2, history.getEditCount());
+    assertTrue(history.undo());
+    assertEquals(1, counter.value);
+    assertTrue(history.redo());
+    assertEquals(5, counter.value);
+  }
+
+  @Test
+  public void clearForgetsEverything() {
+    EditHistory history = new EditHistory(2, 100);
+    Counter counter = new Counter();
+    set(history, counter, 1);
+    set(history, counter, 2);
+    set(history, counter, 3);
+    history.undo();
+    history.clear();
+
+    assertFalse(history.canUndo());
+    assertFalse(history.canRedo());
+    assertEquals(0, history.getEditCount());
+
+    set(history, counter, 4);
+    assertTrue(history.undo());
+    assertEquals(2, counter.value);
+  }
+}
@@ -0,0 +1,100 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+/**
+ * Tests applying batches staged on an EditStage.
+ * @author Jordan Glanfield
+ */
+public class EditStageTest {
+
+  static class Gauge {
+    @Editable(setterName = "setLevel")
+    int level;
+
+    @Editable
+    int limit;
+
+    @Editable(setterName = "setTrigger")
+    int trigger;
+
+    Runnable onTrigger;
+
+    void setLevel(int level) {
+      if (level < 0) {
+        throw new IllegalArgumentException("Negative");
+      }
+
+      this.level = level;
+    }
+
+    void setTrigger(int trigger) {
+      this.trigger = trigger;
+      onTrigger.run();
+    }
+  }
+
+  private static EditableField field(String name) {
+    return EditablePropertyUtils.findField(Gauge.class, name);
+  }
+
+  @Test
+  public void throwingEditRollsItsBatchBack() {
+    EditStage stage = new EditStage();
+    Gauge gauge = new Gauge();
+    stage.begin().setValue(field("limit"), gauge, 4).setValue(field("level"), gauge, -1).submit();
+    stage.stageValue(field("level"), gauge, 2);
+
+    assertEquals(1, stage.apply());
+    assertEquals(0, gauge.limit);
+    assertEquals(2, gauge.level);
+    assertEquals(0, stage.getPendingCount());
+  }
+
+  @Test
+  public void failedEditRollsItsBatchBack() {
+    EditStage stage = new EditStage();
+    Gauge gauge = new Gauge();
+    stage.begin().setValue(field("limit"), gauge, 4).setValue(field("limit"), gauge, "four")
+        .submit();
+
+    assertEquals(0, stage.apply());
+    assertEquals(0, gauge.limit);
+  }
+
+  @Test
+  public void batchesSubmittedWhileApplyingWait() {
+    EditStage stage = new EditStage();
+    Gauge gauge = new Gauge();
+    gauge.onTrigger = () -> stage.stageValue(field("limit"), gauge, 6);
+    stage.stageValue(field("trigger"), gauge, 1);
+
+    assertEquals(1, stage.apply());
+    assertEquals(0, gauge.limit);
+    assertEquals(1, stage.getPendingCount());
+    assertEquals(1, stage.apply());
+    assertEquals(6, gauge.limit);
+  }
+
+  @Test
+  public void throwingEditRollsItsTransactionBack() {
+    EditStage stage = new EditStage();
+    EditHistory history = new EditHistory(10, 100);
+    Gauge gauge = new Gauge();
+    stage.begin().setValue(field("limit"), gauge, 4).setValue(field("level"), gauge, -1)
+        .setValue(field("limit"), "not a gauge", 5).submit();
+    stage.stageValue(field("level"), gauge, 2);
+
+    assertEquals(1, stage.apply(history));
+    assertEquals(0, gauge.limit);
+    assertEquals(2, gauge.level);
+    assertEquals(0, stage.getPendingCount());
+
+    history.undo();
+    assertEquals(0, gauge.level);
+    assertFalse(history.canUndo());
+  }
+}
@@ -0,0 +1,89 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests committing and rolling back edit transactions.
+ * @author Jordan Glanfield
+ */
+public class EditTransactionTest {
+
+  static class Account {
+    @Editable(setterName = "setBalance")
+    int balance;
+
+    @Editable
+    String owner;
+
+    void setBalance(int balance) {
+      if (balance < 0) {
+        throw new IllegalArgumentException("Overdrawn");
+      }
+
+      this.balance = balance;
+    }
+  }
+
+  private static EditableField field(String name) {
+    return EditablePropertyUtils.findField(Account.class, name);
+  }
+
+  @Test
+  public void commitRollsBackAfterFailedEdit() {
+    Account account = new Account();
+    account.owner = "Ann";
+    EditHistory history = new EditHistory(10, 100);
+    ParsingFunctionsMap parsingFunctions =
+        new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions());
+    EditTransaction transaction = history.begin();
+
+    assertTrue(transaction.setValue(field("owner"), account, "Bob"));
+    assertTrue(transaction.setFieldValue(field("balance"), account, "5", parsingFunctions));
+    assertFalse(transaction.setFieldValue(field("balance"), account, "-1", parsingFunctions));
+    assertTrue(transaction.isFailed());
+
+    assertFalse(transaction.commit());
+    assertEquals("Ann", account.owner);
+    assertEquals(0, account.balance);
+    assertFalse(history.canUndo());
+  }
+
+  @Test
+  public void commitRecordsOnlyChangedValues() {
+    Account account = new Account();
+    EditHistory history = new EditHistory(10, 100);
+    EditTransaction transaction = history.begin();
+    transaction.setValue(field("balance"), account, 0);
+    transaction.setValue(field("balance"), account, 3);
+
+    assertEquals(1, transaction.getEditCount());
+    assertTrue(transaction.commit());
+    assertEquals(1, history.getEditCount());
+  }
+
+  @Test
+  public void undoRestoresTheOriginalInstance() {
+    Account account = new Account();
+    String owner = new String("Ann");
+    account.owner = owner;
+    EditHistory history = new EditHistory(10, 100);
+    EditTransaction transaction = history.begin();
+
+    assertTrue(transaction.setValue(field("owner"), account, new String("Ann")));
+    assertTrue(transaction.commit());
+    assertTrue(history.undo());
+    assertSame(owner, account.owner);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void closedTransactionsRejectEdits() {
+    EditTransaction transaction = new EditTransaction();
+    transaction.rollback();
+    transaction.setValue(field("balance"), new Account(), 1);
+  }
+}
@@ -0,0 +1,78 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+/**
+ * Tests deltas written and applied by EditableBaseline.
+ * @author Jordan Glanfield
+ */
+public class EditableBaselineTest {
+
+  static class Player {
+    @Editable(setterName = "setLevel")
+    int level;
+
+    @Editable
+    double speed;
+
+    @Editable
+    String name;
+
+    void setLevel(int level) throws Exception {
+      if (level < 0) {
+        throw new Exception("Negative");
+      }
+
+      this.level = level;
+    }
+  }
+
+  private static final ParsingFunctionsMap PARSING_FUNCTIONS =
+      new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions());
+
+  @Test
+  public void appliesOnlyChangedFields() {
+    Player sender = new Player();
+    Player receiver = new Player();
+    EditableBaseline sent = new EditableBaseline(sender);
+    EditableBaseline received = new EditableBaseline(receiver);
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+
+    sender.speed = 2.5;
+    sender.name = "a";
+    assertEquals(2, sent.writeDelta(sender, buffer));
+    assertEquals(0, sent.writeDelta(sender, buffer));
+
+    buffer.flip();
+    assertTrue(received.applyDelta(buffer, receiver, PARSING_FUNCTIONS));
+    assertEquals(2.5, receiver.speed, 0);
+    assertEquals("a", receiver.name);
+  }
+
+  @Test
+  public void failedWriteLeavesBaseline() {
+    Player sender = new Player();
+    Player receiver = new Player();
+    EditableBaseline sent = new EditableBaseline(sender);
+    EditableBaseline received = new EditableBaseline(receiver);
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+
+    sender.level = -1;
+    sender.speed = 1;
+    assertEquals(2, sent.writeDelta(sender, buffer));
+    buffer.flip();
+
+    assertFalse(received.applyDelta(buffer, receiver, PARSING_FUNCTIONS));
+    assertEquals(0, receiver.level);
+    assertEquals(1.0, receiver.speed, 0);
+
+    // The baseline still holds the receiver's unchanged level, so only the speed differs.
+    receiver.speed = 0;
+    assertEquals(1, received.writeDelta(receiver, ByteBuffer.allocate(256)));
+  }
+}
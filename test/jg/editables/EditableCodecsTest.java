@@ -0,0 +1,112 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import org.junit.Test;
+
+/**
+ * Tests converting values to text and back with EditableCodecs.
+ * @author Jordan Glanfield
+ */
+public class EditableCodecsTest {
+
+  enum Shade {
+    LIGHT, DARK {
+      @Override
+      public String toString() {
+        return "dark";
+      }
+    }
+  }
+
+  static final class Point {
+    final int x;
+    final int y;
+
+    Point(int x, int y) {
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  static class Sprite {
+    @Editable
+    int frame;
+
+    @Editable
+    Shade shade;
+  }
+
+  private static EditableCodecs pointCodecs() {
+    EditableCodecs codecs = new EditableCodecs();
+    codecs.addCodec(Point.class, (chars, start, end) -> {
+      String text = chars.subSequence(start, end).toString();
+      int comma = text.indexOf(',');
+      return new Point(Integer.parseInt(text.substring(0, comma)),
+          Integer.parseInt(text.substring(comma + 1)));
+    }, (point, out) -> out.append(point.x).append(',').append(point.y));
+    return codecs;
+  }
+
+  private static Object roundTrip(EditableCodecs codecs, Class<?> type, Object value) {
+    CharBuffer buffer = CharBuffer.allocate(64);
+    buffer.put('[');
+    codecs.format(value, buffer);
+    int end = buffer.position();
+    buffer.put(']').flip();
+    return codecs.parse(type, buffer, 1, end);
+  }
+
+  @Test
+  public void roundTripsThroughCharBuffers() {
+    EditableCodecs codecs = pointCodecs();
+    assertEquals(-42, roundTrip(codecs, Integer.class, -42));
+    assertEquals(Long.MIN_VALUE, roundTrip(codecs, Long.class, Long.MIN_VALUE));
+    assertEquals(0.1, roundTrip(codecs, Double.class, 0.1));
+    assertEquals("text", roundTrip(codecs, String.class, "text"));
+    assertSame(Shade.LIGHT, roundTrip(codecs, Shade.class, Shade.LIGHT));
+
+    Point point = (Point) roundTrip(codecs, Point.class, new Point(3, -4));
+    assertEquals(3, point.x);
+    assertEquals(-4, point.y);
+  }
+
+  @Test
+  public void enumsAreWrittenAndReadByName() {
+    EditableCodecs codecs = new EditableCodecs();
+    StringBuilder text = new StringBuilder();
+    codecs.format(Shade.DARK, text);
+
+    assertEquals("DARK", text.toString());
+    assertSame(Shade.DARK, roundTrip(codecs, Shade.class, Shade.DARK));
+    assertSame(Shade.DARK, EditableCodecs.lookupEnumConstant(Shade.class, "DARK"));
+    assertNull(EditableCodecs.lookupEnumConstant(Shade.class, "dark"));
+    assertNull(EditableCodecs.lookupEnumConstant(String.class, "DARK"));
+  }
+
+  @Test
+  public void fieldsRoundTripThroughSlices() {
+    EditableCodecs codecs = new EditableCodecs();
+    Sprite sprite = new Sprite();
+    EditableField frame = EditablePropertyUtils.findField(Sprite.class, "frame");
+    EditableField shade = EditablePropertyUtils.findField(Sprite.class, "shade");
+    String line = "frame=12;shade=DARK";
+
+    assertTrue(frame.setFieldValue(sprite, line, 6, 8, codecs));
+    assertTrue(shade.setFieldValue(sprite, line, 15, 19, codecs));
+    assertEquals(12, sprite.frame);
+    assertSame(Shade.DARK, sprite.shade);
+    assertTrue(shade.setFieldValue(sprite, "LIGHT", codecs));
+    assertSame(Shade.LIGHT, sprite.shade);
+  }
+
+  @Test(expected = BufferOverflowException.class)
+  public void formattingPastTheBufferOverflows() {
+    new EditableCodecs().format("too long", CharBuffer.allocate(4));
+  }
+}
@@ -0,0 +1,63 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Tests storing editable state in columns with EditableColumnStore.
+ * @author Jordan Glanfield
+ */
+public class EditableColumnStoreTest {
+
+  static class Unit {
+    @Editable
+    int health;
+
+    @Editable
+    String name;
+  }
+
+  private static Unit unit(int health, String name) {
+    Unit unit = new Unit();
+    unit.health = health;
+    unit.name = name;
+    return unit;
+  }
+
+  @Test
+  public void copiesRowsToAndFromObjects() {
+    EditableColumnStore store = new EditableColumnStore(Unit.class);
+    store.addRow(unit(1, "a"));
+    store.addRow(unit(2, "b"));
+    store.addRow(unit(3, "c"));
+
+    assertEquals(2, store.removeRow(0));
+    Unit unit = new Unit();
+    assertTrue(store.copyToObject(0, unit));
+    assertEquals(3, unit.health);
+    assertEquals("c", unit.name);
+  }
+
+  @Test
+  public void rowAccessorsAreCheckedAgainstSize() {
+    EditableColumnStore store = new EditableColumnStore(Unit.class, 16, false);
+    store.addRow(unit(1, "a"));
+    EditableColumn health = store.getColumn(EditablePropertyUtils.findField(Unit.class, "health"));
+    EditableColumn name = store.getColumn(EditablePropertyUtils.findField(Unit.class, "name"));
+
+    assertEquals(1, health.getInt(0));
+
+    for (Runnable access : new Runnable[] {() -> health.getInt(1), () -> health.setInt(1, 5),
+        () -> health.getValue(-1), () -> name.setValue(1, "b"), () -> name.getValue(1)}) {
+      try {
+        access.run();
+        fail("Expected the row to be rejected");
+      } catch (IndexOutOfBoundsException e) {
+        // Expected.
+      }
+    }
+  }
+}
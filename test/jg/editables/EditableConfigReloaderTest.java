@@ -0,0 +1,127 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests how EditableConfigReloader finds the entries of a file that changed since it was loaded.
+ * @author Jordan Glanfield
+ */
+public class EditableConfigReloaderTest {
+
+  static class Physics {
+    @Editable
+    double gravity;
+
+    @Editable
+    int steps;
+
+    @Editable(category = "Limits")
+    int maxBodies;
+  }
+
+  static class Audio {
+    static class Settings {
+      @Editable
+      int volume;
+    }
+  }
+
+  static class Video {
+    static class Settings {
+      @Editable
+      int brightness;
+    }
+  }
+
+  private final EditStage stage = new EditStage();
+  private final EditableConfigReloader reloader = new EditableConfigReloader(stage,
+      new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions()));
+  private Path file;
+
+  @Before
+  public void createFile() throws Exception {
+    file = Files.createTempFile("editables", ".cfg");
+    file.toFile().deleteOnExit();
+  }
+
+  private int load(String... lines) throws Exception {
+    Files.write(file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    return reloader.load(file);
+  }
+
+  @Test
+  public void reloadingStagesOnlyChangedEntries() throws Exception {
+    Physics physics = new Physics();
+    reloader.register(physics);
+
+    assertEquals(2, load("Physics/Object/gravity = 9.8", "Physics/Object/steps = 4"));
+    assertEquals(2, stage.apply());
+    assertEquals(9.8, physics.gravity, 0);
+
+    // An inserted line moves every other line down without making them look changed.
+    assertEquals(1, load("# Tuned", "Physics/Limits/maxBodies = 100",
+        "Physics/Object/gravity = 9.8", "Physics/Object/steps = 4"));
+    assertEquals(0, load("Physics/Object/steps = 4", "Physics/Object/gravity = 9.8",
+        "Physics/Limits/maxBodies = 100"));
+    assertEquals(1, load("Physics/Object/steps = 8", "Physics/Object/gravity = 9.8"));
+    stage.apply();
+    assertEquals(100, physics.maxBodies);
+    assertEquals(8, physics.steps);
+  }
+
+  @Test
+  public void unparsableValuesWaitForTheirValueToChange() throws Exception {
+    Physics physics = new Physics();
+    reloader.register(physics);
+
+    assertEquals(0, load("Physics/Object/steps = many"));
+    assertEquals(0, load("", "Physics/Object/steps = many"));
+    assertEquals(1, load("Physics/Object/steps = 3"));
+    stage.apply();
+    assertEquals(3, physics.steps);
+  }
+
+  @Test
+  public void laterRegistrationsReceiveTheirClassesEntries() throws Exception {
+    assertEquals(0, load("Physics/Object/steps = 6", "jg.editables.EditableConfigReloaderTest"
+        + "$Physics/Limits/maxBodies = 50", "Settings/Object/volume = 7"));
+
+    Physics physics = new Physics();
+    reloader.register(physics);
+    assertEquals(2, stage.apply());
+    assertEquals(6, physics.steps);
+    assertEquals(50, physics.maxBodies);
+  }
+
+  @Test
+  public void rejectsClassesSharingASimpleName() {
+    reloader.register(new Audio.Settings());
+
+    try {
+      reloader.register(new Video.Settings());
+      fail("Expected the shared simple name to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals(0, stage.getPendingCount());
+    }
+  }
+
+  @Test
+  public void classNamesAreFreedOnceUnregistered() throws Exception {
+    Audio.Settings audio = new Audio.Settings();
+    reloader.register(audio);
+    reloader.unregister(audio);
+
+    Video.Settings video = new Video.Settings();
+    reloader.register(video);
+    assertEquals(1, load("Settings/Object/brightness = 2"));
+    stage.apply();
+    assertEquals(2, video.brightness);
+  }
+}
@@ -0,0 +1,157 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+/**
+ * Tests copies made by EditableCopier, in particular how fields naming a setter are written.
+ * @author Jordan Glanfield
+ */
+public class EditableCopierTest {
+
+  static class Unit {
+    @Editable
+    int health;
+
+    @Editable(category = "Combat", setterName = "setDamage")
+    int damage;
+
+    @Editable(category = "Combat")
+    String weapon;
+
+    int setterCalls;
+
+    void setDamage(int damage) {
+      if (damage < 0) {
+        throw new IllegalArgumentException("Negative");
+      }
+
+      setterCalls++;
+      this.damage = damage;
+    }
+  }
+
+  static class Base {
+    @Editable(setterName = "setLevel")
+    int level;
+  }
+
+  static class Derived extends Base {
+    int setterCalls;
+
+    void setLevel(int level) {
+      setterCalls++;
+      this.level = level;
+    }
+  }
+
+  static class Checked {
+    @Editable(setterName = "setValue")
+    int value;
+
+    void setValue(int value) throws Exception {
+      throw new Exception("Checked");
+    }
+  }
+
+  private static Unit unit(int health, int damage, String weapon) {
+    Unit unit = new Unit();
+    unit.health = health;
+    unit.damage = damage;
+    unit.weapon = weapon;
+    return unit;
+  }
+
+  @Test
+  public void copiesThroughSettersAndDirectly() {
+    Unit source = unit(10, 4, "sword");
+    Unit target = new Unit();
+    EditableCopier.forClass(Unit.class).copy(source, target);
+
+    assertEquals(10, target.health);
+    assertEquals(4, target.damage);
+    assertSame(source.weapon, target.weapon);
+    assertEquals(1, target.setterCalls);
+  }
+
+  @Test
+  public void setterDeclaredBySubclassIsUsed() {
+    Derived source = new Derived();
+    source.level = 3;
+    Derived target = new Derived();
+    EditableCopier.forClass(Derived.class).copy(source, target);
+
+    assertEquals(3, target.level);
+    assertEquals(1, target.setterCalls);
+  }
+
+  @Test
+  public void setterExceptionPropagatesAfterEarlierFields() {
+    Unit source = unit(10, -1, "axe");
+    Unit target = new Unit();
+    EditableField health = EditablePropertyUtils.findField(Unit.class, "health");
+    EditableIndex index = EditableIndex.hashIndex(health, Arrays.asList(target));
+
+    try {
+      EditableCopier.forClass(Unit.class).copy(source, target);
+      fail("Expected the setter's exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Negative", e.getMessage());
+      // The field copied before the failing setter was still reported.
+      assertEquals(Collections.singletonList(target), index.getEqual(10));
+    } finally {
+      index.close();
+    }
+
+    // Fields are copied in schema order, so those after the failing setter are untouched.
+    assertEquals(10, target.health);
+    assertEquals(0, target.damage);
+    assertEquals(null, target.weapon);
+  }
+
+  @Test
+  public void checkedSetterExceptionIsWrapped() {
+    try {
+      EditableCopier.forClass(Checked.class).copy(new Checked(), new Checked());
+      fail("Expected the setter's exception");
+    } catch (IllegalStateException e) {
+      assertEquals("Checked", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void copiesOnlyTheRequestedCategories() {
+    EditableCopier copier = EditableCopier.forCategories(Unit.class, "Combat");
+    Unit target = new Unit();
+    copier.copy(unit(10, 4, "bow"), target);
+
+    assertEquals(2, copier.getFields().size());
+    assertEquals(0, target.health);
+    assertEquals(4, target.damage);
+    assertEquals("bow", target.weapon);
+  }
+
+  @Test
+  public void copiesUpdateIndexes() {
+    Unit target = new Unit();
+    EditableField health = EditablePropertyUtils.findField(Unit.class, "health");
+    EditableIndex index = EditableIndex.hashIndex(health, Arrays.asList(target));
+
+    try {
+      EditableCopier.forClass(Unit.class).copy(unit(7, 1, null), target);
+      assertEquals(Collections.singletonList(target), index.getEqual(7));
+    } finally {
+      index.close();
+    }
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void rejectsObjectsOfAnotherClass() {
+    EditableCopier.forClass(Unit.class).copy(new Unit(), new Base());
+  }
+}
@@ -0,0 +1,117 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests finding editable fields by name and searching them as a query is typed.
+ * @author Jordan Glanfield
+ */
+public class EditableFieldIndexTest {
+
+  static class Ship {
+    @Editable(category = "Engine")
+    float maxSpeed;
+
+    @Editable(category = "Engine")
+    float speedBoost;
+
+    @Editable(category = "Hull")
+    int armour;
+
+    @Editable(category = "Hull")
+    int maxArmour;
+
+    @Editable
+    String callSign;
+  }
+
+  static class Base {
+    @Editable(category = "Base")
+    int level;
+  }
+
+  static class Shadowing extends Base {
+    @Editable(category = "Shadowing")
+    int level;
+  }
+
+  private static EditableFieldIndex index() {
+    return EditablePropertyUtils.getSchema(Ship.class).getFieldIndex();
+  }
+
+  private static List<String> names(List<EditableField> fields) {
+    List<String> names = new ArrayList<>();
+
+    for (EditableField field : fields) {
+      names.add(field.getName());
+    }
+
+    return names;
+  }
+
+  @Test
+  public void emptyQueryMatchesEveryField() {
+    assertEquals(names(EditablePropertyUtils.getSchema(Ship.class).getFields()),
+        names(index().search("  ")));
+  }
+
+  @Test
+  public void shortQueriesCheckEveryField() {
+    assertEquals(Arrays.asList("maxSpeed", "maxArmour"), names(index().search("ax")));
+    assertEquals(Arrays.asList("maxSpeed", "armour", "maxArmour", "callSign"),
+        names(index().search("A")));
+  }
+
+  @Test
+  public void searchIgnoresCase() {
+    assertEquals(Arrays.asList("maxSpeed", "speedBoost"), names(index().search("SPEED")));
+    assertEquals(Arrays.asList("callSign"), names(index().search("callsign")));
+  }
+
+  @Test
+  public void searchMatchesCategories() {
+    assertEquals(Arrays.asList("armour", "maxArmour"), names(index().search("hull")));
+    assertEquals(Arrays.asList("maxSpeed", "speedBoost"), names(index().search("ngin")));
+  }
+
+  @Test
+  public void rarestTrigramOnlyNarrowsCandidates() {
+    // "max" is shared by two fields and "xsp" only by maxSpeed, but every trigram must match.
+    assertEquals(Arrays.asList("maxSpeed"), names(index().search("maxsp")));
+    assertEquals(Arrays.asList("maxArmour"), names(index().search("maxarm")));
+    assertTrue(index().search("maxboost").isEmpty());
+    assertTrue(index().search("zzz").isEmpty());
+  }
+
+  @Test
+  public void firstFieldWinsForSharedNames() {
+    EditableField base = EditablePropertyUtils.findField(Base.class, "level");
+    EditableField shadowing = EditablePropertyUtils.getSchema(Shadowing.class).getField(0);
+    EditableFieldIndex index = new EditableFieldIndex(Arrays.asList(base, shadowing));
+    EditableFieldIndex reversed = new EditableFieldIndex(Arrays.asList(shadowing, base));
+
+    assertSame(base, index.getField("level"));
+    assertSame(shadowing, reversed.getField("level"));
+    assertSame(shadowing, index.getField("Shadowing", "level"));
+    assertEquals(2, index.search("level").size());
+  }
+
+  @Test
+  public void subclassFieldShadowsSuperclassField() {
+    EditableField level = EditablePropertyUtils.findField(Shadowing.class, "level");
+
+    assertSame(Shadowing.class, level.getDeclaringClass());
+    assertSame(Base.class,
+        EditablePropertyUtils.getSchema(Shadowing.class).getFieldIndex()
+            .getField("Base", "level").getDeclaringClass());
+    assertEquals(2, EditablePropertyUtils.getSchema(Shadowing.class).getFieldIndex()
+        .search("level").size());
+  }
+}
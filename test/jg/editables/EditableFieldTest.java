@@ -0,0 +1,159 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+/**
+ * Tests writes through EditableField, in particular how failing setters are handled.
+ * @author Jordan Glanfield
+ */
+public class EditableFieldTest {
+
+  static class Target {
+    @Editable
+    int direct;
+
+    @Editable(setterName = "setChecked")
+    int checked;
+
+    @Editable(setterName = "setRejecting")
+    int rejecting;
+
+    @Editable(setterName = "setFailing")
+    int failing;
+
+    @Editable
+    String name;
+
+    @Editable
+    float ratio;
+
+    @Editable
+    boolean flag;
+
+    @Editable
+    char letter;
+
+    void setChecked(int checked) throws Exception {
+      if (checked < 0) {
+        throw new Exception("Negative");
+      }
+
+      this.checked = checked;
+    }
+
+    void setRejecting(int rejecting) {
+      if (rejecting < 0) {
+        throw new IllegalArgumentException("Negative");
+      }
+
+      this.rejecting = rejecting;
+    }
+
+    void setFailing(int failing) {
+      throw new AssertionError("Setter error");
+    }
+  }
+
+  private static EditableField field(String name) {
+    return EditablePropertyUtils.findField(Target.class, name);
+  }
+
+  @Test
+  public void writesDirectlyWithoutSetter() {
+    Target target = new Target();
+    assertTrue(field("direct").setValue(target, 5));
+    assertTrue(field("direct").setInt(target, 6));
+    assertEquals(6, target.direct);
+    assertTrue(field("name").setValue(target, "a"));
+    assertEquals("a", target.name);
+  }
+
+  @Test
+  public void rejectsValuesAndObjectsOfTheWrongType() {
+    Target target = new Target();
+    assertFalse(field("direct").setValue(target, "5"));
+    assertFalse(field("direct").setValue(target, 5L));
+    assertFalse(field("direct").setValue(target, null));
+    assertFalse(field("direct").setValue("not a target", 5));
+    assertFalse(field("direct").setInt("not a target", 5));
+    assertEquals(0, target.direct);
+  }
+
+  @Test
+  public void checkedSetterExceptionFailsWithoutWriting() {
+    Target target = new Target();
+    assertTrue(field("checked").setValue(target, 3));
+    assertFalse(field("checked").setValue(target, -1));
+    assertFalse(field("checked").setInt(target, -1));
+    assertEquals(3, target.checked);
+  }
+
+  @Test
+  public void runtimeSetterExceptionPropagatesWithoutDirectWrite() {
+    Target target = new Target();
+
+    try {
+      field("rejecting").setValue(target, -1);
+      fail("Expected the setter's exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Negative", e.getMessage());
+    }
+
+    try {
+      field("rejecting").setInt(target, -1);
+      fail("Expected the setter's exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Negative", e.getMessage());
+    }
+
+    assertEquals(0, target.rejecting);
+  }
+
+  @Test
+  public void setterErrorPropagates() {
+    Target target = new Target();
+
+    try {
+      field("failing").setValue(target, 1);
+      fail("Expected the setter's error");
+    } catch (AssertionError e) {
+      assertEquals("Setter error", e.getMessage());
+    }
+
+    assertEquals(0, target.failing);
+  }
+
+  @Test
+  public void typedSettersFailOnTypeMismatchLikeSetValue() {
+    Target target = new Target();
+    assertFalse(field("direct").setLong(target, 1L));
+    assertFalse(field("direct").setFloat(target, 1f));
+    assertFalse(field("direct").setDouble(target, 1d));
+    assertFalse(field("direct").setBoolean(target, true));
+    assertFalse(field("name").setInt(target, 1));
+    assertEquals(0, target.direct);
+  }
+
+  @Test
+  public void typedAccessorsRoundTripThroughBits() {
+    Target target = new Target();
+    assertTrue(field("ratio").setFloat(target, -1.5f));
+    assertEquals(-1.5f, field("ratio").getFloat(target), 0f);
+    assertTrue(field("flag").setBoolean(target, true));
+    assertTrue(field("flag").getBoolean(target));
+
+    EditableField letter = field("letter");
+    assertTrue(letter.setBits(target, 0xFFFF));
+    assertEquals((char) 0xFFFF, target.letter);
+    assertEquals(0xFFFF, letter.getBits(target));
+
+    EditableField ratio = field("ratio");
+    assertTrue(ratio.setBits(target, ratio.getBits(target)));
+    assertEquals(-1.5f, target.ratio, 0f);
+  }
+}
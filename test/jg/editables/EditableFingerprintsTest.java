@@ -0,0 +1,120 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import org.junit.Test;
+
+/**
+ * Tests fingerprints of editable state and the dirty bitmaps found by comparing them.
+ * @author Jordan Glanfield
+ */
+public class EditableFingerprintsTest {
+
+  static class Body {
+    @Editable
+    double mass;
+
+    @Editable
+    int layer;
+
+    @Editable
+    String tag;
+
+    int ignored;
+  }
+
+  private static Body[] bodies(int count) {
+    Body[] bodies = new Body[count];
+
+    for (int i = 0; i < count; i++) {
+      bodies[i] = new Body();
+      bodies[i].layer = i;
+    }
+
+    return bodies;
+  }
+
+  @Test
+  public void fingerprintFollowsEditableFieldsOnly() {
+    EditableFingerprints fingerprints = new EditableFingerprints();
+    Body body = new Body();
+    long initial = fingerprints.fingerprint(body);
+
+    body.ignored = 5;
+    assertEquals(initial, fingerprints.fingerprint(body));
+
+    body.mass = -0.0;
+    assertNotEquals(initial, fingerprints.fingerprint(body));
+    body.mass = 0.0;
+    assertEquals(initial, fingerprints.fingerprint(body));
+    assertEquals(0, fingerprints.fingerprint((Object) null));
+  }
+
+  @Test
+  public void fingerprintIsTheSameInEveryRun() {
+    Body body = new Body();
+    body.mass = 2.5;
+    body.layer = 3;
+
+    // Seeded from the class and field names rather than the class's identity.
+    assertEquals(6215670215826365662L, new EditableFingerprints().fingerprint(body));
+  }
+
+  @Test
+  public void referenceHashDecidesWhetherEqualValuesChange() {
+    Body body = new Body();
+    body.tag = new String("a");
+    EditableFingerprints byIdentity = new EditableFingerprints();
+    EditableFingerprints byEquality = new EditableFingerprints(Object::hashCode);
+    long identity = byIdentity.fingerprint(body);
+    long equality = byEquality.fingerprint(body);
+
+    body.tag = new String("a");
+    assertNotEquals(identity, byIdentity.fingerprint(body));
+    assertEquals(equality, byEquality.fingerprint(body));
+  }
+
+  @Test
+  public void dirtyBitsMarkChangedObjects() {
+    EditableFingerprints fingerprints = new EditableFingerprints();
+    Body[] bodies = bodies(100);
+    long[] previous = fingerprints.fingerprint(bodies);
+
+    bodies[0].mass = 1;
+    bodies[63].layer = -1;
+    bodies[64].tag = "moved";
+    bodies[99].mass = 2;
+
+    BitSet dirty = fingerprints.updateDirty(Arrays.asList(bodies), previous);
+    assertEquals(BitSet.valueOf(new long[] {1L | 1L << 63, 1L | 1L << 35}), dirty);
+    assertTrue(fingerprints.updateDirty(bodies, previous).isEmpty());
+  }
+
+  @Test
+  public void parallelDirtyBitsMatchSequential() {
+    EditableFingerprints fingerprints = new EditableFingerprints();
+    Body[] bodies = bodies(3 * EditableFingerprints.PARALLEL_THRESHOLD + 17);
+    long[] previous = fingerprints.fingerprint(bodies);
+    BitSet expected = new BitSet();
+
+    for (int i = 0; i < bodies.length; i += 61) {
+      bodies[i].mass = i + 1;
+      expected.set(i);
+    }
+
+    assertEquals(expected, fingerprints.updateDirty(bodies, previous));
+
+    for (int i = 0; i < bodies.length; i++) {
+      assertEquals(fingerprints.fingerprint(bodies[i]), previous[i]);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsFingerprintsOfAnotherLength() {
+    new EditableFingerprints().updateDirty(bodies(3), new long[2]);
+  }
+}
@@ -0,0 +1,63 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests that indexes of editable fields follow writes as they happen.
+ * @author Jordan Glanfield
+ */
+public class EditableIndexTest {
+
+  static class Item {
+    @Editable(setterName = "setLevel")
+    int level;
+  }
+
+  static class SpecialItem extends Item {
+    void setLevel(int level) {
+      this.level = level * 2;
+    }
+  }
+
+  @Test
+  public void indexedQuerySeesWritesWithoutFlush() {
+    List<Item> items = Arrays.asList(new Item(), new Item());
+    EditableField level = EditablePropertyUtils.findField(Item.class, "level");
+    EditableIndex index = EditableIndex.hashIndex(level, items);
+    boolean bWasActive = FieldChangeNotifier.bActive;
+
+    try {
+      assertTrue(level.setValue(items.get(1), 3));
+      assertEquals(Collections.singletonList(items.get(1)),
+          EditableQuery.from(Item.class, items).useIndex(index).whereEquals("level", 3).list());
+      assertEquals(1, index.getEqual(0).size());
+      assertEquals(bWasActive, FieldChangeNotifier.bActive);
+    } finally {
+      index.close();
+    }
+  }
+
+  @Test
+  public void writesThroughSubclassCopiesAreIndexed() {
+    SpecialItem item = new SpecialItem();
+    EditableField level = EditablePropertyUtils.findField(Item.class, "level");
+    EditableIndex index = EditableIndex.sortedIndex(level, Collections.singletonList(item));
+
+    try {
+      assertTrue(EditablePropertyUtils.findField(SpecialItem.class, "level").setInt(item, 2));
+      assertEquals(Collections.singletonList(item), index.getEqual(4));
+    } finally {
+      index.close();
+    }
+
+    assertTrue(level.setInt(item, 5));
+    assertFalse(index.getEqual(4).isEmpty());
+  }
+}
@@ -0,0 +1,105 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests gathering latency statistics through EditableMetrics.
+ * @author Jordan Glanfield
+ */
+public class EditableMetricsTest {
+
+  static class Probe {
+    @Editable
+    int value;
+  }
+
+  private boolean bWasEnabled;
+
+  @Before
+  public void saveEnabled() {
+    bWasEnabled = EditableMetrics.isEnabled();
+    EditableMetrics.reset();
+  }
+
+  @After
+  public void restoreEnabled() {
+    EditableMetrics.setEnabled(bWasEnabled);
+    EditableMetrics.reset();
+  }
+
+  @Test
+  public void disabledMetricsRecordNothing() {
+    EditableMetrics.setEnabled(false);
+    assertEquals(0, EditableMetrics.start());
+
+    new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions())
+        .parse(Integer.class, "1");
+    assertNull(EditableMetrics.getStats(EditableMetrics.Operation.PARSE, Integer.class));
+  }
+
+  @Test
+  public void enabledMetricsRecordParsesAndSets() {
+    EditableMetrics.setEnabled(true);
+    assertNotEquals(0, EditableMetrics.start());
+
+    ParsingFunctionsMap parsingFunctions =
+        new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions());
+    parsingFunctions.parse(Integer.class, "1");
+
+    try {
+      parsingFunctions.parse(Integer.class, "x");
+    } catch (NumberFormatException e) {
+      // Recorded as a failure.
+    }
+
+    EditableField field = EditablePropertyUtils.findField(Probe.class, "value");
+    assertTrue(field.setValue(new Probe(), 3));
+
+    LatencyStats parses =
+        EditableMetrics.getStats(EditableMetrics.Operation.PARSE, Integer.class);
+    assertEquals(2, parses.getCount());
+    assertEquals(1, parses.getFailureCount());
+    assertEquals(1, EditableMetrics.getStats(EditableMetrics.Operation.SET, field).getCount());
+    assertTrue(EditableMetrics.getStats(EditableMetrics.Operation.SET).containsKey(field));
+  }
+
+  @Test
+  public void resetDiscardsStatistics() {
+    EditableMetrics.setEnabled(true);
+    EditableMetrics.record(EditableMetrics.Operation.PARSE, String.class,
+        EditableMetrics.start(), true);
+    EditableMetrics.reset();
+
+    assertNull(EditableMetrics.getStats(EditableMetrics.Operation.PARSE, String.class));
+    assertTrue(EditableMetrics.getStats(EditableMetrics.Operation.PARSE).isEmpty());
+  }
+
+  @Test
+  public void percentilesBoundRecordedLatencies() {
+    LatencyStats stats = new LatencyStats();
+
+    for (int i = 0; i < 90; i++) {
+      stats.record(10, true);
+    }
+
+    for (int i = 0; i < 10; i++) {
+      stats.record(1000, false);
+    }
+
+    assertEquals(100, stats.getCount());
+    assertEquals(10, stats.getFailureCount());
+    assertEquals(109, stats.getMeanNanos(), 0);
+    assertEquals(1000, stats.getMaxNanos());
+    assertEquals(15, stats.getPercentileNanos(0.5));
+    assertEquals(15, stats.getPercentileNanos(0.9));
+    assertEquals(1023, stats.getPercentileNanos(0.99));
+    assertEquals(0, new LatencyStats().getPercentileNanos(0.5));
+  }
+}
@@ -0,0 +1,117 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Tests the schemas cached per class by EditablePropertyUtils and the property groups they
+ * expose.
+ * @author Jordan Glanfield
+ */
+public class EditablePropertyUtilsTest {
+
+  static class Base {
+    @Editable
+    int plain;
+
+    @Editable(category = "Setters", setterName = "setFound")
+    int found;
+
+    @Editable(category = "Setters", setterName = "setLater")
+    int later;
+
+    void setFound(int found) {
+      this.found = found;
+    }
+  }
+
+  static class Derived extends Base {
+    @Editable(category = "Own")
+    String own;
+
+    int laterCalls;
+
+    void setLater(int later) {
+      laterCalls++;
+      this.later = later;
+    }
+  }
+
+  @Test
+  public void schemasAreCachedPerClass() {
+    EditableSchema schema = EditablePropertyUtils.getSchema(Derived.class);
+    assertSame(schema, EditablePropertyUtils.getSchema(Derived.class));
+    assertNotSame(schema, EditablePropertyUtils.getSchema(Base.class));
+    assertSame(schema.getPropertyGroups(),
+        EditablePropertyUtils.getPropertyGroups(new Derived()));
+  }
+
+  @Test
+  public void declaredFieldsPrecedeInheritedOnes() {
+    List<EditableField> fields = EditablePropertyUtils.getSchema(Derived.class).getFields();
+    String[] names = new String[fields.size()];
+
+    for (int i = 0; i < names.length; i++) {
+      names[i] = fields.get(i).getName();
+    }
+
+    assertEquals(Arrays.asList("own", "plain", "found", "later"), Arrays.asList(names));
+  }
+
+  @Test
+  public void groupsAreUnmodifiable() {
+    Map<String, List<EditableField>> groups =
+        EditablePropertyUtils.getPropertyGroups(Derived.class);
+
+    try {
+      groups.remove("Own");
+      fail("Expected the groups to be unmodifiable");
+    } catch (UnsupportedOperationException e) {
+      // Expected.
+    }
+
+    try {
+      groups.get("Setters").clear();
+      fail("Expected the category's fields to be unmodifiable");
+    } catch (UnsupportedOperationException e) {
+      // Expected.
+    }
+
+    try {
+      EditablePropertyUtils.getSchema(Derived.class).getFields().clear();
+      fail("Expected the fields to be unmodifiable");
+    } catch (UnsupportedOperationException e) {
+      // Expected.
+    }
+
+    assertEquals(2, groups.get("Setters").size());
+  }
+
+  @Test
+  public void subclassesShareResolvedSuperclassFields() {
+    // Fields without a setter or with one already found are shared.
+    assertSame(EditablePropertyUtils.findField(Base.class, "plain"),
+        EditablePropertyUtils.findField(Derived.class, "plain"));
+    assertSame(EditablePropertyUtils.findField(Base.class, "found"),
+        EditablePropertyUtils.findField(Derived.class, "found"));
+
+    // A setter only declared by the subclass needs a field resolved against it.
+    EditableField baseLater = EditablePropertyUtils.findField(Base.class, "later");
+    EditableField derivedLater = EditablePropertyUtils.findField(Derived.class, "later");
+    assertNotSame(baseLater, derivedLater);
+    assertTrue(derivedLater.hasSetter());
+
+    Derived derived = new Derived();
+    assertTrue(derivedLater.setValue(derived, 3));
+    assertEquals(3, derived.later);
+    assertEquals(1, derived.laterCalls);
+  }
+}
@@ -0,0 +1,136 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests schemas built from accessors generated by EditableProcessor, compiling a sample class with
+ * the processor into a temporary directory.
+ * @author Jordan Glanfield
+ */
+public class EditableSchemaTest {
+
+  private static final String SOURCE = String.join("\n",
+      "package sample;",
+      "import jg.editables.Editable;",
+      "public class Sample {",
+      "  @Editable int count;",
+      "  @Editable(category = \"Limits\", setterName = \"setLimit\") int limit;",
+      "  @Editable(setterName = \"setMissing\") int missing;",
+      "  @Editable private String hidden = \"secret\";",
+      "  @Editable java.util.List<String> names;",
+      "  void setLimit(int limit) {",
+      "    if (limit < 0) {",
+      "      throw new IllegalArgumentException(\"Negative\");",
+      "    }",
+      "    this.limit = limit;",
+      "  }",
+      "}",
+      "");
+
+  private static Class<?> sampleClass;
+
+  @BeforeClass
+  public static void compileSample() throws Exception {
+    Path directory = Files.createTempDirectory("editables");
+    Path source = directory.resolve("sample/Sample.java");
+    Files.createDirectories(source.getParent());
+    Files.write(source, SOURCE.getBytes(StandardCharsets.UTF_8));
+
+    String classPath = new File(Editable.class.getProtectionDomain().getCodeSource()
+        .getLocation().toURI()).getPath();
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    int result = compiler.run(null, null, null, "-classpath", classPath, "-processor",
+        "jg.editables.processing.EditableProcessor", "-d", directory.toString(),
+        source.toString());
+    assertEquals(0, result);
+
+    ClassLoader loader = new URLClassLoader(new URL[] {directory.toUri().toURL()},
+        EditableSchemaTest.class.getClassLoader());
+    sampleClass = Class.forName("sample.Sample", true, loader);
+  }
+
+  private static EditableField field(String name) {
+    EditableField field = EditablePropertyUtils.findField(sampleClass, name);
+    assertNotNull(name, field);
+    return field;
+  }
+
+  @Test
+  public void generatedClassesAreIndexed() {
+    assertTrue(EditableClassIndex.isIndexed(sampleClass));
+    assertFalse(EditableClassIndex.isIndexed(Object.class));
+    assertFalse(EditableClassIndex.isIndexed(EditableSchemaTest.class));
+  }
+
+  @Test
+  public void fieldsKeepMetadataAndOrder() {
+    EditableSchema schema = EditablePropertyUtils.getSchema(sampleClass);
+    String[] names = new String[schema.getFieldCount()];
+
+    for (int i = 0; i < names.length; i++) {
+      names[i] = schema.getField(i).getName();
+    }
+
+    assertEquals(Arrays.asList("count", "limit", "missing", "hidden", "names"),
+        Arrays.asList(names));
+    assertEquals("Limits", field("limit").getCategory());
+    assertSame(int.class, field("count").getType());
+    assertSame(java.util.List.class, field("names").getType());
+    assertTrue(field("limit").hasSetter());
+    assertFalse(field("missing").hasSetter());
+    assertTrue(field("missing").requestsSetter());
+  }
+
+  @Test
+  public void generatedFieldsResolveReflectionLazily() throws Exception {
+    EditableField count = field("count");
+    assertEquals(sampleClass.getDeclaredField("count"), count.getField());
+    assertEquals("Object", count.getEditable().category());
+    assertEquals(sampleClass.getDeclaredField("count").hashCode(), count.hashCode());
+  }
+
+  @Test
+  public void writesThroughGeneratedAccessors() throws Exception {
+    Object sample = sampleClass.getDeclaredConstructor().newInstance();
+    assertTrue(field("count").setValue(sample, 4));
+    assertTrue(field("count").setInt(sample, 5));
+    assertEquals(5, field("count").getInt(sample));
+    assertFalse(field("count").setValue(sample, "5"));
+    assertFalse(field("count").setValue(new Object(), 5));
+    assertEquals("secret", field("hidden").getFieldValue(sample));
+    assertTrue(field("missing").setValue(sample, 2));
+    assertEquals(2, field("missing").getFieldValue(sample));
+  }
+
+  @Test
+  public void generatedSetterExceptionsPropagate() throws Exception {
+    Object sample = sampleClass.getDeclaredConstructor().newInstance();
+    assertTrue(field("limit").setValue(sample, 3));
+
+    try {
+      field("limit").setValue(sample, -1);
+      fail("Expected the setter's exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Negative", e.getMessage());
+    }
+
+    assertEquals(3, field("limit").getFieldValue(sample));
+  }
+}
@@ -0,0 +1,111 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+/**
+ * Tests writes to every object of an EditableSelection.
+ * @author Jordan Glanfield
+ */
+public class EditableSelectionTest {
+
+  enum Team {
+    RED, BLUE
+  }
+
+  static class Unit {
+    @Editable
+    int health;
+
+    @Editable
+    Team team;
+  }
+
+  static class Captain extends Unit {
+    @Editable
+    int rank;
+  }
+
+  private static EditableSelection select(Object... objects) {
+    return new EditableSelection(Arrays.asList(objects),
+        new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions()));
+  }
+
+  @Test
+  public void writesEveryClassInOneUndoableTransaction() {
+    Unit unit = new Unit();
+    Captain captain = new Captain();
+    EditableSelection selection = select(unit, captain);
+    EditableField health = EditablePropertyUtils.findField(Unit.class, "health");
+    EditHistory history = new EditHistory(10, 100);
+
+    assertTrue(selection.apply(health, "7", history));
+    assertEquals(7, unit.health);
+    assertEquals(7, captain.health);
+    assertEquals("7", selection.getText());
+
+    assertTrue(history.undo());
+    assertEquals(0, unit.health);
+    assertEquals(0, captain.health);
+  }
+
+  @Test
+  public void parsesEnumsOnceForEveryTarget() {
+    Unit unit = new Unit();
+    Captain captain = new Captain();
+    EditableSelection selection = select(unit, captain);
+    EditableField team = EditablePropertyUtils.findField(Unit.class, "team");
+
+    assertTrue(selection.apply(team, "BLUE", new EditHistory(10, 100)));
+    assertEquals(Team.BLUE, unit.team);
+    assertEquals(Team.BLUE, captain.team);
+  }
+
+  @Test
+  public void unparsableValueWritesNothing() {
+    Unit unit = new Unit();
+    unit.health = 3;
+    EditableSelection selection = select(unit, new Captain());
+    EditableField health = EditablePropertyUtils.findField(Unit.class, "health");
+    EditHistory history = new EditHistory(10, 100);
+
+    assertFalse(selection.apply(health, "many", history));
+    assertFalse(selection.apply(health, "many", null));
+    assertEquals(3, unit.health);
+    assertFalse(history.canUndo());
+  }
+
+  @Test
+  public void writesEveryClassWithoutHistory() {
+    Unit unit = new Unit();
+    Captain captain = new Captain();
+    EditableSelection selection = select(unit, captain);
+    EditableField team = EditablePropertyUtils.findField(Unit.class, "team");
+
+    assertTrue(selection.apply(team, "BLUE", null));
+    assertEquals(Team.BLUE, unit.team);
+    assertEquals(Team.BLUE, captain.team);
+    assertEquals("BLUE", selection.getText());
+  }
+
+  @Test
+  public void stagesOneBatchForEveryTarget() {
+    Unit unit = new Unit();
+    Captain captain = new Captain();
+    EditableSelection selection = select(unit, captain);
+    EditableField health = EditablePropertyUtils.findField(Unit.class, "health");
+    EditStage stage = new EditStage();
+
+    assertTrue(selection.stage(health, "9", stage));
+    assertFalse(selection.stage(health, "many", stage));
+    assertEquals(0, unit.health);
+    assertEquals(2, stage.getPendingCount());
+    assertEquals(2, stage.apply());
+    assertEquals(9, unit.health);
+    assertEquals(9, captain.health);
+  }
+}
@@ -0,0 +1,105 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests saving and loading editable state with EditableSnapshots.
+ * @author Jordan Glanfield
+ */
+public class EditableSnapshotsTest {
+
+  enum Mode {
+    FAST, SLOW
+  }
+
+  static class Unit {
+    @Editable
+    int health;
+
+    @Editable
+    double speed;
+
+    @Editable
+    String name;
+
+    @Editable
+    Mode mode;
+  }
+
+  static class Boss extends Unit {
+    @Editable
+    int rage;
+  }
+
+  static class Other {
+    @Editable
+    int health;
+  }
+
+  private static Unit unit(int health, String name) {
+    Unit unit = new Unit();
+    unit.health = health;
+    unit.speed = health / 2.0;
+    unit.name = name;
+    unit.mode = Mode.SLOW;
+    return unit;
+  }
+
+  private static Path save(List<?> objects) throws Exception {
+    Path path = Files.createTempFile("snapshot", ".bin");
+    path.toFile().deleteOnExit();
+    EditableSnapshots.save(path, Unit.class, objects);
+    return path;
+  }
+
+  @Test
+  public void roundTripsValues() throws Exception {
+    Path path = save(Arrays.asList(unit(10, "a"), unit(20, null)));
+    List<Unit> loaded = EditableSnapshots.load(path, Unit::new,
+        new ParsingFunctionsMap(new HashMap<>()));
+
+    assertEquals(2, loaded.size());
+    assertEquals(10, loaded.get(0).health);
+    assertEquals(5.0, loaded.get(0).speed, 0);
+    assertEquals("a", loaded.get(0).name);
+    assertEquals(Mode.SLOW, loaded.get(0).mode);
+    assertEquals(20, loaded.get(1).health);
+    assertEquals(null, loaded.get(1).name);
+  }
+
+  @Test
+  public void loadsEachObjectWithItsOwnSchema() throws Exception {
+    Path path = save(Arrays.asList(unit(10, "a"), unit(20, "b")));
+    Boss boss = new Boss();
+    boss.rage = 7;
+    Unit unit = new Unit();
+
+    assertEquals(2, EditableSnapshots.load(path, Arrays.asList(boss, unit), null));
+    assertEquals(10, boss.health);
+    assertEquals("a", boss.name);
+    assertEquals(7, boss.rage);
+    assertEquals(20, unit.health);
+    assertEquals("b", unit.name);
+  }
+
+  @Test
+  public void rejectsObjectsOfAnotherClass() throws Exception {
+    Path path = save(Arrays.asList(unit(10, "a"), unit(20, "b")));
+    Other other = new Other();
+
+    try {
+      EditableSnapshots.load(path, Arrays.asList(new Unit(), other), null);
+      fail("Expected the class mismatch to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertEquals(0, other.health);
+    }
+  }
+}
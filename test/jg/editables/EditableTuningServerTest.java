@@ -0,0 +1,129 @@
+package jg.editables;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests requests made to an EditableTuningServer through EditableTuningClient.
+ * @author Jordan Glanfield
+ */
+public class EditableTuningServerTest {
+
+  static class Settings {
+    @Editable(category = "Physics")
+    double gravity = 9.8;
+
+    @Editable
+    int lives = 3;
+
+    @Editable
+    String title;
+  }
+
+  private final Settings settings = new Settings();
+  private EditableTuningServer server;
+  private EditableTuningClient client;
+
+  @Before
+  public void start() throws Exception {
+    server = new EditableTuningServer(
+        new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions()));
+    server.register("settings", settings);
+    client = new EditableTuningClient(server.start(0));
+  }
+
+  @After
+  public void stop() throws Exception {
+    client.close();
+    server.close();
+  }
+
+  private int indexOf(String name) {
+    return EditablePropertyUtils.getSchema(Settings.class)
+        .indexOf(EditablePropertyUtils.findField(Settings.class, name));
+  }
+
+  @Test
+  public void listsAndGetsFields() throws Exception {
+    List<String> fields = client.listFields("settings");
+    assertEquals(3, fields.size());
+    assertTrue(fields.contains("Physics/gravity"));
+
+    String[] values = client.get("settings", indexOf("lives"), indexOf("title"));
+    assertArrayEquals(new String[] {"3", null}, values);
+  }
+
+  @Test
+  public void setsAreStagedUntilApplied() throws Exception {
+    BitSet written = client.set("settings", new int[] {indexOf("lives"), indexOf("gravity")},
+        new String[] {"5", "not a number"});
+
+    assertEquals(BitSet.valueOf(new long[] {1}), written);
+    assertEquals(3, settings.lives);
+    assertEquals(1, server.getEditStage().apply());
+    assertEquals(5, settings.lives);
+    assertEquals(9.8, settings.gravity, 0);
+  }
+
+  @Test
+  public void pipelinedSetsAreAnsweredInOrder() throws Exception {
+    int first = client.sendSet("settings", new int[] {indexOf("lives")}, new String[] {"1"});
+    int second = client.sendSet("settings", new int[] {indexOf("lives")}, new String[] {"2"});
+
+    assertTrue(client.awaitSet(first).get(0));
+    assertTrue(client.awaitSet(second).get(0));
+    server.getEditStage().apply();
+    assertEquals(2, settings.lives);
+  }
+
+  @Test
+  public void subscribersReceiveChanges() throws Exception {
+    List<String> events = new ArrayList<>();
+    int subscription = client.subscribe("settings",
+        (index, value) -> events.add(index + "=" + value));
+    FieldChangeNotifier.setCoalescing(false);
+
+    try {
+      EditablePropertyUtils.findField(Settings.class, "title").setValue(settings, "Level 1");
+
+      for (int i = 0; i < 50 && events.isEmpty(); i++) {
+        client.pollEvents(100);
+      }
+
+      assertEquals(Arrays.asList(indexOf("title") + "=Level 1"), events);
+    } finally {
+      FieldChangeNotifier.setCoalescing(true);
+      client.unsubscribe(subscription);
+    }
+  }
+
+  @Test
+  public void rejectsUnknownRootsAndFields() throws Exception {
+    try {
+      client.listFields("missing");
+      fail("Expected the unknown root to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("Unknown root"));
+    }
+
+    try {
+      client.get("settings", 3);
+      fail("Expected the unknown field to be rejected");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().contains("Bad request"));
+    }
+
+    assertFalse(client.set("settings", new int[] {-1}, new String[] {"1"}).get(0));
+  }
+}
@@ -0,0 +1,105 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests subscriptions to writes through FieldChangeNotifier.
+ * @author Jordan Glanfield
+ */
+public class FieldChangeNotifierTest {
+
+  static class Base {
+    @Editable(setterName = "setLevel")
+    int level;
+
+    int setterCalls;
+  }
+
+  static class Derived extends Base {
+    void setLevel(int level) {
+      setterCalls++;
+      this.level = level;
+    }
+  }
+
+  private final List<FieldChangeListener> listeners = new ArrayList<>();
+
+  private void subscribeToField(EditableField field, FieldChangeListener listener) {
+    listeners.add(listener);
+    FieldChangeNotifier.subscribeToField(field, listener);
+  }
+
+  @After
+  public void unsubscribe() {
+    listeners.forEach(FieldChangeNotifier::unsubscribe);
+    FieldChangeNotifier.setCoalescing(true);
+    FieldChangeNotifier.flush();
+  }
+
+  @Test
+  public void fieldSubscriptionCoversSubclassCopies() {
+    EditableField baseField = EditablePropertyUtils.findField(Base.class, "level");
+    EditableField derivedField = EditablePropertyUtils.findField(Derived.class, "level");
+    assertNotSame(baseField, derivedField);
+
+    List<Object> notified = new ArrayList<>();
+    subscribeToField(baseField, (object, field) -> notified.add(object));
+
+    Derived derived = new Derived();
+    FieldChangeNotifier.setCoalescing(false);
+    assertTrue(derivedField.setValue(derived, 3));
+    assertEquals(1, notified.size());
+    assertEquals(derived, notified.get(0));
+  }
+
+  @Test
+  public void failingListenerDoesNotFailOrRepeatTheWrite() {
+    EditableField field = EditablePropertyUtils.findField(Derived.class, "level");
+    List<Throwable> reported = new ArrayList<>();
+    Thread thread = Thread.currentThread();
+    Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+    thread.setUncaughtExceptionHandler((failed, e) -> reported.add(e));
+
+    try {
+      subscribeToField(field, (object, changed) -> {
+        throw new AssertionError("Listener error");
+      });
+      FieldChangeNotifier.setCoalescing(false);
+
+      Derived derived = new Derived();
+      assertTrue(field.setValue(derived, 4));
+      assertTrue(field.setInt(derived, 5));
+      assertEquals(2, derived.setterCalls);
+      assertEquals(2, reported.size());
+    } finally {
+      thread.setUncaughtExceptionHandler(handler);
+    }
+  }
+
+  @Test
+  public void classSubscriptionAfterResolutionIsSeen() {
+    EditableField field = EditablePropertyUtils.findField(Derived.class, "level");
+    List<Object> first = new ArrayList<>();
+    List<Object> second = new ArrayList<>();
+    FieldChangeListener firstListener = (object, changed) -> first.add(object);
+    FieldChangeListener secondListener = (object, changed) -> second.add(object);
+    listeners.add(firstListener);
+    listeners.add(secondListener);
+    FieldChangeNotifier.setCoalescing(false);
+
+    FieldChangeNotifier.subscribeToClass(Base.class, firstListener);
+    field.setValue(new Derived(), 1);
+    FieldChangeNotifier.subscribeToClass(Derived.class, secondListener);
+    field.setValue(new Derived(), 2);
+
+    assertEquals(2, first.size());
+    assertEquals(1, second.size());
+  }
+}
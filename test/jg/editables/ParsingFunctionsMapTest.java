@@ -0,0 +1,144 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.function.Function;
+import org.junit.Test;
+
+/**
+ * Tests that the unboxed float and double parsers agree with Float.parseFloat and
+ * Double.parseDouble, which parsers maps are given and how parsers are resolved for supertypes.
+ * @author Jordan Glanfield
+ */
+public class ParsingFunctionsMapTest {
+
+  interface Shape {
+  }
+
+  static class Polygon implements Shape {
+  }
+
+  static class Square extends Polygon {
+  }
+
+  private static final String[] INPUTS = {
+    "0", "-0", "+1", "1.", ".5", "0.1", "3.14159", "-2.5e3", "1E-7", "123456789012345",
+    "1234567890123456789", "1e22", "1e23", "4.9e-324", "1.7976931348623157E308", "0.000001",
+    "NaN", "-Infinity", " 2.5 ", "1.5f", "0x1p3", "99999999", "16777217", "1e10", "1e-10"
+  };
+
+  private static void assertDoubleAgrees(String input) {
+    assertEquals(input, Double.doubleToRawLongBits(Double.parseDouble(input)),
+        Double.doubleToRawLongBits(ParsingFunctionsMap.parseDouble(new StringBuilder(input))));
+  }
+
+  private static void assertFloatAgrees(String input) {
+    assertEquals(input, Float.floatToRawIntBits(Float.parseFloat(input)),
+        Float.floatToRawIntBits(ParsingFunctionsMap.parseFloat(new StringBuilder(input))));
+  }
+
+  @Test
+  public void agreesWithStringParsing() {
+    for (String input : INPUTS) {
+      assertDoubleAgrees(input);
+      assertFloatAgrees(input);
+    }
+  }
+
+  @Test
+  public void agreesOnRandomDecimals() {
+    Random random = new Random(7);
+
+    for (int i = 0; i < 100000; i++) {
+      String digits = Long.toString(Math.abs(random.nextLong()
+          % (long) Math.pow(10, 1 + random.nextInt(15))));
+      int point = random.nextInt(digits.length() + 1);
+      String input = (random.nextBoolean() ? "-" : "") + digits.substring(0, point) + "."
+          + digits.substring(point) + (random.nextBoolean() ? "" : "e" + (random.nextInt(60) - 30));
+
+      assertDoubleAgrees(input);
+      assertFloatAgrees(input);
+    }
+  }
+
+  @Test
+  public void rejectsMalformedInput() {
+    for (String input : new String[] {"", "-", ".", "1e", "1e+", "1..2", "a"}) {
+      try {
+        ParsingFunctionsMap.parseDouble(input);
+        fail("Parsed " + input);
+      } catch (NumberFormatException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void primitiveMapsParseUnboxed() {
+    ParsingFunctionsMap parsingFunctions =
+        new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions());
+
+    assertEquals(42, parsingFunctions.getIntParseFunction(Integer.TYPE).applyAsInt("42"));
+    assertEquals(-7L, parsingFunctions.getLongParseFunction(Long.TYPE).applyAsLong("-7"));
+    assertNotNull(parsingFunctions.getFloatParseFunction(Float.TYPE));
+    assertNotNull(parsingFunctions.getDoubleParseFunction(Double.TYPE));
+    assertNull(parsingFunctions.getIntParseFunction(Integer.class));
+  }
+
+  @Test
+  public void replacedPrimitivesStopParsingUnboxed() {
+    ParsingFunctionsMap parsingFunctions =
+        new ParsingFunctionsMap(ParsingFunctionsMap.getPrimitiveParsingFunctions());
+    parsingFunctions.addParsingFunction(Integer.TYPE, (string) -> string.length());
+
+    assertNull(parsingFunctions.getIntParseFunction(Integer.TYPE));
+    assertEquals(3, parsingFunctions.parse(Integer.TYPE, "abc"));
+  }
+
+  @Test
+  public void cachedMissIsInvalidatedByRegistration() {
+    ParsingFunctionsMap parsingFunctions = new ParsingFunctionsMap(new HashMap<>());
+    Function<String, Object> squareFunction = (string) -> new Square();
+
+    assertNull(parsingFunctions.getParseFunction(Shape.class));
+    parsingFunctions.addParsingFunction(Square.class, squareFunction);
+    assertSame(squareFunction, parsingFunctions.getParseFunction(Shape.class));
+  }
+
+  @Test
+  public void cachedHitIsInvalidatedByCloserRegistration() {
+    ParsingFunctionsMap parsingFunctions = new ParsingFunctionsMap(new HashMap<>());
+    Function<String, Object> squareFunction = (string) -> new Square();
+    Function<String, Object> polygonFunction = (string) -> new Polygon();
+
+    parsingFunctions.addParsingFunction(Square.class, squareFunction);
+    assertSame(squareFunction, parsingFunctions.getParseFunction(Shape.class));
+    parsingFunctions.addParsingFunction(Polygon.class, polygonFunction);
+    assertSame(polygonFunction, parsingFunctions.getParseFunction(Shape.class));
+    assertSame(squareFunction, parsingFunctions.getParseFunction(Square.class));
+  }
+
+  @Test
+  public void nearestRegisteredClassIsChosen() {
+    Function<String, Object> squareFunction = (string) -> new Square();
+    Function<String, Object> polygonFunction = (string) -> new Polygon();
+    Function<String, Object> integerFunction = Integer::valueOf;
+    Function<String, Object> longFunction = Long::valueOf;
+    ParsingFunctionsMap parsingFunctions = new ParsingFunctionsMap(new HashMap<>());
+    parsingFunctions.addParsingFunction(Square.class, squareFunction);
+    parsingFunctions.addParsingFunction(Polygon.class, polygonFunction);
+    parsingFunctions.addParsingFunction(Integer.class, integerFunction);
+    parsingFunctions.addParsingFunction(Long.class, longFunction);
+
+    assertSame(polygonFunction, parsingFunctions.getParseFunction(Shape.class));
+    assertSame(polygonFunction, parsingFunctions.getParseFunction(Object.class));
+    assertSame(integerFunction, parsingFunctions.getParseFunction(Number.class));
+    assertNull(parsingFunctions.getParseFunction(String.class));
+  }
+}
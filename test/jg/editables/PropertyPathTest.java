@@ -0,0 +1,107 @@
+package jg.editables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests compiled dotted paths of editable fields.
+ * @author Jordan Glanfield
+ */
+public class PropertyPathTest {
+
+  static class Vector {
+    @Editable
+    float x;
+  }
+
+  static class Transform {
+    @Editable
+    Vector position = new Vector();
+  }
+
+  interface Shape {
+  }
+
+  static class Circle implements Shape {
+    @Editable
+    double radius;
+
+    @Editable
+    Transform transform = new Transform();
+  }
+
+  static final class Sealed {
+  }
+
+  static class Entity {
+    @Editable
+    Transform transform = new Transform();
+
+    @Editable
+    Shape shape;
+
+    @Editable
+    Sealed sealed;
+  }
+
+  @Test
+  public void readsAndWritesThroughComposedGetters() {
+    PropertyPath path = PropertyPath.compile(Entity.class, "transform.position.x");
+    Entity entity = new Entity();
+
+    assertTrue(path.setFloat(entity, 2.5f));
+    assertEquals(2.5f, entity.transform.position.x, 0f);
+    assertEquals(2.5f, path.getFloat(entity, 0f), 0f);
+    assertEquals(2.5f, path.get(entity));
+    assertSame(entity.transform.position, path.getTarget(entity));
+    assertSame(path, PropertyPath.compile(Entity.class, "transform.position.x"));
+  }
+
+  @Test
+  public void nullIntermediatesFailReadsAndWrites() {
+    PropertyPath path = PropertyPath.compile(Entity.class, "transform.position.x");
+    Entity entity = new Entity();
+    entity.transform.position = null;
+
+    assertNull(path.get(entity));
+    assertEquals(-1f, path.getFloat(entity, -1f), 0f);
+    assertFalse(path.setFloat(entity, 1f));
+    assertNull(path.getTarget(entity));
+  }
+
+  @Test
+  public void interfaceIntermediatesResolveAgainstRuntimeClass() {
+    PropertyPath path = PropertyPath.compile(Entity.class, "shape.transform.position.x");
+    PropertyPath radius = PropertyPath.compile(Entity.class, "shape.radius");
+    Entity entity = new Entity();
+
+    assertNull(radius.getLeafField());
+    assertFalse(radius.setDouble(entity, 1));
+
+    Circle circle = new Circle();
+    entity.shape = circle;
+    assertTrue(radius.setDouble(entity, 3));
+    assertEquals(3.0, circle.radius, 0);
+    assertEquals(3.0, radius.getDouble(entity, 0), 0);
+    assertEquals("radius", radius.getLeafField(entity).getName());
+    assertTrue(path.setFloat(entity, 4f));
+    assertEquals(4f, circle.transform.position.x, 0f);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void missingFieldOfFinalTypeIsRejected() {
+    PropertyPath.compile(Entity.class, "sealed.size");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void missingFieldOfRuntimeClassIsRejected() {
+    Entity entity = new Entity();
+    entity.shape = new Circle();
+    PropertyPath.compile(Entity.class, "shape.side").get(entity);
+  }
+}
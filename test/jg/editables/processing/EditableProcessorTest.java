@@ -0,0 +1,93 @@
+package jg.editables.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import jg.editables.Editable;
+import jg.editables.EditableClassIndex;
+import org.junit.Test;
+
+/**
+ * Tests the class index written by EditableProcessor across incremental compilations.
+ * @author Jordan Glanfield
+ */
+public class EditableProcessorTest {
+
+  private static Path write(Path directory, String className, String body) throws Exception {
+    Path source = directory.resolve("sample/" + className + ".java");
+    Files.createDirectories(source.getParent());
+    Files.write(source, ("package sample;\nimport jg.editables.Editable;\npublic class "
+        + className + " {\n" + body + "\n}\n").getBytes(StandardCharsets.UTF_8));
+    return source;
+  }
+
+  private static void compile(Path output, Path... sources) throws Exception {
+    String classPath = new File(Editable.class.getProtectionDomain().getCodeSource()
+        .getLocation().toURI()).getPath();
+    String[] arguments = new String[6 + sources.length];
+    arguments[0] = "-classpath";
+    arguments[1] = classPath + File.pathSeparator + output;
+    arguments[2] = "-processor";
+    arguments[3] = EditableProcessor.class.getName();
+    arguments[4] = "-d";
+    arguments[5] = output.toString();
+
+    for (int i = 0; i < sources.length; i++) {
+      arguments[6 + i] = sources[i].toString();
+    }
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assertEquals(0, compiler.run(null, null, null, arguments));
+  }
+
+  private static EditableClassIndex loadIndex(Path output) throws Exception {
+    return EditableClassIndex.load(new URLClassLoader(new URL[] {output.toUri().toURL()}, null));
+  }
+
+  @Test
+  public void recompiledClassesReplaceTheirEntries() throws Exception {
+    Path sources = Files.createTempDirectory("editables-sources");
+    Path output = Files.createTempDirectory("editables-classes");
+    Path kept = write(sources, "Kept", "@Editable int a;");
+    Path emptied = write(sources, "Emptied", "@Editable int b;\n"
+        + "public static class Inner { @Editable int c; }");
+    Path untouched = write(sources, "Untouched", "@Editable int d;");
+    compile(output, kept, emptied, untouched);
+
+    EditableClassIndex index = loadIndex(output);
+    assertTrue(index.contains("sample.Emptied"));
+    assertTrue(index.contains("sample.Emptied$Inner"));
+
+    write(sources, "Emptied", "int b;\npublic static class Inner { int c; }");
+    write(sources, "Kept", "@Editable int a;\n@Editable int e;");
+    compile(output, kept, emptied);
+
+    index = loadIndex(output);
+    assertFalse(index.contains("sample.Emptied"));
+    assertFalse(index.contains("sample.Emptied$Inner"));
+    assertTrue(index.contains("sample.Untouched"));
+    assertEquals(2, index.getPropertyGroups("sample.Kept").get("Object").size());
+  }
+
+  @Test
+  public void loadsWithoutContextClassLoader() {
+    Thread thread = Thread.currentThread();
+    ClassLoader contextLoader = thread.getContextClassLoader();
+    thread.setContextClassLoader(null);
+
+    try {
+      EditableClassIndex.load();
+    } finally {
+      thread.setContextClassLoader(contextLoader);
+    }
+  }
+}